@@ -27,7 +27,14 @@ import sk.baka.aedict.dict.DictEntry;
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.Dictionary;
 import sk.baka.aedict.dict.DictionaryVersions;
+import sk.baka.aedict.dict.DirectoryStrategy;
 import sk.baka.aedict.dict.DownloaderService;
+import sk.baka.aedict.dict.LoadKanjidicTask;
+import sk.baka.aedict.dict.LoadVerbClassesTask;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.SearchCache;
+import sk.baka.aedict.dict.SearchStats;
+import sk.baka.aedict.dict.WarmUpTask;
 import sk.baka.aedict.kanji.RomanizationEnum;
 import sk.baka.aedict.util.BackgroundService;
 import sk.baka.aedict.util.Iso6393Codes;
@@ -65,14 +72,26 @@ public class AedictApp extends Application implements OnSharedPreferenceChangeLi
 		PreferenceManager.setDefaultValues(this, R.xml.preferences, true);
 		PreferenceManager.getDefaultSharedPreferences(this).registerOnSharedPreferenceChangeListener(this);
 		apply(new Config(this));
-		ds = new DownloaderService();
+		ds = new DownloaderService(getConfig().getDownloadParallelism());
 		bs = new BackgroundService();
+		LuceneSearch.setCache(new SearchCache(SEARCH_CACHE_SIZE));
+		LuceneSearch.setStats(getConfig().isSearchStats() ? new SearchStats() : null);
+		LuceneSearch.setDefaultStrategy(getConfig().getDirectoryStrategy());
+		bs.schedule(LoadKanjidicTask.KEY, new LoadKanjidicTask());
+		bs.schedule(LoadVerbClassesTask.KEY, new LoadVerbClassesTask());
+		bs.schedule(WarmUpTask.KEY, new WarmUpTask());
 	}
 
+	/**
+	 * Maximum size of cached search results, in bytes.
+	 */
+	private static final int SEARCH_CACHE_SIZE = 1024 * 1024;
+
 	@Override
 	public void onTerminate() {
 		MiscUtils.closeQuietly(ds);
 		MiscUtils.closeQuietly(bs);
+		Log.i(AedictApp.class.getSimpleName(), String.valueOf(LuceneSearch.getCache()));
 		super.onTerminate();
 	}
 
@@ -381,6 +400,54 @@ public class AedictApp extends Application implements OnSharedPreferenceChangeLi
 			return prefs.getBoolean(KEY_SORT, true);
 		}
 
+		/**
+		 * The maximum number of dictionaries downloaded in parallel.
+		 * 
+		 * @return the number of parallel downloads, at least 1.
+		 */
+		public synchronized int getDownloadParallelism() {
+			try {
+				return Math.max(1, Integer.parseInt(prefs.getString(ConfigActivity.KEY_DOWNLOAD_PARALLELISM, "" + DownloaderService.DEFAULT_PARALLELISM)));
+			} catch (NumberFormatException ex) {
+				return DownloaderService.DEFAULT_PARALLELISM;
+			}
+		}
+
+		/**
+		 * Returns the way the dictionary index files are accessed.
+		 * 
+		 * @return the directory strategy, never null.
+		 */
+		public synchronized DirectoryStrategy getDirectoryStrategy() {
+			try {
+				final DirectoryStrategy result = DirectoryStrategy.valueOf(prefs.getString(ConfigActivity.KEY_DIRECTORY_STRATEGY, DirectoryStrategy.Auto.name()));
+				// the index is reopened for each search, it must not be
+				// copied into memory each time
+				return result == DirectoryStrategy.RAM ? DirectoryStrategy.Auto : result;
+			} catch (IllegalArgumentException ex) {
+				return DirectoryStrategy.Auto;
+			}
+		}
+
+		/**
+		 * Checks if the KANJIDIC dictionary should be kept in memory.
+		 * 
+		 * @return true if KANJIDIC searches are served from memory, false if
+		 *         they go to the Lucene index.
+		 */
+		public synchronized boolean isKanjidicInMemory() {
+			return prefs.getBoolean(ConfigActivity.KEY_KANJIDIC_IN_MEMORY, false);
+		}
+
+		/**
+		 * Checks if the search statistics are collected.
+		 * 
+		 * @return true if the latency of the searches is measured.
+		 */
+		public synchronized boolean isSearchStats() {
+			return prefs.getBoolean(ConfigActivity.KEY_SEARCH_STATS, false);
+		}
+
 		/**
 		 * Returns the dictionary location on the SD card of currently selected EDICT
 		 * dictionary.
@@ -399,6 +466,31 @@ public class AedictApp extends Application implements OnSharedPreferenceChangeLi
 		public synchronized DictionaryVersions getCurrentDictVersions() {
 			return DictionaryVersions.fromExternal(prefs.getString(KEY_CURRENT_DICT_VERSIONS, ""));
 		}
+
+		/**
+		 * Guards the read-modify-write of the current dictionary versions.
+		 * Each {@link AedictApp#getConfig()} call creates a new {@link Config}
+		 * instance, therefore the instance monitor is not enough.
+		 */
+		private static final Object CURRENT_DICT_VERSIONS_LOCK = new Object();
+
+		/**
+		 * Atomically records the version of a single downloaded dictionary,
+		 * retaining the versions of other dictionaries. Safe to call from
+		 * concurrent downloads.
+		 * 
+		 * @param dictionary
+		 *            the dictionary, not null.
+		 * @param version
+		 *            the dictionary version.
+		 */
+		public void setCurrentDictVersion(final Dictionary dictionary, final String version) {
+			synchronized (CURRENT_DICT_VERSIONS_LOCK) {
+				final DictionaryVersions versions = getCurrentDictVersions();
+				versions.versions.put(dictionary, version);
+				setCurrentDictVersions(versions);
+			}
+		}
 		private static final String KEY_SERVER_DICT_VERSIONS = "serverDictVersions";
 		public synchronized void setServerDictVersions(DictionaryVersions dv) {
 			commit(prefs.edit().putString(KEY_SERVER_DICT_VERSIONS, dv.toExternal()));
@@ -448,6 +540,21 @@ public class AedictApp extends Application implements OnSharedPreferenceChangeLi
 		if (key.equals(ConfigActivity.KEY_ALWAYS_AVAILABLE)) {
 			apply(getConfig());
 		}
+		if (key.equals(ConfigActivity.KEY_DOWNLOAD_PARALLELISM)) {
+			ds.setParallelism(getConfig().getDownloadParallelism());
+		}
+		if (key.equals(ConfigActivity.KEY_DIRECTORY_STRATEGY)) {
+			LuceneSearch.setDefaultStrategy(getConfig().getDirectoryStrategy());
+		}
+		if (key.equals(ConfigActivity.KEY_SEARCH_STATS)) {
+			LuceneSearch.setStats(getConfig().isSearchStats() ? new SearchStats() : null);
+		}
+		if (key.equals(ConfigActivity.KEY_KANJIDIC_IN_MEMORY)) {
+			bs.schedule(LoadKanjidicTask.KEY, new LoadKanjidicTask());
+		}
+		if (key.equals(ConfigActivity.KEY_DICTIONARY_NAME)) {
+			bs.schedule(LoadVerbClassesTask.KEY, new LoadVerbClassesTask());
+		}
 	}
 
 	public static final DictionaryVersions MIN_REQUIRED = new DictionaryVersions();
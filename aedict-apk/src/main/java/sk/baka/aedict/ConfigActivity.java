@@ -19,7 +19,10 @@
 package sk.baka.aedict;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,7 +34,10 @@ import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.Dictionary;
 import sk.baka.aedict.dict.DictionaryVersions;
 import sk.baka.aedict.dict.DownloaderService.UpdateDictionaries;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.SearchStats;
 import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.aedict.kanji.VerbDeinflection;
 import sk.baka.aedict.util.DialogActivity;
 import sk.baka.aedict.util.Iso6393Codes;
 import sk.baka.autils.DialogUtils;
@@ -108,6 +114,29 @@ public class ConfigActivity extends PreferenceActivity {
 	 * Picks the Tatoeba language.
 	 */
 	public static final String KEY_EXAMPLES_DICT_LANG = "examplesDictLang";
+	/**
+	 * String (a number). The maximum number of dictionaries downloaded in
+	 * parallel.
+	 */
+	public static final String KEY_DOWNLOAD_PARALLELISM = "downloadParallelism";
+	/**
+	 * String (a {@link sk.baka.aedict.dict.DirectoryStrategy} name). Controls
+	 * how the dictionary index files are accessed.
+	 */
+	public static final String KEY_DIRECTORY_STRATEGY = "directoryStrategy";
+	/**
+	 * Boolean. If true then the KANJIDIC dictionary is kept in memory.
+	 */
+	public static final String KEY_KANJIDIC_IN_MEMORY = "kanjidicInMemory";
+	/**
+	 * Boolean. If true then the latency statistics of the searches are
+	 * collected, see {@link sk.baka.aedict.dict.SearchStats}.
+	 */
+	public static final String KEY_SEARCH_STATS = "searchStats";
+	/**
+	 * Writes the collected search statistics to a file on the SD card.
+	 */
+	public static final String KEY_EXPORT_SEARCH_STATS = "exportSearchStats";
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
@@ -154,6 +183,10 @@ public class ConfigActivity extends PreferenceActivity {
 			checkForNewVersions();
 			return true;
 		}
+		if (key.equals(KEY_EXPORT_SEARCH_STATS)) {
+			exportSearchStats();
+			return true;
+		}
 		return super.onPreferenceTreeClick(preferenceScreen, preference);
 	}
 
@@ -185,6 +218,13 @@ public class ConfigActivity extends PreferenceActivity {
 					MiscUtils.deleteDir(new File(DictTypeEnum.BASE_DIR));
 				} catch (IOException e) {
 					throw new RuntimeException(e);
+				} finally {
+					if (LuceneSearch.getCache() != null) {
+						LuceneSearch.getCache().invalidateAll();
+					}
+					// drop the in-memory copies of the deleted files
+					LuceneSearch.setKanjidic(null);
+					VerbDeinflection.setVerbs(null);
 				}
 				utils.showToast(R.string.data_files_removed);
 			}
@@ -192,6 +232,30 @@ public class ConfigActivity extends PreferenceActivity {
 		});
 	}
 
+	/**
+	 * Writes the collected search statistics to a file on the SD card.
+	 */
+	private void exportSearchStats() {
+		final DialogUtils utils = new DialogUtils(this);
+		final SearchStats stats = LuceneSearch.getStats();
+		if (stats == null) {
+			utils.showToast(R.string.searchStatsDisabled);
+			return;
+		}
+		final File file = new File(DictTypeEnum.BASE_DIR, "searchStats.txt");
+		try {
+			final Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				out.write(stats.getSummary() + "\n" + stats.getHistogramDump());
+			} finally {
+				MiscUtils.closeQuietly(out);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		Toast.makeText(this, AedictApp.format(R.string.searchStatsExported, file.getAbsolutePath()), Toast.LENGTH_LONG).show();
+	}
+
 	private static class GetVersionNumbers implements Callable<Void> {
 		public final Activity a;
 		public GetVersionNumbers(Activity a){
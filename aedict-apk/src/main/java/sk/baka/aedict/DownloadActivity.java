@@ -18,6 +18,9 @@
 
 package sk.baka.aedict;
 
+import java.util.List;
+import java.util.Set;
+
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.Dictionary;
 import sk.baka.aedict.dict.DownloaderService;
@@ -88,17 +91,38 @@ public class DownloadActivity extends Activity {
 
 	private void update() {
 		final DownloaderService service = AedictApp.getDownloader();
-		final State state = service.getState();
+		final List<State> states = service.getStates();
+		final Set<String> queue = service.getDownloadQueue();
+		final StringBuilder msg = new StringBuilder();
+		final StringBuilder progressText = new StringBuilder();
+		int downloaded = 0;
+		int total = 0;
+		for (final State state : states) {
+			if (!state.isError && queue.contains(state.dictName)) {
+				// queued downloads are shown separately
+				continue;
+			}
+			if (msg.length() > 0) {
+				msg.append('\n');
+				progressText.append('\n');
+			}
+			msg.append(state.msg);
+			progressText.append(state.isError ? "-" : state.downloaded + "kb / " + state.total + "kb, " + String.format("%.2f", state.throughput) + " MB/s");
+			if (!state.isError) {
+				downloaded += state.downloaded;
+				total += state.total;
+			}
+		}
 		final TextView statusMessage = ((TextView) findViewById(R.id.statusMessage));
-		if (state == null) {
+		if (msg.length() == 0) {
 			statusMessage.setText(R.string.noActiveDownload);
 		} else {
-			statusMessage.setText(state.msg);
+			statusMessage.setText(msg.toString());
 		}
 		final ProgressBar progress = (ProgressBar) findViewById(R.id.progress);
-		progress.setProgress(state == null || state.isError ? 0 : state.getCompleteness());
-		((TextView) findViewById(R.id.queue)).setText(AedictApp.format(R.string.queuedForDownload, service.getDownloadQueue().toString()));
-		((TextView) findViewById(R.id.progressText)).setText(state == null || state.isError ? "-" : state.downloaded + "kb / " + state.total + "kb");
+		progress.setProgress(total == 0 ? 0 : (int) (downloaded * 100L / total));
+		((TextView) findViewById(R.id.queue)).setText(AedictApp.format(R.string.queuedForDownload, queue.toString()));
+		((TextView) findViewById(R.id.progressText)).setText(progressText.length() == 0 ? "-" : progressText.toString());
 	}
 
 	public static void launch(Activity a) {
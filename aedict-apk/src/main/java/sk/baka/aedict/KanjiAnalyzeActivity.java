@@ -21,16 +21,20 @@ package sk.baka.aedict;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import sk.baka.aedict.dict.DictEntry;
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.Dictionary;
+import sk.baka.aedict.dict.DictionaryTrie;
 import sk.baka.aedict.dict.EdictEntry;
 import sk.baka.aedict.dict.KanjidicEntry;
 import sk.baka.aedict.dict.LuceneSearch;
 import sk.baka.aedict.dict.MatcherEnum;
 import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.Segmenter;
 import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.aedict.kanji.Radicals;
 import sk.baka.aedict.util.DictEntryListActions;
@@ -264,6 +268,29 @@ public class KanjiAnalyzeActivity extends ListActivity {
 		new RecomputeModel().execute(AedictApp.isInstrumentation, this, word);
 	}
 
+	/**
+	 * Looks up given sentence segment in the EDICT dictionary.
+	 * 
+	 * @param segment
+	 *            the segment, not null.
+	 * @param edict
+	 *            the EDICT dictionary.
+	 * @return the dictionary entry; an entry with the segment text only if
+	 *         the segment is not a dictionary word.
+	 * @throws IOException
+	 *             on i/o error
+	 */
+	static DictEntry findWord(final Segmenter.Segment segment, final LuceneSearch edict) throws IOException {
+		if (segment.isWord) {
+			final List<DictEntry> result = edict.search(SearchQuery.searchJpEdict(segment.text, MatcherEnum.Exact), 1);
+			DictEntry.removeInvalid(result);
+			if (!result.isEmpty()) {
+				return result.get(0);
+			}
+		}
+		return new DictEntry(segment.text, "", "");
+	}
+
 	private class RecomputeModel extends AbstractTask<String, List<DictEntry>> {
 
 		@Override
@@ -291,8 +318,13 @@ public class KanjiAnalyzeActivity extends ListActivity {
 
 		private List<DictEntry> analyzeByWords(final String sentence) throws IOException {
 			final List<DictEntry> result = new ArrayList<DictEntry>();
-			final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, AedictApp.getConfig().getDictionaryLoc(), AedictApp.getConfig().isSorted());
+			final String dictionaryLoc = AedictApp.getConfig().getDictionaryLoc();
+			final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, dictionaryLoc, AedictApp.getConfig().isSorted());
 			try {
+				// may be null if the dictionary was downloaded by an older
+				// Aedict version
+				final DictionaryTrie trie = DictionaryTrie.open(dictionaryLoc);
+				final Segmenter segmenter = trie == null ? null : new Segmenter(trie);
 				final String[] words = getWords(sentence);
 				final int progressMax = getNumberOfCharacters(words);
 				int currentProgress = 0;
@@ -301,6 +333,14 @@ public class KanjiAnalyzeActivity extends ListActivity {
 						return null;
 					}
 					String w = words[i].trim();
+					if (segmenter != null) {
+						for (final Segmenter.Segment segment : segmenter.segment(w)) {
+							result.add(findWord(segment, lsEdict));
+						}
+						currentProgress += w.length();
+						publish(new Progress(null, currentProgress, progressMax));
+						continue;
+					}
 					while (w.length() > 0) {
 						final MatchedWord match = findLongestWord(w, lsEdict);
 						result.add(match.entry);
@@ -363,58 +403,55 @@ public class KanjiAnalyzeActivity extends ListActivity {
 		}
 
 		private List<DictEntry> analyzeByCharacters(final String word) throws IOException {
-			final List<DictEntry> result = new ArrayList<DictEntry>(word.length());
-			final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, AedictApp.getConfig().getDictionaryLoc(), AedictApp.getConfig().isSorted());
-			try {
-				LuceneSearch lsKanjidic = null;
-				if (AedictApp.getDownloader().isComplete(DictTypeEnum.Kanjidic)) {
-					lsKanjidic = new LuceneSearch(DictTypeEnum.Kanjidic, null, AedictApp.getConfig().isSorted());
-				}
+			final String w = MiscUtils.removeWhitespaces(word);
+			final List<DictEntry> result = new ArrayList<DictEntry>(w.length());
+			// look up all kanjis at once: first in KANJIDIC, then the missing
+			// ones in EDICT
+			final Map<Character, DictEntry> entries = new HashMap<Character, DictEntry>();
+			if (AedictApp.getDownloader().isComplete(DictTypeEnum.Kanjidic)) {
+				final LuceneSearch lsKanjidic = new LuceneSearch(DictTypeEnum.Kanjidic, null, AedictApp.getConfig().isSorted());
 				try {
-					final String w = MiscUtils.removeWhitespaces(word);
-					for (int i = 0; i < w.length(); i++) {
-						publish(new Progress(null, i, w.length()));
-						if (isCancelled()) {
-							return null;
-						}
-						final char c = w.charAt(i);
-						final boolean isKanji = KanjiUtils.isKanji(c);
-						if (!isKanji) {
-							result.add(new DictEntry(String.valueOf(c), String.valueOf(c), ""));
-						} else {
-							// it is a kanji. search for it in the
-							// dictionary.
-							final SearchQuery q = SearchQuery.searchJpEdict(String.valueOf(c), MatcherEnum.Exact);
-							List<DictEntry> matches = null;
-							DictEntry ee = null;
-							if (lsKanjidic != null) {
-								matches = lsKanjidic.search(q, 1);
-								DictEntry.removeInvalid(matches);
-							}
-							if (matches != null && !matches.isEmpty()) {
-								ee = matches.get(0);
-							}
-							if (ee == null) {
-								matches = lsEdict.search(q, 1);
-								DictEntry.removeInvalid(matches);
-								if (!matches.isEmpty()) {
-									ee = matches.get(0);
-								}
-							}
-							if (ee == null) {
-								// no luck. Just add the kanji
-								ee = new DictEntry(String.valueOf(c), "", "");
-							}
-							result.add(ee);
-						}
-					}
-					return result;
+					entries.putAll(lsKanjidic.lookupKanji(w));
 				} finally {
 					MiscUtils.closeQuietly(lsKanjidic);
 				}
-			} finally {
-				MiscUtils.closeQuietly(lsEdict);
 			}
+			publish(new Progress(null, 1, 3));
+			if (isCancelled()) {
+				return null;
+			}
+			final StringBuilder missing = new StringBuilder();
+			for (int i = 0; i < w.length(); i++) {
+				if (!entries.containsKey(w.charAt(i))) {
+					missing.append(w.charAt(i));
+				}
+			}
+			if (missing.length() > 0) {
+				final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, AedictApp.getConfig().getDictionaryLoc(), AedictApp.getConfig().isSorted());
+				try {
+					entries.putAll(lsEdict.lookupKanji(missing));
+				} finally {
+					MiscUtils.closeQuietly(lsEdict);
+				}
+			}
+			publish(new Progress(null, 2, 3));
+			if (isCancelled()) {
+				return null;
+			}
+			for (int i = 0; i < w.length(); i++) {
+				final char c = w.charAt(i);
+				if (!KanjiUtils.isKanji(c)) {
+					result.add(new DictEntry(String.valueOf(c), String.valueOf(c), ""));
+					continue;
+				}
+				DictEntry ee = entries.get(c);
+				if (ee == null) {
+					// no luck. Just add the kanji
+					ee = new DictEntry(String.valueOf(c), "", "");
+				}
+				result.add(ee);
+			}
+			return result;
 		}
 	}
 
@@ -20,8 +20,10 @@ package sk.baka.aedict;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import sk.baka.aedict.AedictApp.Config;
 import sk.baka.aedict.dict.DictEntry;
@@ -32,8 +34,10 @@ import sk.baka.aedict.dict.LuceneSearch;
 import sk.baka.aedict.dict.MatcherEnum;
 import sk.baka.aedict.dict.SearchQuery;
 import sk.baka.aedict.dict.TanakaDictEntry;
+import sk.baka.aedict.kanji.FormResources;
 import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.aedict.kanji.VerbInflection.Form;
 import sk.baka.aedict.kanji.Deinflections.Deinflection;
 import sk.baka.aedict.util.Constants;
 import sk.baka.aedict.util.DictEntryListActions;
@@ -311,16 +315,12 @@ public class ResultActivity extends ListActivity {
 
 		@Override
 		public List<DictEntry> impl(SearchQuery... params) throws Exception {
-			final List<DictEntry> result = new ArrayList<DictEntry>();
 			final LuceneSearch lucene = new LuceneSearch(params[0].dictType, params[0].dictType == DictTypeEnum.Edict ? AedictApp.getConfig().getDictionaryLoc() : null, AedictApp.getConfig().isSorted());
 			try {
-				for (final SearchQuery query : params) {
-					result.addAll(lucene.search(query));
-				}
+				return LuceneSearch.Hit.getEntries(lucene.searchAll(Arrays.asList(params)));
 			} finally {
 				MiscUtils.closeQuietly(lucene);
 			}
-			return result;
 		}
 
 		@Override
@@ -338,7 +338,10 @@ public class ResultActivity extends ListActivity {
 		final Config cfg = AedictApp.getConfig();
 		final String dictName = queries.get(0).dictType == DictTypeEnum.Tanaka ? DictTypeEnum.Tanaka.name() : cfg.getDictionaryName();
 		b.append(AedictApp.format(R.string.searchingInDictionary, dictName));
-		final List<Deinflection> ds=(List<Deinflection>) getIntent().getSerializableExtra(INTENTKEY_DEINFLECTIONS);
+		List<Deinflection> ds = getConjugations();
+		if (ds.isEmpty()) {
+			ds = (List<Deinflection>) getIntent().getSerializableExtra(INTENTKEY_DEINFLECTIONS);
+		}
 		if(ds!=null){
 			for(final Deinflection d:ds) {
 				final String inflected=RomanizationEnum.NihonShiki.toHiragana(d.inflected);
@@ -352,11 +355,42 @@ public class ResultActivity extends ListActivity {
 				b.append(b.newForeground(0xFFFFFFFF), lb.toString());
 				if(d.inflectedForm!=null){
 					b.append(" (");
-					b.append(getString( d.inflectedForm.explanationResId));
+					b.append(getString(FormResources.getExplanation(d.inflectedForm)));
 					b.append(')');
 				}
 			}
 		}
 		((TextView) findViewById(R.id.textSelectedDictionary)).setText(b);
 	}
+
+	/**
+	 * Explains the conjugated words the entries were found by, using the same
+	 * conjugation table the index was built from.
+	 * 
+	 * @return a list of conjugations, empty if the query did not search for
+	 *         inflected words or no entry matched an inflected word.
+	 */
+	private List<Deinflection> getConjugations() {
+		final List<Deinflection> result = new ArrayList<Deinflection>();
+		for (final SearchQuery q : queries) {
+			if (q.inflected == null || q.dictType != DictTypeEnum.Edict) {
+				continue;
+			}
+			for (final String inflected : q.inflected) {
+				for (final DictEntry e : model) {
+					if (!e.isValid()) {
+						continue;
+					}
+					final Set<Form> forms = EdictEntry.fromEntry(e).getInflections().get(inflected.trim());
+					if (forms == null) {
+						continue;
+					}
+					for (final Form form : forms) {
+						result.add(new Deinflection(inflected.trim(), form, e.reading));
+					}
+				}
+			}
+		}
+		return result;
+	}
 }
@@ -18,13 +18,15 @@
 package sk.baka.aedict;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import sk.baka.aedict.dict.DictEntry;
 import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.DictionaryTrie;
 import sk.baka.aedict.dict.LuceneSearch;
 import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.Suggester;
 import sk.baka.aedict.kanji.RomanizationEnum;
 import sk.baka.aedict.kanji.VerbDeinflection;
 import sk.baka.autils.MiscUtils;
@@ -48,8 +50,21 @@ public class SearchProvider extends ContentProvider {
 	 */
 	public static final String AUTHORITY = "sk.baka.aedict.search";
 
-	private static final String[] COLUMN_NAMES = new String[] { "_id", SearchManager.SUGGEST_COLUMN_TEXT_1, SearchManager.SUGGEST_COLUMN_TEXT_2, SearchManager.SUGGEST_COLUMN_INTENT_EXTRA_DATA };
+	private static final String[] COLUMN_NAMES = new String[] { "_id", SearchManager.SUGGEST_COLUMN_TEXT_1, SearchManager.SUGGEST_COLUMN_TEXT_2, SearchManager.SUGGEST_COLUMN_INTENT_EXTRA_DATA, SearchManager.SUGGEST_COLUMN_QUERY };
 	private static final int SEARCH_SUGGEST = 0;
+	/**
+	 * Maximum number of word suggestions.
+	 */
+	private static final int MAX_SUGGESTIONS = 20;
+	/**
+	 * Completes the typed query, null if not yet opened or the dictionary
+	 * does not contain the word trie.
+	 */
+	private Suggester suggester;
+	/**
+	 * The dictionary location of the {@link #suggester}.
+	 */
+	private String suggesterPath;
 
 	private static UriMatcher uriMatcher;
 	static {
@@ -67,8 +82,9 @@ public class SearchProvider extends ContentProvider {
 		try {
 			final LuceneSearch lucene = new LuceneSearch(DictTypeEnum.Edict, AedictApp.getConfig().getDictionaryLoc(), AedictApp.getConfig().isSorted());
 			try {
-				entries.addAll(lucene.search(VerbDeinflection.searchJpDeinflected(query, AedictApp.getConfig().getRomanization()).query));
-				entries.addAll(lucene.search(SearchQuery.searchEnEdict(query, true)));
+				// a single index traversal for both queries, sorted by LuceneSearch
+				final List<SearchQuery> queries = Arrays.asList(VerbDeinflection.searchJpDeinflected(query, AedictApp.getConfig().getRomanization()).query, SearchQuery.searchEnEdict(query, true));
+				entries.addAll(LuceneSearch.Hit.getEntries(lucene.searchAll(queries)));
 			} finally {
 				MiscUtils.closeQuietly(lucene);
 			}
@@ -76,21 +92,53 @@ public class SearchProvider extends ContentProvider {
 			Log.e(SearchProvider.class.getSimpleName(), ex.getMessage(), ex);
 			entries.add(DictEntry.newErrorMsg(ex));
 		}
-		if (AedictApp.getConfig().isSorted()) {
-			Collections.sort(entries);
-		}
 		return entries;
 	}
 	
+	private synchronized Suggester getSuggester() {
+		final String path = AedictApp.getConfig().getDictionaryLoc();
+		if (suggester == null || !path.equals(suggesterPath)) {
+			suggester = null;
+			try {
+				final DictionaryTrie trie = DictionaryTrie.open(path);
+				if (trie != null) {
+					suggester = new Suggester(trie);
+					suggesterPath = path;
+				}
+			} catch (Exception ex) {
+				Log.e(SearchProvider.class.getSimpleName(), "Failed to open the word trie", ex);
+			}
+		}
+		return suggester;
+	}
+
 	@Override
 	public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
 		final RomanizationEnum romanize = AedictApp.getConfig().isUseRomaji() ? AedictApp.getConfig().getRomanization() : null;
 		final String searchString = uri.getLastPathSegment();
 		final MatrixCursor cursor = new MatrixCursor(COLUMN_NAMES);
-		final List<DictEntry> entries = searchForQuery(searchString);
+		if (SearchManager.SUGGEST_URI_PATH_QUERY.equals(searchString)) {
+			// nothing typed yet
+			return cursor;
+		}
+		final Suggester s = getSuggester();
 		int i = 0;
+		if (s != null) {
+			// only complete Japanese words as the user types. Picking a word
+			// submits it as a query, which performs the full search.
+			for (final String word : s.suggest(searchString, MAX_SUGGESTIONS, AedictApp.getConfig().getRomanization())) {
+				Object[] rowObject = new Object[] { i++, word, romanize == null ? null : romanize.toRomaji(word), null, word };
+				cursor.addRow(rowObject);
+			}
+			if (i > 0) {
+				return cursor;
+			}
+		}
+		// an English query, no completions or an older dictionary without
+		// the word trie: perform the full search
+		final List<DictEntry> entries = searchForQuery(searchString);
 		for (final DictEntry entry : entries) {
-			Object[] rowObject = new Object[] { i++, entry.formatJapanese(romanize), entry.english, entry.toExternal() };
+			Object[] rowObject = new Object[] { i++, entry.formatJapanese(romanize), entry.english, entry.toExternal(), null };
 			cursor.addRow(rowObject);
 		}
 		return cursor;
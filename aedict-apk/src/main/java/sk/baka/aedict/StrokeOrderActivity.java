@@ -21,6 +21,9 @@ package sk.baka.aedict;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import sk.baka.aedict.KanjiDrawActivity.PainterView;
 import sk.baka.aedict.util.SodLoader;
@@ -32,8 +35,10 @@ import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -65,6 +70,18 @@ public class StrokeOrderActivity extends ListActivity {
 	 * Loads SOD images.
 	 */
 	private SodLoader sodLoader = null;
+	/**
+	 * Decodes the prefetched SOD images. A dedicated low-priority thread, so
+	 * that the prefetch neither waits behind the application background
+	 * tasks nor competes with the UI thread.
+	 */
+	private ExecutorService prefetcher = null;
+	/**
+	 * The kanjis to prefetch next, null if no prefetch is pending. Only the
+	 * latest request is kept, as the images around a scroll position which
+	 * was already left are not needed anymore. Guarded by this.
+	 */
+	private List<Character> pendingPrefetch = null;
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
@@ -80,6 +97,14 @@ public class StrokeOrderActivity extends ListActivity {
 			} catch (IOException e) {
 				throw new RuntimeException(e);
 			}
+			prefetcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				public Thread newThread(Runnable r) {
+					final Thread t = new Thread(r, "SOD prefetch");
+					t.setPriority(Thread.MIN_PRIORITY);
+					return t;
+				}
+			});
 		}
 		final DisplayMetrics dm = new DisplayMetrics();
 		getWindowManager().getDefaultDisplay().getMetrics(dm);
@@ -117,12 +142,89 @@ public class StrokeOrderActivity extends ListActivity {
 			}
 
 		});
+		getListView().setOnScrollListener(new AbsListView.OnScrollListener() {
+
+			public void onScrollStateChanged(AbsListView view, int scrollState) {
+				// nothing to do
+			}
+
+			private int prevFirst = -1;
+			private int prevLast = -1;
+
+			public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+				final int last = firstVisibleItem + visibleItemCount - 1;
+				if (firstVisibleItem != prevFirst || last != prevLast) {
+					// onScroll is called repeatedly during a fling, prefetch only when the visible items change
+					prevFirst = firstVisibleItem;
+					prevLast = last;
+					prefetch(firstVisibleItem, last);
+				}
+			}
+		});
 		findViewById(R.id.kanjidrawRoot).setVisibility(model.size() == 1 ? View.VISIBLE : View.GONE);
 		if (model.size() == 1) {
 			addKanjiPad(model.get(0));
 		}
 	}
 
+	/**
+	 * Decodes images of kanjis adjacent to the visible list items in the
+	 * background, so that they are ready when the list is scrolled.
+	 * 
+	 * @param first
+	 *            the first visible list position.
+	 * @param last
+	 *            the last visible list position.
+	 */
+	private void prefetch(final int first, final int last) {
+		final SodLoader loader = sodLoader;
+		final List<Character> kanjis = new ArrayList<Character>();
+		for (final int i : new int[] { first - 1, last + 1 }) {
+			if (i >= 0 && i < model.size()) {
+				kanjis.add(model.get(i));
+			}
+		}
+		if (loader == null || kanjis.isEmpty()) {
+			return;
+		}
+		synchronized (this) {
+			final boolean scheduled = pendingPrefetch != null;
+			pendingPrefetch = kanjis;
+			if (scheduled) {
+				// the pending task picks up the new request
+				return;
+			}
+		}
+		prefetcher.execute(new Runnable() {
+
+			public void run() {
+				final List<Character> kanjis;
+				synchronized (StrokeOrderActivity.this) {
+					kanjis = pendingPrefetch;
+					pendingPrefetch = null;
+				}
+				for (final Character kanji : kanjis) {
+					try {
+						loader.prefetch(kanji);
+					} catch (IOException e) {
+						Log.e(StrokeOrderActivity.class.getSimpleName(), "Failed to prefetch " + kanji, e);
+					}
+				}
+			}
+		});
+	}
+
+	@Override
+	protected void onDestroy() {
+		if (prefetcher != null) {
+			prefetcher.shutdownNow();
+		}
+		if (sodLoader != null) {
+			Log.i(StrokeOrderActivity.class.getSimpleName(), "SOD image cache: " + sodLoader.getCache());
+		}
+		super.onDestroy();
+	}
+
 	private void addKanjiPad(char kanji) {
 		final PainterView view = new PainterView(this, R.id.textStrokes);
 		((ViewGroup) findViewById(R.id.kanjidrawRoot)).addView(view);
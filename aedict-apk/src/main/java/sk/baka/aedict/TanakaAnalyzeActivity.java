@@ -25,10 +25,12 @@ import java.util.List;
 import sk.baka.aedict.dict.DictEntry;
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.Dictionary;
+import sk.baka.aedict.dict.DictionaryTrie;
 import sk.baka.aedict.dict.EdictEntry;
 import sk.baka.aedict.dict.LuceneSearch;
 import sk.baka.aedict.dict.MatcherEnum;
 import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.Segmenter;
 import sk.baka.aedict.dict.TanakaDictEntry;
 import sk.baka.aedict.util.DictEntryListActions;
 import sk.baka.aedict.util.ShowRomaji;
@@ -191,8 +193,12 @@ public class TanakaAnalyzeActivity extends ListActivity {
 		public List<DictEntry> impl(TanakaDictEntry... params) throws Exception {
 			publish(new Progress(AedictApp.getStr(R.string.analyzing), 0, 100));
 			final List<DictEntry> result = new ArrayList<DictEntry>();
-			final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, AedictApp.getConfig().getDictionaryLoc(), true);
+			final String dictionaryLoc = AedictApp.getConfig().getDictionaryLoc();
+			final LuceneSearch lsEdict = new LuceneSearch(DictTypeEnum.Edict, dictionaryLoc, true);
 			try {
+				// may be null if the dictionary was downloaded by an older
+				// Aedict version
+				final DictionaryTrie trie = DictionaryTrie.open(dictionaryLoc);
 				final TanakaDictEntry e = params[0];
 				for (int i = 0; i < e.wordList.size(); i++) {
 					publish(new Progress(null, i, e.wordList.size()));
@@ -209,14 +215,17 @@ public class TanakaAnalyzeActivity extends ListActivity {
 						}
 					}
 					DictEntry.removeInvalid(matches);
-					final DictEntry ee;
 					if (!matches.isEmpty()) {
-						ee = matches.get(0);
+						result.add(matches.get(0));
+					} else if (trie != null) {
+						// not a dictionary word, try to split it into words
+						for (final Segmenter.Segment segment : new Segmenter(trie).segment(kanji)) {
+							result.add(KanjiAnalyzeActivity.findWord(segment, lsEdict));
+						}
 					} else {
 						// no luck. Just add the kanji
-						ee = new DictEntry(kanji, "", "");
+						result.add(new DictEntry(kanji, "", ""));
 					}
-					result.add(ee);
 				}
 				return result;
 			} finally {
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import sk.baka.aedict.dict.EdictEntry;
+import sk.baka.aedict.kanji.FormResources;
 import sk.baka.aedict.kanji.RomanizationEnum;
 import sk.baka.aedict.kanji.VerbInflection;
 import sk.baka.aedict.kanji.VerbInflection.Form;
@@ -105,23 +106,21 @@ public class VerbInflectionActivity extends ExpandableListActivity {
 			groupData.add(data);
 			childData.add(Collections.<Map<String, String>> emptyList());
 		}
-		// now, add all possible inflections
-		for (final VerbInflection.Form form : VerbInflection.Form.values()) {
+		// now, add all possible inflections. forms not applicable to ichidan
+		// verbs are already filtered out
+		for (final Map.Entry<Form, String> e : VerbInflection.conjugate(entry.reading, isIchidan).entrySet()) {
+			final Form form = e.getKey();
 			// filter out the form if we are showing basic forms only
 			if (isShowingBasicOnly && !form.basic) {
 				continue;
 			}
-			if (isIchidan && !form.appliesToIchidan()) {
-				// filter out forms not applicable to ichidan verbs
-				continue;
-			}
 			// okay, add it to the list
 			Map<String, String> data = new HashMap<String, String>(2);
-			data.put(KEY_JP, convertInflectionProduct(form.inflect(RomanizationEnum.NihonShiki.toRomaji(entry.reading), isIchidan)));
-			data.put(KEY_EN, getString(form.explanationResId));
+			data.put(KEY_JP, showRomaji.romanize(e.getValue()));
+			data.put(KEY_EN, getString(FormResources.getExplanation(form)));
 			groupData.add(data);
 			// add example sentences as a sublist
-			final String[][] examples = form.getExamples(this, romanization);
+			final String[][] examples = FormResources.getExamples(form, this, romanization);
 			final List<Map<String, String>> childDataItem = new ArrayList<Map<String, String>>();
 			for (final String[] pair : examples) {
 				data = new HashMap<String, String>(2);
@@ -30,7 +30,7 @@ public class DownloaderDialogActivity implements DialogActivity.IDialogListener
 	}
 
 	public void onPositiveClick(final DialogActivity activity) {
-		AedictApp.getDownloader().download(downloader);
+		AedictApp.getDownloader().download(downloader, DownloaderService.PRIORITY_HIGH);
 		DownloadActivity.launch(activity);
 	}
 }
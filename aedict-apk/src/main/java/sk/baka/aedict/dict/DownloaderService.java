@@ -21,22 +21,29 @@ package sk.baka.aedict.dict;
 import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
-import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -54,12 +61,86 @@ import android.os.StatFs;
 import android.util.Log;
 
 /**
- * Downloads an EDICT/KANJIDIC dictionary.
+ * Downloads an EDICT/KANJIDIC dictionary. Multiple dictionaries may be
+ * downloaded in parallel; the queued downloads are ordered by their priority.
  * 
  * @author Martin Vysny
  */
 public class DownloaderService implements Closeable {
-	private final ExecutorService downloader = Executors.newSingleThreadExecutor();
+	/**
+	 * Priority of downloads requested in the background, e.g. from the
+	 * download manager.
+	 */
+	public static final int PRIORITY_NORMAL = 0;
+	/**
+	 * Priority of a download which blocks the screen the user is currently
+	 * looking at. Such download jumps ahead of all normal downloads in the
+	 * queue.
+	 */
+	public static final int PRIORITY_HIGH = 10;
+	/**
+	 * Default number of dictionaries downloaded in parallel.
+	 */
+	public static final int DEFAULT_PARALLELISM = 2;
+	private final ThreadPoolExecutor downloader;
+
+	/**
+	 * Creates new downloader service.
+	 * 
+	 * @param parallelism
+	 *            the maximum number of dictionaries downloaded in parallel, at
+	 *            least 1.
+	 */
+	public DownloaderService(final int parallelism) {
+		downloader = new ThreadPoolExecutor(checkParallelism(parallelism), parallelism, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>());
+	}
+
+	private static int checkParallelism(final int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parameter parallelism: invalid value " + parallelism + ": must be at least 1");
+		}
+		return parallelism;
+	}
+
+	/**
+	 * Drops cached search results of a dictionary which was installed, updated
+	 * or deleted. A stale in-memory KANJIDIC and stale verb classes are reloaded.
+	 * 
+	 * @param dictionaryPath
+	 *            the dictionary location.
+	 */
+	private static void invalidateCache(final String dictionaryPath) {
+		final SearchCache cache = LuceneSearch.getCache();
+		if (cache != null) {
+			cache.invalidate(dictionaryPath);
+		}
+		final MemoryKanjidic kanjidic = LuceneSearch.getKanjidic();
+		if (kanjidic != null && new File(kanjidic.getPath()).getAbsolutePath().equals(new File(dictionaryPath).getAbsolutePath())) {
+			LuceneSearch.setKanjidic(null);
+			AedictApp.getBackground().schedule(LoadKanjidicTask.KEY, new LoadKanjidicTask());
+		}
+		if (new File(AedictApp.getConfig().getDictionaryLoc()).getAbsolutePath().equals(new File(dictionaryPath).getAbsolutePath())) {
+			AedictApp.getBackground().schedule(LoadVerbClassesTask.KEY, new LoadVerbClassesTask());
+		}
+	}
+
+	/**
+	 * Changes the maximum number of dictionaries downloaded in parallel.
+	 * Already running downloads are not affected.
+	 * 
+	 * @param parallelism
+	 *            the maximum number of parallel downloads, at least 1.
+	 */
+	public synchronized void setParallelism(final int parallelism) {
+		checkParallelism(parallelism);
+		if (parallelism > downloader.getMaximumPoolSize()) {
+			downloader.setMaximumPoolSize(parallelism);
+			downloader.setCorePoolSize(parallelism);
+		} else {
+			downloader.setCorePoolSize(parallelism);
+			downloader.setMaximumPoolSize(parallelism);
+		}
+	}
 
 	public void close() throws IOException {
 		downloader.shutdownNow();
@@ -71,16 +152,26 @@ public class DownloaderService implements Closeable {
 	}
 
 	public static class State {
-		public State(String msg, final String downloadPath, int downloaded, int total, final boolean isError) {
+		public State(String msg, final String dictName, final String downloadPath, int downloaded, int total, final boolean isError) {
+			this(msg, dictName, downloadPath, downloaded, total, 0f, isError);
+		}
+
+		public State(String msg, final String dictName, final String downloadPath, int downloaded, int total, final float throughput, final boolean isError) {
 			super();
 			this.msg = msg;
+			this.dictName = dictName;
 			this.downloaded = downloaded;
 			this.total = total;
+			this.throughput = throughput;
 			this.isError = isError;
 			this.downloadPath = downloadPath;
 		}
 
 		public final String msg;
+		/**
+		 * The name of the dictionary being downloaded.
+		 */
+		public final String dictName;
 		public final String downloadPath;
 		/**
 		 * in KB.
@@ -90,6 +181,11 @@ public class DownloaderService implements Closeable {
 		 * in KB.
 		 */
 		public final int total;
+		/**
+		 * Average speed of the download so far, in MB/s. Counts the unpacked
+		 * bytes written to the sdcard.
+		 */
+		public final float throughput;
 
 		public int getCompleteness() {
 			return downloaded * 100 / total;
@@ -103,13 +199,32 @@ public class DownloaderService implements Closeable {
 	}
 
 	/**
-	 * Returns current download state or null if no download is currently
-	 * active.
+	 * Returns a snapshot of states of all known downloads: the active ones
+	 * first, then the queued ones in the order they will be downloaded, then
+	 * the failed ones.
 	 * 
-	 * @return a state of a download or null.
+	 * @return a list of states, never null, empty if there is no download
+	 *         active or queued.
 	 */
-	public State getState() {
-		return state;
+	public List<State> getStates() {
+		final List<Job> snapshot = new ArrayList<Job>(jobs.values());
+		Collections.sort(snapshot, new Comparator<Job>() {
+
+			public int compare(Job o1, Job o2) {
+				final int r1 = o1.getRank();
+				final int r2 = o2.getRank();
+				if (r1 != r2) {
+					return r1 < r2 ? -1 : 1;
+				}
+				return o1.compareTo(o2);
+			}
+		});
+		final List<State> result = new ArrayList<State>(snapshot.size());
+		for (final Job job : snapshot) {
+			final State s = job.downloader.state;
+			result.add(s != null ? s : new State(AedictApp.format(R.string.queuedForDownload, job.downloader.dictName), job.downloader.dictName, job.downloader.targetDir, 0, 100, false));
+		}
+		return result;
 	}
 
 	/**
@@ -153,6 +268,8 @@ public class DownloaderService implements Closeable {
 					dict.delete();
 				} catch (IOException e) {
 					throw new RuntimeException(e);
+				} finally {
+					invalidateCache(dict.getDictionaryLocation().getAbsolutePath());
 				}
 				AedictApp.getDownloader().download(new DictDownloader(dict, dict.getDownloadSite(), dict.getDictionaryLocation().getAbsolutePath(), dict.getName(), dict.dte.luceneFileSize()));
 			}
@@ -198,7 +315,7 @@ public class DownloaderService implements Closeable {
 				msg.append(AedictApp.format(R.string.warning_less_than_x_mb_free, downloader.expectedSize / 1024, free / 1024));
 			}
 			if (free >= downloader.expectedSize && skipMissingMsg) {
-				download(downloader);
+				download(downloader, PRIORITY_HIGH);
 				activity.startActivity(new Intent(activity, DownloadActivity.class));
 			} else {
 				new DialogActivity.Builder(activity).setDialogListener(new DownloaderDialogActivity(downloader)).showYesNoDialog(msg.toString());
@@ -219,15 +336,38 @@ public class DownloaderService implements Closeable {
 	}
 
 	void download(final AbstractDownloader download) {
+		download(download, PRIORITY_NORMAL);
+	}
+
+	/**
+	 * Enqueues given download. If the same dictionary is already queued then
+	 * the download is not enqueued twice; instead, the priority of the queued
+	 * download is raised if necessary.
+	 * 
+	 * @param download
+	 *            the download to perform, not null.
+	 * @param priority
+	 *            the priority, see {@link #PRIORITY_NORMAL} and
+	 *            {@link #PRIORITY_HIGH}.
+	 */
+	synchronized void download(final AbstractDownloader download, final int priority) {
 		if (!new File(download.targetDir).isAbsolute()) {
 			throw new IllegalArgumentException("Not absolute: " + download.targetDir);
 		}
-		queueDictNames.put(download.dictName, new Object());
-		currentDownload = downloader.submit(download);
+		final Job existing = jobs.get(download.dictName);
+		if (existing != null && !existing.isFinished()) {
+			if (existing.priority < priority && downloader.getQueue().remove(existing)) {
+				// re-insert the job to force the priority queue to re-order
+				existing.priority = priority;
+				downloader.execute(existing);
+			}
+			return;
+		}
+		final Job job = new Job(download, priority, jobSequence++);
+		jobs.put(download.dictName, job);
+		downloader.execute(job);
 	}
 
-	private volatile Future<?> currentDownload = null;
-
 	/**
 	 * Downloads a dictionary, no questions asked. If the dictionary is already
 	 * downloaded it will not be overwritten.
@@ -243,9 +383,16 @@ public class DownloaderService implements Closeable {
 		download(new SodDownloader());
 	}
 
-	private volatile boolean isDownloading = false;
-	private volatile State state = null;
-	private final ConcurrentMap<String, Object> queueDictNames = new ConcurrentHashMap<String, Object>();
+	/**
+	 * All downloads which are either queued, running or which failed, keyed by
+	 * the dictionary name. Successfully finished downloads are removed.
+	 */
+	private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<String, Job>();
+	/**
+	 * Keeps the FIFO order of downloads with the same priority. Guarded by
+	 * this.
+	 */
+	private long jobSequence = 0;
 
 	/**
 	 * If true then there is a download active.
@@ -253,11 +400,125 @@ public class DownloaderService implements Closeable {
 	 * @return true if the service is downloading a dictionary, false otherwise.
 	 */
 	public boolean isDownloading() {
-		return isDownloading;
+		for (final Job job : jobs.values()) {
+			if (job.isRunning()) {
+				return true;
+			}
+		}
+		return false;
 	}
 
+	/**
+	 * Returns names of dictionaries waiting for download.
+	 * 
+	 * @return a set of dictionary names, never null.
+	 */
 	public Set<String> getDownloadQueue() {
-		return new HashSet<String>(queueDictNames.keySet());
+		final Set<String> result = new HashSet<String>();
+		for (final Job job : jobs.values()) {
+			if (job.getRank() == 1) {
+				result.add(job.downloader.dictName);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A queued download. Jobs with higher priority are taken from the queue
+	 * first, jobs with the same priority are downloaded in FIFO order.
+	 * 
+	 * @author Martin Vysny
+	 */
+	private final class Job implements Runnable, Comparable<Job> {
+		private final AbstractDownloader downloader;
+		private volatile int priority;
+		private final long sequence;
+		/**
+		 * The thread performing the download, null if the download is not
+		 * running. Guarded by this.
+		 */
+		private Thread runner = null;
+		private volatile boolean started = false;
+		private volatile boolean finished = false;
+		private volatile boolean cancelled = false;
+
+		public Job(final AbstractDownloader downloader, final int priority, final long sequence) {
+			this.downloader = downloader;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		public void run() {
+			synchronized (this) {
+				if (cancelled) {
+					finished = true;
+					jobs.remove(downloader.dictName, this);
+					return;
+				}
+				runner = Thread.currentThread();
+				started = true;
+			}
+			try {
+				downloader.run();
+			} finally {
+				synchronized (this) {
+					runner = null;
+					finished = true;
+					// clear the interrupted flag so that it does not affect
+					// the next job
+					Thread.interrupted();
+				}
+				// a failed job is kept to show the error, unless the user
+				// cancelled it
+				final State s = downloader.state;
+				if (cancelled || s == null || !s.isError) {
+					jobs.remove(downloader.dictName, this);
+				}
+			}
+		}
+
+		public int compareTo(Job another) {
+			if (priority != another.priority) {
+				return priority > another.priority ? -1 : 1;
+			}
+			return sequence < another.sequence ? -1 : (sequence == another.sequence ? 0 : 1);
+		}
+
+		public boolean isRunning() {
+			return started && !finished;
+		}
+
+		public boolean isFinished() {
+			return finished;
+		}
+
+		/**
+		 * Computes the rank of this job when listing jobs: running jobs
+		 * first, then queued jobs, then failed jobs.
+		 * 
+		 * @return 0 for running, 1 for queued, 2 for finished jobs.
+		 */
+		public int getRank() {
+			return finished ? 2 : started ? 0 : 1;
+		}
+
+		/**
+		 * Cancels the job. A queued job is removed from the queue, a running
+		 * job is interrupted and forgotten once it stops, a failed job is
+		 * forgotten.
+		 */
+		public void cancel() {
+			synchronized (this) {
+				cancelled = true;
+				if (runner != null) {
+					runner.interrupt();
+					return;
+				}
+			}
+			if (finished || DownloaderService.this.downloader.getQueue().remove(this)) {
+				jobs.remove(downloader.dictName, this);
+			}
+		}
 	}
 
 	abstract static class AbstractDownloader implements Runnable, Serializable {
@@ -267,6 +528,26 @@ public class DownloaderService implements Closeable {
 		protected final String dictName;
 		protected final long expectedSize;
 
+		/**
+		 * Current state of this download, null if the download is not yet
+		 * started or it finished successfully.
+		 */
+		private transient volatile State state = null;
+		/**
+		 * Files opened by {@link #create(File, long)}, synced and closed when
+		 * the download finishes.
+		 */
+		private transient List<RandomAccessFile> openedFiles;
+		/**
+		 * The transfer buffer, allocated lazily.
+		 */
+		private transient ByteBuffer buffer;
+		/**
+		 * When the transfer started, as reported by
+		 * {@link System#currentTimeMillis()}.
+		 */
+		private transient long startedAt;
+
 		public AbstractDownloader(final URL source, final String targetDir, final String dictName, final long expectedSize) {
 			this.source = source;
 			this.targetDir = targetDir;
@@ -279,22 +560,21 @@ public class DownloaderService implements Closeable {
 		}
 		
 		public void run() {
-			s().queueDictNames.remove(dictName);
-			s().state = null;
+			state = null;
 			if (s().isComplete(targetDir)) {
 				return;
 			}
 			try {
-				s().isDownloading = true;
 				try {
 					download();
 				} finally {
-					s().state = null;
-					s().isDownloading = false;
+					state = null;
+					// the dictionary files were replaced
+					invalidateCache(targetDir);
 				}
 			} catch (Throwable t) {
 				Log.e(DownloaderService.class.getSimpleName(), "Error downloading a dictionary", t);
-				s().state = new State(t.getClass().getName() + ": " + t.getMessage(), null, 0, 1, true);
+				state = new State(t.getClass().getName() + ": " + t.getMessage(), dictName, null, 0, 1, true);
 				deleteDirQuietly(new File(targetDir));
 			}
 		}
@@ -308,21 +588,63 @@ public class DownloaderService implements Closeable {
 		}
 
 		private void download() throws Exception {
-			final URLConnection conn = source.openConnection();
 			// this is the unpacked edict file size.
 			final File dir = new File(targetDir);
 			if (!dir.exists() && !dir.mkdirs()) {
 				throw new IOException("Failed to create directory '" + targetDir + "'. Please make sure that the sdcard is inserted in the phone, mounted and is not write-protected.");
 			}
-			final InputStream in = new BufferedInputStream(conn.getInputStream());
+			final InputStream in = new BufferedInputStream(open());
+			openedFiles = new ArrayList<RandomAccessFile>();
 			try {
-				s().state = new State(AedictApp.format(R.string.downloading_dictionary, dictName), targetDir, 0, 100, false);
+				startedAt = System.currentTimeMillis();
+				state = new State(AedictApp.format(R.string.downloading_dictionary, dictName), dictName, targetDir, 0, 100, false);
 				copy(in);
+				// flush everything to the sdcard, but only once
+				for (final RandomAccessFile file : openedFiles) {
+					file.getChannel().force(true);
+				}
 			} finally {
 				MiscUtils.closeQuietly(in);
+				for (final RandomAccessFile file : openedFiles) {
+					MiscUtils.closeQuietly(file);
+				}
+				openedFiles = null;
+				buffer = null;
 			}
 		}
 
+		/**
+		 * Opens the stream to download.
+		 * 
+		 * @return the {@link #source} contents, not buffered.
+		 * @throws IOException
+		 *             on I/O error
+		 */
+		protected InputStream open() throws IOException {
+			return source.openConnection().getInputStream();
+		}
+
+		/**
+		 * Creates given file, overwriting any existing file. The file is closed
+		 * automatically when the download finishes.
+		 * 
+		 * @param file
+		 *            the file to create.
+		 * @param size
+		 *            the expected file size in bytes; if not negative then the
+		 *            file is preallocated to this size, to avoid fragmentation
+		 *            on the sdcard.
+		 * @return the file channel, positioned at the beginning of the file.
+		 * @throws IOException
+		 *             on I/O error
+		 */
+		protected final FileChannel create(final File file, final long size) throws IOException {
+			final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			openedFiles.add(raf);
+			raf.setLength(size >= 0 ? size : 0);
+			return raf.getChannel();
+		}
+
 		/**
 		 * Copies all bytes from given input stream to given file, overwriting
 		 * the file. Progress is updated periodically.
@@ -335,7 +657,10 @@ public class DownloaderService implements Closeable {
 		protected abstract void copy(final InputStream in) throws IOException;
 
 		/**
-		 * Copies streams. Provides automatic notification of the progress.
+		 * Copies given stream to given file channel. Provides automatic
+		 * notification of the progress. The data is transferred in large
+		 * chunks through a direct buffer; the file is truncated to the number
+		 * of bytes actually written.
 		 * 
 		 * @param downloadedUntilNow
 		 *            how many bytes we downloaded until now.
@@ -343,42 +668,75 @@ public class DownloaderService implements Closeable {
 		 *            the expected size in bytes of the input stream, -1 if not
 		 *            known.
 		 * @param in
-		 *            the input stream itself, must not be null.
+		 *            the input stream itself, must not be null. The stream is
+		 *            not closed.
 		 * @param out
-		 *            the output stream, must not be null.
+		 *            the target file channel, must not be null, see
+		 *            {@link #create(File, long)}.
 		 * @return bytes actually copied
 		 * @throws IOException
 		 *             on I/O problem
 		 */
-		protected final long copy(final long downloadedUntilNow, long expectedSize, final InputStream in, final OutputStream out) throws IOException {
+		protected final long copy(final long downloadedUntilNow, long expectedSize, final InputStream in, final FileChannel out) throws IOException {
 			long size = expectedSize;
 			if (size < 0) {
 				size = this.expectedSize;
 			}
 			final int max = (int) (size / 1024L);
 			long downloaded = downloadedUntilNow;
-			s().state = new State(AedictApp.format(R.string.downloading_dictionary, dictName), targetDir, (int) (downloaded / 1024L), max, false);
-			int reportCountdown = REPORT_EACH_XTH_BYTE;
-			final byte[] buf = new byte[BUFFER_SIZE];
-			int bufLen;
-			while ((bufLen = in.read(buf)) >= 0) {
-				out.write(buf, 0, bufLen);
-				downloaded += bufLen;
+			state = newState(downloaded, max);
+			if (buffer == null) {
+				buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			}
+			// do not close the channel as it would close the underlying stream
+			final ReadableByteChannel source = Channels.newChannel(in);
+			boolean eof = false;
+			while (!eof) {
+				// fill the buffer completely, to perform as few writes as
+				// possible
+				buffer.clear();
+				while (buffer.hasRemaining()) {
+					if (source.read(buffer) < 0) {
+						eof = true;
+						break;
+					}
+				}
+				buffer.flip();
+				downloaded += buffer.remaining();
+				// concurrent downloads take turns when writing to the sdcard,
+				// thus sharing the bandwidth fairly
+				WRITE_TURN.lock();
+				try {
+					while (buffer.hasRemaining()) {
+						out.write(buffer);
+					}
+				} finally {
+					WRITE_TURN.unlock();
+				}
 				if (Thread.currentThread().isInterrupted()) {
 					throw new InterruptedIOException();
 				}
-				reportCountdown -= bufLen;
-				if (reportCountdown <= 0) {
-					final int progress = (int) (downloaded / 1024L);
-					s().state = new State(AedictApp.format(R.string.downloading_dictionary, dictName), targetDir, progress, max, false);
-					reportCountdown = REPORT_EACH_XTH_BYTE;
-				}
+				state = newState(downloaded, max);
+			}
+			if (out.size() > out.position()) {
+				// the file was preallocated to a greater size
+				out.truncate(out.position());
 			}
 			return downloaded;
 		}
 
-		private static final int BUFFER_SIZE = 32768;
-		private static final int REPORT_EACH_XTH_BYTE = BUFFER_SIZE * 8;
+		private State newState(final long downloaded, final int max) {
+			final long millis = System.currentTimeMillis() - startedAt;
+			final float throughput = millis <= 0 ? 0f : downloaded * 1000f / millis / (1024 * 1024);
+			return new State(AedictApp.format(R.string.downloading_dictionary, dictName), dictName, targetDir, (int) (downloaded / 1024L), max, throughput, false);
+		}
+
+		private static final int BUFFER_SIZE = 256 * 1024;
+		/**
+		 * A fair lock, granting the write access to the longest-waiting
+		 * download.
+		 */
+		private static final ReentrantLock WRITE_TURN = new ReentrantLock(true);
 	}
 
 	static class DictDownloader extends AbstractDownloader {
@@ -407,19 +765,12 @@ public class DownloaderService implements Closeable {
 			final ZipInputStream zip = new ZipInputStream(in);
 			long downloaded = 0;
 			for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
-				final OutputStream out = new FileOutputStream(targetDir + "/" + entry.getName());
-				try {
-					downloaded = copy(downloaded, entry.getSize(), zip, out);
-				} finally {
-					MiscUtils.closeQuietly(out);
-				}
+				final FileChannel out = create(new File(targetDir, entry.getName()), entry.getSize());
+				downloaded = copy(downloaded, entry.getSize(), zip, out);
 				zip.closeEntry();
 			}
 			// update the version
-			final String version = dictionary.downloadVersion();
-			final DictionaryVersions versions = AedictApp.getConfig().getCurrentDictVersions();
-			versions.versions.put(dictionary, version);
-			AedictApp.getConfig().setCurrentDictVersions(versions);
+			AedictApp.getConfig().setCurrentDictVersion(dictionary, dictionary.downloadVersion());
 		}
 	}
 
@@ -434,16 +785,26 @@ public class DownloaderService implements Closeable {
 		}
 
 		@Override
-		protected void copy(InputStream in) throws IOException {
-			// we have to ungzip the input stream
-			final InputStream gzipped = new GZIPInputStream(in);
-			final OutputStream out = new FileOutputStream(SodLoader.SDCARD_LOCATION);
+		protected InputStream open() throws IOException {
 			try {
-				copy(0L, -1, gzipped, out);
-			} finally {
-				MiscUtils.closeQuietly(out);
+				return super.open();
+			} catch (FileNotFoundException ex) {
+				// the server does not publish the SodContainer file yet
+				Log.i(DownloaderService.class.getSimpleName(), SodLoader.DOWNLOAD_URL + " not found, falling back to " + SodLoader.LEGACY_DOWNLOAD_URL);
+				return SodLoader.LEGACY_DOWNLOAD_URL.openConnection().getInputStream();
 			}
 		}
+
+		@Override
+		protected void copy(InputStream in) throws IOException {
+			// the original format is gzipped and we have to ungzip it; the
+			// SodContainer format is stored as-is
+			in.mark(2);
+			final boolean isGzipped = in.read() == 0x1f && in.read() == 0x8b;
+			in.reset();
+			final InputStream source = isGzipped ? new GZIPInputStream(in) : in;
+			copy(0L, -1, source, create(SodLoader.SDCARD_LOCATION, SodLoader.UNPACKED_SIZE));
+		}
 	}
 
 	/**
@@ -477,19 +838,39 @@ public class DownloaderService implements Closeable {
 		if (f.listFiles().length == 0) {
 			return false;
 		}
-		final State s = getState();
-		if (s != null && indexDir.equals(s.downloadPath) && !s.isError) {
-			// the dictionary is currently being downloaded.
-			return false;
+		for (final Job job : jobs.values()) {
+			final State s = job.downloader.state;
+			if (s != null && indexDir.equals(s.downloadPath) && !s.isError) {
+				// the dictionary is currently being downloaded.
+				return false;
+			}
 		}
 		return true;
 	}
 
+	/**
+	 * Cancels all running downloads and forgets all failed downloads. Queued
+	 * downloads are not affected.
+	 */
 	public void cancelCurrentDownload() {
-		final Future<?> c = currentDownload;
-		if (c == null || c.isDone()) {
-			return;
+		for (final Job job : jobs.values()) {
+			if (job.getRank() != 1) {
+				job.cancel();
+			}
+		}
+	}
+
+	/**
+	 * Cancels download of given dictionary, regardless of whether the
+	 * download is queued or running.
+	 * 
+	 * @param dictName
+	 *            the dictionary name.
+	 */
+	public void cancel(final String dictName) {
+		final Job job = jobs.get(dictName);
+		if (job != null) {
+			job.cancel();
 		}
-		c.cancel(true);
 	}
 }
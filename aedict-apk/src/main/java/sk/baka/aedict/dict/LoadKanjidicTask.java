@@ -0,0 +1,50 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+ 
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+ 
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.concurrent.Callable;
+
+import sk.baka.aedict.AedictApp;
+import android.util.Log;
+
+/**
+ * Loads the KANJIDIC dictionary into memory (or drops the in-memory copy) in
+ * the background, according to {@link AedictApp.Config#isKanjidicInMemory()}.
+ * Once loaded, all KANJIDIC searches are served by {@link MemoryKanjidic}
+ * instead of the Lucene index.
+ * 
+ * @author Martin Vysny
+ */
+public class LoadKanjidicTask implements Callable<Void> {
+	/**
+	 * The {@link sk.baka.aedict.util.BackgroundService} task key.
+	 */
+	public static final String KEY = "loadKanjidic";
+
+	public Void call() throws Exception {
+		if (!AedictApp.getConfig().isKanjidicInMemory() || !AedictApp.getDownloader().isComplete(DictTypeEnum.Kanjidic)) {
+			LuceneSearch.setKanjidic(null);
+			return null;
+		}
+		final long start = System.currentTimeMillis();
+		final MemoryKanjidic kanjidic = MemoryKanjidic.load(null);
+		LuceneSearch.setKanjidic(kanjidic);
+		Log.i(LoadKanjidicTask.class.getSimpleName(), "Loaded " + kanjidic.size() + " kanjis in " + (System.currentTimeMillis() - start) + "ms");
+		return null;
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+ 
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+ 
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.concurrent.Callable;
+
+import sk.baka.aedict.AedictApp;
+import sk.baka.aedict.kanji.VerbDeinflection;
+import android.util.Log;
+
+/**
+ * Loads the {@link VerbClasses} of currently selected EDICT dictionary in the
+ * background. Once loaded, deinflected verbs which are not in the dictionary
+ * are not searched for. Dictionaries downloaded by an older Aedict version
+ * do not contain the verb file; the deinflected verbs are then not pruned.
+ * 
+ * @author Martin Vysny
+ */
+public class LoadVerbClassesTask implements Callable<Void> {
+	/**
+	 * The {@link sk.baka.aedict.util.BackgroundService} task key.
+	 */
+	public static final String KEY = "loadVerbClasses";
+
+	public Void call() throws Exception {
+		final long start = System.currentTimeMillis();
+		final VerbClasses verbs = VerbClasses.open(AedictApp.getConfig().getDictionaryLoc());
+		VerbDeinflection.setVerbs(verbs);
+		if (verbs != null) {
+			Log.i(LoadVerbClassesTask.class.getSimpleName(), "Loaded " + verbs.size() + " verbs in " + (System.currentTimeMillis() - start) + "ms");
+		}
+		return null;
+	}
+}
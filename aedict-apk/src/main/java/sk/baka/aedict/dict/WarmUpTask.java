@@ -0,0 +1,92 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+ 
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+ 
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import sk.baka.aedict.AedictApp;
+import sk.baka.autils.MiscUtils;
+import android.util.Log;
+
+/**
+ * Warms up the installed dictionaries in the background, so that the first
+ * search after the application start does not pay for cold SD card caches and
+ * JIT compilation of the search code. Each dictionary is opened, the beginning
+ * of its term dictionary and the postings of frequent terms are read and a
+ * couple of typical queries are performed, then the dictionary is closed.
+ * <p/>
+ * Each search opens the dictionary again, therefore only the state which
+ * survives the close is warmed up: the pages of the index files stay in the
+ * OS page cache and the search code stays compiled. The opened index itself
+ * is not kept; KANJIDIC may be kept in memory by {@link LoadKanjidicTask}
+ * instead.
+ * 
+ * @author Martin Vysny
+ */
+public class WarmUpTask implements Callable<Void> {
+	/**
+	 * The {@link sk.baka.aedict.util.BackgroundService} task key.
+	 */
+	public static final String KEY = "warmUp";
+	/**
+	 * Maximum number of terms walked, per dictionary.
+	 */
+	private static final int MAX_TERMS = 20000;
+	/**
+	 * Postings of terms occurring in at least this number of documents are
+	 * read.
+	 */
+	private static final int MIN_DOC_FREQ = 1000;
+
+	public Void call() throws Exception {
+		final long start = System.currentTimeMillis();
+		final DownloaderService ds = AedictApp.getDownloader();
+		final String edict = AedictApp.getConfig().getDictionaryLoc();
+		if (ds.isComplete(edict)) {
+			warmUp(DictTypeEnum.Edict, edict, Arrays.asList(SearchQuery.searchJpEdict("今日", MatcherEnum.Exact), SearchQuery.searchJpEdict("きょう", MatcherEnum.Substring), SearchQuery.searchEnEdict("day", true)));
+		}
+		if (ds.isComplete(DictTypeEnum.Kanjidic)) {
+			warmUp(DictTypeEnum.Kanjidic, null, Collections.singletonList(SearchQuery.kanjiSearch('日', null, null)));
+		}
+		final DictTypeEnum samples = AedictApp.getConfig().getSamplesDictType();
+		if (ds.isComplete(samples)) {
+			warmUp(samples, null, Collections.singletonList(SearchQuery.searchTanaka(samples, "日", true, AedictApp.getConfig().getRomanization(), AedictApp.getConfig().getSamplesDictLang())));
+		}
+		Log.i(WarmUpTask.class.getSimpleName(), "Dictionaries warmed up in " + (System.currentTimeMillis() - start) + "ms");
+		return null;
+	}
+
+	private static void warmUp(final DictTypeEnum dictType, final String dictionaryPath, final List<SearchQuery> queries) {
+		final long start = System.currentTimeMillis();
+		try {
+			final LuceneSearch search = new LuceneSearch(dictType, dictionaryPath, true);
+			try {
+				final int terms = search.warmUp(MAX_TERMS, MIN_DOC_FREQ, queries);
+				Log.i(WarmUpTask.class.getSimpleName(), dictType + ": walked " + terms + " terms and performed " + queries.size() + " queries in " + (System.currentTimeMillis() - start) + "ms");
+			} finally {
+				MiscUtils.closeQuietly(search);
+			}
+		} catch (Exception ex) {
+			// not fatal, the dictionary will just be cold
+			Log.e(WarmUpTask.class.getSimpleName(), "Failed to warm up " + dictType, ex);
+		}
+	}
+}
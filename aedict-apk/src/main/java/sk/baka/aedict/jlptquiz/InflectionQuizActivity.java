@@ -27,7 +27,7 @@ import java.util.Random;
 import sk.baka.aedict.AedictApp;
 import sk.baka.aedict.R;
 import sk.baka.aedict.dict.EdictEntry;
-import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.aedict.kanji.FormResources;
 import sk.baka.aedict.kanji.VerbInflection;
 import sk.baka.autils.DialogUtils;
 import android.app.Activity;
@@ -70,14 +70,9 @@ public class InflectionQuizActivity extends Activity {
 		model = new ArrayList<String[]>();
 		final boolean isIchidan = entry.isIchidan();
 		// now, add all possible inflections
-		for (final VerbInflection.Form form : VerbInflection.Form.values()) {
-			if (isIchidan && !form.appliesToIchidan()) {
-				// filter out forms not applicable to ichidan verbs
-				continue;
-			}
-			final String inflected = RomanizationEnum.NihonShiki.toHiragana(form.inflect(RomanizationEnum.NihonShiki.toRomaji(entry.reading), isIchidan));
-			final String explanation = getString(form.explanationResId);
-			model.add(new String[] { inflected, explanation });
+		for (final Map.Entry<VerbInflection.Form, String> e : VerbInflection.conjugate(entry.reading, isIchidan).entrySet()) {
+			final String explanation = getString(FormResources.getExplanation(e.getKey()));
+			model.add(new String[] { e.getValue(), explanation });
 		}
 		Collections.shuffle(model);
 		final int questions = Math.min(MAX_NUMBER_OF_QUESTIONS, model.size() / NO_OF_OPTIONS);
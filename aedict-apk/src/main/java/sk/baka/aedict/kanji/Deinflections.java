@@ -19,6 +19,7 @@ package sk.baka.aedict.kanji;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import sk.baka.aedict.dict.SearchQuery;
@@ -32,14 +33,21 @@ public class Deinflections implements Serializable {
 	private static final long serialVersionUID = 1L;
 	/**
      * Deinflected verb(s) in {@link RomanizationEnum#NihonShiki}
-     *         romanization. If the expression cannot be deinflected the
-     *         expression is returned.
+     *         romanization, or in hiragana when produced by
+     *         {@link VerbDeinflection#deinflectKana(String)}. If the expression
+     *         cannot be deinflected the expression is returned.
 	 */
 	public Set<String> deinflectedVerbs;
 	/**
 	 * List of rules used in the process of deinflection.
 	 */
 	public List<Deinflection> deinflections;
+	/**
+	 * Maps the verbs produced by a deinflection rule to the
+	 * {@link sk.baka.aedict.dict.VerbClasses} they must belong to. Verbs which
+	 * were not deinflected at all are not present.
+	 */
+	public Map<String, Integer> verbClasses;
 	public SearchQuery query;
 	public static class Deinflection implements Serializable {
 		private static final long serialVersionUID = 1L;
@@ -49,12 +57,12 @@ public class Deinflections implements Serializable {
 			this.deinflected=deinflected;
 		}
 		/**
-		 * {@link RomanizationEnum#NihonShiki} romanized inflected verb.
+		 * {@link RomanizationEnum#NihonShiki} romanized (or hiragana) inflected verb.
 		 */
 		public String inflected;
 		public Form inflectedForm;
 		/**
-		 * {@link RomanizationEnum#NihonShiki} romanized possible deinflections.
+		 * {@link RomanizationEnum#NihonShiki} romanized (or hiragana) possible deinflections.
 		 */
 		public String[] deinflected;
 	}
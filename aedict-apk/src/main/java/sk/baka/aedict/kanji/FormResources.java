@@ -0,0 +1,196 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+ 
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+ 
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.kanji;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import sk.baka.aedict.R;
+import sk.baka.aedict.kanji.VerbInflection.Form;
+import android.content.Context;
+
+/**
+ * Provides the explanation and the examples of a verb inflection
+ * {@link Form}. The forms live in the aedict-common module which does not
+ * have access to the Android resources.
+ * 
+ * @author Martin Vysny
+ */
+public final class FormResources {
+	private FormResources() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Maps a form to [explanation, examples] string resource IDs.
+	 */
+	private static final Map<Form, int[]> RESOURCES = new EnumMap<Form, int[]>(Form.class);
+
+	private static void put(final Form form, final int explanationResId, final int examples) {
+		RESOURCES.put(form, new int[] { explanationResId, examples });
+	}
+
+	static {
+		put(Form.PLAIN, R.string.iDoSomething, R.string.plainFormExamples);
+		put(Form.POLITE, R.string.iDoSomethingPolitely, R.string.politeFormExamples);
+		put(Form.POLITE_NEGATIVE, R.string.iDoNotDoSomethingPolitely, R.string.politeNegativeFormExamples);
+		put(Form.POLITE_PAST, R.string.iDidSomethingPolitely, R.string.politePastFormExamples);
+		put(Form.POLITE_PAST_NEGATIVE, R.string.iDidNotDoSomethingPolitely, R.string.politePastNegativeFormExamples);
+		put(Form.WANT, R.string.iWantToDoSomething, R.string.wantFormExamples);
+		put(Form.LET_S, R.string.letsDoSomethingPolitely, R.string.letsFormExamples);
+		put(Form.SIMPLE_COMMAND, R.string.doSomething, R.string.simpleCommandExamples);
+		put(Form.GOING, R.string.imGoingToDoSomething, R.string.goingFormExamples);
+		put(Form.ARRIVE, R.string.imGoingToArrive, R.string.arriveFormExamples);
+		put(Form.HARD_TO_DO, R.string.itIsHardToDoSomething, R.string.hardToDoFormExamples);
+		put(Form.EASY_TO_DO, R.string.itIsEasyToDoSomething, R.string.easyToDoFormExamples);
+		put(Form.GO_TOO_FAR, R.string.iWentTooFarDoingSomething, R.string.goTooFarFormExamples);
+		put(Form.WHILE_DOING, R.string.iDidXWhileIWasDoingY, R.string.whileDoingFormExamples);
+		put(Form.NEGATIVE, R.string.iDoNotDoSomething, R.string.negativeFormExamples);
+		put(Form.PROBABLE_NEGATIVE, R.string.iProbablyDoNotDoSomething, R.string.probableNegativeFormExamples);
+		put(Form.NEGATIVE_PAST, R.string.iDidNotDoSomething, R.string.negativePastFormExamples);
+		put(Form.NEGATIVE_CONDITIONAL, R.string.ifIDoNotDoSomething, R.string.negativeConditionalFormExamples);
+		put(Form.HAS_TO, R.string.iHaveToDoSomething, R.string.hasToFormExamples);
+		put(Form.LET_HIM, R.string.iLLLetHimDoSomething, R.string.letHimFormExamples);
+		put(Form.DID_X_WITHOUT_DOING_Y, R.string.iDidXWithoutDoingY, R.string.didXWithoutDoingYFormExamples);
+		put(Form.PROBABLE, R.string.iLLProbablyDoSomething, R.string.probableFormExamples);
+		put(Form.PLAN, R.string.iPlanToDoSomething, R.string.planFormExamples);
+		put(Form.SHOULD, R.string.iShouldDoSomething, R.string.shouldFormExamples);
+		put(Form.WHETHER_OR_NOT, R.string.iDontKnowWhetherIDoSomethingOrNot, R.string.whetherOrNotFormExamples);
+		put(Form.MAYBE, R.string.maybeILLDoSomething, R.string.maybeFormExamples);
+		put(Form.BECAUSE_OF, R.string.becauseOfX, R.string.becauseOfFormExamples);
+		put(Form.BUT, R.string.heDoesXBut, R.string.butFormExamples);
+		put(Form.ABLE_TO_DO, R.string.imAbleToDoSomething, R.string.ableToDoFormExamples);
+		put(Form.DECIDED_TO_DO, R.string.iDecidedToDoSomething, R.string.decidedToDoFormExamples);
+		put(Form.UNTIL, R.string.untilX, R.string.untilFormExamples);
+		put(Form.NEGATIVE_COMMAND, R.string.dontDoX, R.string.negativeCommandFormExamples);
+		put(Form.IF, R.string.ifXThen, R.string.ifFormExamples);
+		put(Form.WHICH_WHERE_WHO, R.string.whichWhereWho, R.string.whichWhereWhoFormExamples);
+		put(Form.IN_ORDER_TO, R.string.inOrderToDoSomething, R.string.inOrderToFormExamples);
+		put(Form.NO_WA, R.string.noWa, R.string.noWaExamples);
+		put(Form.BECAUSE_OF2, R.string.becauseOfX, R.string.becauseOf2FormExamples);
+		put(Form.IN_SPITE_OF, R.string.inSpiteOfX, R.string.inSpiteOfFormExamples);
+		put(Form.NEARLY, R.string.iWasJustAboutToDoX, R.string.nearlyFormExamples);
+		put(Form.I_HEARD, R.string.iHeardThatX, R.string.iHeardFormExamples);
+		put(Form.FOR_THE_PURPOSE_OF, R.string.forThePurposeOf, R.string.forThePurposeOfFormExamples);
+		put(Form.WHEN_IF, R.string.whenIf, R.string.whenIfFormExamples);
+		put(Form.I_THINK_THAT, R.string.iThinkThat, R.string.iThinkThatFormExamples);
+		put(Form.I_INTENT, R.string.iIntentToX, R.string.iIntentFormExamples);
+		put(Form.IT_SEEMS_TO, R.string.itSeemsToX, R.string.itSeemsToFormExamples);
+		put(Form.IF2, R.string.ifXThen, R.string.if2FormExamples);
+		put(Form.IT_WOULD_BE_GOOD_IF, R.string.itWouldBeGoodIfX, R.string.itWouldBeGoodIfFormExamples);
+		put(Form.I_REGRET, R.string.iRegretX, R.string.iRegretFormExamples);
+		put(Form.PLAIN_COMMAND, R.string.doSomething, R.string.plainCommandFormExamples);
+		put(Form.ABLE_TO_DO2, R.string.imAbleToDoSomething, R.string.ableToDo2FormExamples);
+		put(Form.LET_S2, R.string.letsDoSomething, R.string.letS2FormExamples);
+		put(Form.I_WONDER_IF_I_SHOULD, R.string.iWonderIfIShould, R.string.iWonderIfIShouldFormExamples);
+		put(Form.TRY_TO, R.string.tryToDoX, R.string.tryToFormExamples);
+		put(Form.MILD_COMMAND, R.string.doSomethingMild, R.string.mildCommandFormExamples);
+		put(Form.POLITE_COMMAND, R.string.pleaseDoSomething, R.string.politeCommandFormExamples);
+		put(Form.LET_ME_DO_SOMETHING_FOR_YOU, R.string.letMeDoSomethingForYou, R.string.politeCommand2FormExamples);
+		put(Form.HONORABLY_TAKE_A_LOOK, R.string.honorablyTakeALook, R.string.honorablyTakeALookFormExamples);
+		put(Form.PROGRESSIVE_TENSE, R.string.iAmDoingX, R.string.progressiveTenseFormExamples);
+		put(Form.VERY_POLITE_COMMAND, R.string.iHumblyPartake, R.string.veryPoliteCommandFormExamples);
+		put(Form.I_HUMBLY_RECEIVE_COMMAND, R.string.iHumblyReceive, R.string.iHumblyReceiveFormExamples);
+		put(Form.AFTER, R.string.afterDoingX, R.string.afterFormExamples);
+		put(Form.REGULAR_PLEASE, R.string.pleaseDoSomething, R.string.regularPleaseFormExamples);
+		put(Form.TO_FINISH, R.string.xFinished, R.string.toFinishFormExamples);
+		put(Form.TO_START, R.string.xWillStart, R.string.toStartFormExamples);
+		put(Form.TO_TRY, R.string.iLLTryDoingX, R.string.toTryFormExamples);
+		put(Form.EVEN_IF2, R.string.evenIfXYouMustRememberThatY, R.string.evenIf2FormExamples);
+		put(Form.CAN, R.string.canIDoX, R.string.canFormExamples);
+		put(Form.ALL_HE_DOES, R.string.allHeDoesIsX, R.string.allHeDoesFormExamples);
+		put(Form.I_WILL_CERTAINLY_DO, R.string.iWillCertainlyDoX, R.string.iWillCertainlyDoFormExamples);
+		put(Form.COMPLETE, R.string.toCompleteDoingX, R.string.completeFormExamples);
+		put(Form.HOW_ABOUT, R.string.howAboutDoingX, R.string.howAboutFormExamples);
+		put(Form.FORBIDDEN, R.string.youMustNotDoX, R.string.forbiddenFormExamples);
+		put(Form.CONTINUATION, R.string.iDidXThenYThenZ, R.string.continuationFormExamples);
+		put(Form.PAST_TENSE, R.string.iDidX, R.string.pastTenseFormExamples);
+		put(Form.I_DID_RECENTLY, R.string.iDidXRecently, R.string.iDidRecentlyFormExamples);
+		put(Form.EXPERIENCED, R.string.iExperiencedX, R.string.experiencedFormExamples);
+		put(Form.IF3, R.string.ifXThen, R.string.if3FormExamples);
+		put(Form.IT_SEEMS_TO2, R.string.itSeemsToX, R.string.itSeemsTo2FormExamples);
+		put(Form.ROUGHLY, R.string.iRoughlyDidX, R.string.roughlyFormExamples);
+		put(Form.SUPPOSITION, R.string.ifIWereToDoX, R.string.suppositionFormExamples);
+		put(Form.EVEN_IF, R.string.evenIfXYouMustRememberThatY, R.string.evenIfFormExamples);
+		put(Form.WHEN, R.string.whenIDidX, R.string.whenFormExamples);
+		put(Form.I_DID_JUST_NOW, R.string.iDidXJustNow, R.string.iDidJustNowFormExamples);
+	}
+
+	/**
+	 * Returns the explanation of the form (e.g. I don't do something).
+	 * 
+	 * @param form
+	 *            the form, not null.
+	 * @return the explanation string resource ID.
+	 */
+	public static int getExplanation(final Form form) {
+		return RESOURCES.get(form)[0];
+	}
+
+	/**
+	 * Returns the examples as a list of string pairs. The examples resource
+	 * is a new-line-separated list of example sentences, first in Japanese (a
+	 * {@link RomanizationEnum#Hepburn}-romanized), then in English. The
+	 * Japanese are directly taken from Tim Matheson's site, with very minor
+	 * alternations. Therefore, you'll have to:
+	 * <ul>
+	 * <li>Convert the jp string to lower case</li>
+	 * <li>Convert a lone-standing wa into ha</li>
+	 * <li>Convert a lone o to wo</li>
+	 * <li>Convert _text_ to katakana</li>
+	 * </ul>
+	 * 
+	 * @param form
+	 *            the form, not null.
+	 * @param context
+	 *            used to resolve the string
+	 * @param romanization
+	 *            use optionally this romanization for Japanese sentences.
+	 *            May be null.
+	 * @return a list of pairs: first pair item is the Japanese sentence,
+	 *         second pair item is the English translation. Never null.
+	 */
+	public static String[][] getExamples(final Form form, final Context context, final RomanizationEnum romanization) {
+		final String[] e = context.getString(RESOURCES.get(form)[1]).split("\n");
+		final String[][] result = new String[e.length / 2][];
+		for (int i = 0; i < e.length / 2; i++) {
+			final String english = e[i * 2 + 1];
+			String japanese = e[i * 2].toLowerCase();
+			// fix wa and o
+			japanese = japanese.replaceAll("\\s+wa\\s+", " ha ").replaceAll("\\s+o\\s+", " wo ");
+			// convert words marked with _ to katakana
+			boolean inUnderscore = false;
+			final StringBuilder jp = new StringBuilder(japanese.length());
+			for (final StringTokenizer t = new StringTokenizer(japanese, "_", true); t.hasMoreElements();) {
+				final String token = t.nextToken();
+				if (token.equals("_")) {
+					inUnderscore = !inUnderscore;
+				} else {
+					jp.append(inUnderscore ? RomanizationEnum.Hepburn.toKatakana(token) : token);
+				}
+			}
+			japanese = RomanizationEnum.Hepburn.toHiragana(jp.toString());
+			if (romanization != null) {
+				japanese = romanization.toRomaji(japanese);
+			}
+			result[i] = new String[] { japanese, english };
+		}
+		return result;
+	}
+}
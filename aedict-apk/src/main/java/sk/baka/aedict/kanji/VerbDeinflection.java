@@ -18,13 +18,19 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package sk.baka.aedict.kanji;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.aedict.dict.MatcherEnum;
 import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.VerbClasses;
 import sk.baka.aedict.kanji.Deinflections.Deinflection;
 import sk.baka.aedict.kanji.VerbInflection.Form;
 
@@ -122,10 +128,58 @@ public final class VerbDeinflection {
             return isStopIfMatch;
         }
 
+        @Override
+        public String getEnding() {
+            return endsWith;
+        }
+
 		@Override
 		public Form getForm() {
 			return form;
 		}
+
+        @Override
+        public List<KanaDeinflector> toKana() {
+            return toKana(null);
+        }
+
+        /**
+         * Expresses this romaji rule in hiragana.
+         * @param unlessEndsWith romaji; words with this ending are never deinflected, may be null.
+         * @return equivalent hiragana rules, may be empty.
+         */
+        public List<KanaDeinflector> toKana(final String unlessEndsWith) {
+            final List<KanaDeinflector> result = new ArrayList<KanaDeinflector>();
+            final String unless = unlessEndsWith == null ? null : toHiragana(unlessEndsWith);
+            if (isAllowEntireWordMatch) {
+                addKana(result, "", true, false, unless);
+            } else if ("aiueo".indexOf(endsWith.charAt(0)) < 0) {
+                // the ending starts with a consonant, thus with a syllable
+                addKana(result, "", false, true, unless);
+            } else {
+                // a romaji word which ends with a consonant plus the ending is
+                // always longer than the ending itself
+                for (final String consonant : CONSONANTS) {
+                    addKana(result, consonant, consonant.length() > 0, true, unless);
+                }
+            }
+            return result;
+        }
+
+        private void addKana(final List<KanaDeinflector> result, final String consonant, final boolean isAllowEntireWordMatch, final boolean isAllowSuffixMatch, final String unless) {
+            final String ending = toHiragana(consonant + endsWith);
+            if (ending == null) {
+                return;
+            }
+            final String[] kanaReplaceBy = new String[replaceBy.length];
+            for (int i = 0; i < replaceBy.length; i++) {
+                kanaReplaceBy[i] = toHiragana(consonant + replaceBy[i]);
+                if (kanaReplaceBy[i] == null) {
+                    return;
+                }
+            }
+            result.add(new KanaDeinflector(ending, isAllowEntireWordMatch, isAllowSuffixMatch, unless, isStopIfMatch, form, kanaReplaceBy));
+        }
     }
 
     private static class EruDeinflector extends AbstractDeinflector {
@@ -133,7 +187,7 @@ public final class VerbDeinflection {
         // aetai. list as a last rule. Make the rule produce the old verb and
         // also the deinflected one.
 
-        private final AbstractDeinflector eruDeinflector = new EndsWithDeinflector("eru", Form.ABLE_TO_DO2, "eru", "u");
+        private final EndsWithDeinflector eruDeinflector = new EndsWithDeinflector("eru", false, true, Form.ABLE_TO_DO2, "eru", "u");
 
         @Override
         public Set<String> deinflect(String romaji) {
@@ -150,6 +204,16 @@ public final class VerbDeinflection {
             return true;
         }
 
+        @Override
+        public String getEnding() {
+            return "eru";
+        }
+
+        @Override
+        public List<KanaDeinflector> toKana() {
+            return eruDeinflector.toKana("rareru");
+        }
+
 		@Override
 		public Form getForm() {
 			return Form.ABLE_TO_DO2;
@@ -184,6 +248,344 @@ public final class VerbDeinflection {
          * @return originating form.
          */
         public abstract Form getForm();
+
+        /**
+         * Returns the ending which a verb must have for this rule to apply.
+         * The rule may still refuse to deinflect such verb.
+         * @return lower-case trimmed romaji (hiragana for kana rules), never null nor empty.
+         */
+        public abstract String getEnding();
+
+        /**
+         * Expresses this romaji rule in hiragana.
+         * @return equivalent hiragana rules, may be empty.
+         */
+        public abstract List<KanaDeinflector> toKana();
+
+        /**
+         * Returns the classes a verb deinflected by this rule must belong to.
+         * @param deinflected one of the verbs produced by {@link #deinflect(String)}.
+         * @return the {@link VerbClasses} bit mask; {@link VerbClasses#ANY} if the rule does not constrain the class.
+         */
+        public int getVerbClass(final String deinflected) {
+            return VerbClasses.ANY;
+        }
+    }
+
+    /**
+     * Godan verb endings, see {@link #GODAN_CLASSES}.
+     */
+    private static final String GODAN_ENDINGS = "うくぐすつぬぶむ";
+    private static final int[] GODAN_CLASSES = {VerbClasses.GODAN_U, VerbClasses.GODAN_KU, VerbClasses.GODAN_GU, VerbClasses.GODAN_SU, VerbClasses.GODAN_TSU, VerbClasses.GODAN_NU, VerbClasses.GODAN_BU, VerbClasses.GODAN_MU};
+    /**
+     * Kana of the i and e rows. A -ru replacement preceded by one of these is an ichidan verb.
+     */
+    private static final String ICHIDAN_STEMS = "いきぎしじちぢにひびぴみりえけげせぜてでねへべぺめれ";
+
+    /**
+     * Computes the class of a verb with given dictionary-form ending.
+     * @param replaceBy the hiragana replacement of a deinflection rule, e.g. る for the -tta rule or べる for the -beta rule.
+     * @return the {@link VerbClasses} bit mask.
+     */
+    private static int getVerbClass(final String replaceBy) {
+        if (replaceBy.equals("する")) {
+            return VerbClasses.SURU;
+        }
+        if (replaceBy.equals("くる")) {
+            return VerbClasses.KURU;
+        }
+        if (replaceBy.equals("です") || replaceBy.equals("ます")) {
+            return VerbClasses.ANY;
+        }
+        final char last = replaceBy.charAt(replaceBy.length() - 1);
+        if (last == 'る') {
+            // the -tta rule produces a bare ru, which is a godan verb; -eru
+            // and -iru replacements are always ichidan. An -aru etc
+            // replacement is a godan verb, e.g. aru.
+            if (replaceBy.length() > 1 && ICHIDAN_STEMS.indexOf(replaceBy.charAt(replaceBy.length() - 2)) >= 0) {
+                return VerbClasses.ICHIDAN;
+            }
+            return VerbClasses.GODAN_RU;
+        }
+        final int godan = GODAN_ENDINGS.indexOf(last);
+        return godan < 0 ? VerbClasses.ANY : GODAN_CLASSES[godan];
+    }
+
+    /**
+     * Consonants which may precede an ending which starts with a vowel. An
+     * -anai romaji ending matches the middle of the -kanai, -sanai etc kana,
+     * therefore the kana rules are created for every consonant.
+     */
+    private static final String[] CONSONANTS = {"", "k", "s", "t", "n", "h", "m", "y", "r", "w", "g", "z", "d", "b", "p", "ky", "sy", "ty", "ny", "hy", "my", "ry", "gy", "zy", "dy", "by", "py"};
+
+    /**
+     * Converts given romaji to hiragana.
+     * @param romaji the romaji to convert
+     * @return hiragana, null if the romaji does not consist of whole syllables.
+     */
+    private static String toHiragana(final String romaji) {
+        final String hiragana = RomanizationEnum.NihonShiki.toHiragana(romaji);
+        return RomanizationEnum.NihonShiki.toRomaji(hiragana).equals(romaji) ? hiragana : null;
+    }
+
+    /**
+     * A deinflection rule expressed in hiragana.
+     */
+    private static class KanaDeinflector extends AbstractDeinflector {
+
+        private final String endsWith;
+        private final String[] replaceBy;
+        private final boolean isAllowEntireWordMatch;
+        private final boolean isAllowSuffixMatch;
+        private final String unlessEndsWith;
+        private final boolean isStopIfMatch;
+        private final Form form;
+        private final int[] verbClasses;
+
+        /**
+         * Creates the rule.
+         * @param endsWith the hiragana ending.
+         * @param isAllowEntireWordMatch if true then the ending may match an entire word.
+         * @param isAllowSuffixMatch if true then the ending may match a suffix of a longer word.
+         * @param unlessEndsWith words with this ending are never deinflected, may be null.
+         * @param isStopIfMatch defines the return value of {@link #stopIfMatch()}.
+         * @param form the form of the verb.
+         * @param replaceBy the ending is replaced by this hiragana.
+         */
+        public KanaDeinflector(final String endsWith, final boolean isAllowEntireWordMatch, final boolean isAllowSuffixMatch, final String unlessEndsWith, final boolean isStopIfMatch, final Form form, final String... replaceBy) {
+            this.endsWith = endsWith;
+            this.replaceBy = replaceBy;
+            this.isAllowEntireWordMatch = isAllowEntireWordMatch;
+            this.isAllowSuffixMatch = isAllowSuffixMatch;
+            this.unlessEndsWith = unlessEndsWith;
+            this.isStopIfMatch = isStopIfMatch;
+            this.form = form;
+            verbClasses = new int[replaceBy.length];
+            for (int i = 0; i < replaceBy.length; i++) {
+                verbClasses[i] = VerbDeinflection.getVerbClass(replaceBy[i]);
+            }
+        }
+
+        @Override
+        public Set<String> deinflect(String kana) {
+            if (!kana.endsWith(endsWith) || (unlessEndsWith != null && kana.endsWith(unlessEndsWith))) {
+                return null;
+            }
+            if (kana.length() == endsWith.length() ? !isAllowEntireWordMatch : !isAllowSuffixMatch) {
+                return null;
+            }
+            final Set<String> result = new HashSet<String>(replaceBy.length);
+            final String verbPart = kana.substring(0, kana.length() - endsWith.length());
+            for (final String rb : replaceBy) {
+                result.add(verbPart + rb);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean stopIfMatch() {
+            return isStopIfMatch;
+        }
+
+        @Override
+        public Form getForm() {
+            return form;
+        }
+
+        @Override
+        public String getEnding() {
+            return endsWith;
+        }
+
+        @Override
+        public List<KanaDeinflector> toKana() {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public int getVerbClass(final String deinflected) {
+            int result = 0;
+            for (int i = 0; i < replaceBy.length; i++) {
+                if (deinflected.endsWith(replaceBy[i])) {
+                    result |= verbClasses[i];
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The deinflector endings, reversed, stored in a trie. A single walk over
+     * the word, from its last character, finds all deinflectors whose ending
+     * matches the word.
+     */
+    private static final class SuffixTrie {
+
+        private final Map<Character, SuffixTrie> children = new HashMap<Character, SuffixTrie>();
+        /**
+         * Indices into the {@link Engine} deinflector list of the
+         * deinflectors whose ending is spelled by the path to this node.
+         */
+        private final List<Integer> rules = new ArrayList<Integer>();
+
+        public void add(final String ending, final int rule) {
+            SuffixTrie node = this;
+            for (int i = ending.length() - 1; i >= 0; i--) {
+                final Character c = ending.charAt(i);
+                SuffixTrie child = node.children.get(c);
+                if (child == null) {
+                    child = new SuffixTrie();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.rules.add(rule);
+        }
+
+        /**
+         * Finds all deinflectors whose ending is a suffix of given word.
+         * @param romaji the word
+         * @return indices of the deinflectors, ascending.
+         */
+        public List<Integer> find(final String romaji) {
+            final List<Integer> result = new ArrayList<Integer>();
+            SuffixTrie node = this;
+            for (int i = romaji.length() - 1; i >= 0; i--) {
+                node = node.children.get(romaji.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                result.addAll(node.rules);
+            }
+            Collections.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * A verb waiting for deinflection.
+     */
+    private static final class Candidate {
+
+        public final String verb;
+        /**
+         * The verb was produced by the deinflector preceding this one; only
+         * this and following deinflectors may be applied to it.
+         */
+        public final int firstRule;
+
+        public Candidate(final String verb, final int firstRule) {
+            this.verb = verb;
+            this.firstRule = firstRule;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Candidate)) {
+                return false;
+            }
+            final Candidate other = (Candidate) obj;
+            return firstRule == other.firstRule && verb.equals(other.verb);
+        }
+
+        @Override
+        public int hashCode() {
+            return verb.hashCode() * 31 + firstRule;
+        }
+    }
+
+    /**
+     * Applies a list of deinflectors. The deinflectors are applied in the
+     * list order: the first matching deinflector replaces the verb with its
+     * deinflections, which are then subject only to the following
+     * deinflectors (unless the deinflector stops the process). Instead of
+     * trying every deinflector on every verb, the matching deinflectors are
+     * looked up in the suffix trie and the verbs are processed from a
+     * worklist.
+     */
+    private static final class Engine {
+
+        private final List<AbstractDeinflector> deinflectors;
+        /**
+         * The position of each deinflector in the original rule list. Kana
+         * deinflectors created out of the same romaji rule share the
+         * position.
+         */
+        private final int[] order;
+        private final SuffixTrie trie = new SuffixTrie();
+
+        public Engine(final List<AbstractDeinflector> deinflectors, final int[] order) {
+            this.deinflectors = deinflectors;
+            this.order = order;
+            for (int i = 0; i < deinflectors.size(); i++) {
+                trie.add(deinflectors.get(i).getEnding(), i);
+            }
+        }
+
+        public Deinflections deinflect(final String verb) {
+            final Deinflections result = new Deinflections();
+            result.deinflectedVerbs = new HashSet<String>();
+            final Map<Integer, List<Deinflection>> deinflections = new TreeMap<Integer, List<Deinflection>>();
+            final Map<String, List<Integer>> rules = new HashMap<String, List<Integer>>();
+            result.verbClasses = new HashMap<String, Integer>();
+            final Candidate first = new Candidate(verb, 0);
+            final Set<Candidate> seen = new HashSet<Candidate>();
+            seen.add(first);
+            final LinkedList<Candidate> worklist = new LinkedList<Candidate>();
+            worklist.add(first);
+            while (!worklist.isEmpty()) {
+                final Candidate candidate = worklist.removeFirst();
+                List<Integer> matching = rules.get(candidate.verb);
+                if (matching == null) {
+                    matching = trie.find(candidate.verb);
+                    rules.put(candidate.verb, matching);
+                }
+                boolean deinflectedAny = false;
+                for (final int rule : matching) {
+                    if (order[rule] < candidate.firstRule) {
+                        continue;
+                    }
+                    final AbstractDeinflector deinflector = deinflectors.get(rule);
+                    final Set<String> deinflected = deinflector.deinflect(candidate.verb);
+                    if (deinflected == null || deinflected.isEmpty()) {
+                        continue;
+                    }
+                    // successfully deinflected. drop the old verb and continue
+                    // with the deinflected one.
+                    deinflectedAny = true;
+                    List<Deinflection> list = deinflections.get(rule);
+                    if (list == null) {
+                        list = new ArrayList<Deinflection>();
+                        deinflections.put(rule, list);
+                    }
+                    list.add(new Deinflection(candidate.verb, deinflector.getForm(), deinflected.toArray(new String[0])));
+                    for (final String v : deinflected) {
+                        final Integer old = result.verbClasses.get(v);
+                        final int verbClass = deinflector.getVerbClass(v);
+                        result.verbClasses.put(v, old == null ? verbClass : old | verbClass);
+                    }
+                    if (deinflector.stopIfMatch()) {
+                        result.deinflectedVerbs.addAll(deinflected);
+                    } else {
+                        for (final String v : deinflected) {
+                            final Candidate next = new Candidate(v, order[rule] + 1);
+                            if (seen.add(next)) {
+                                worklist.add(next);
+                            }
+                        }
+                    }
+                    break;
+                }
+                if (!deinflectedAny) {
+                    result.deinflectedVerbs.add(candidate.verb);
+                }
+            }
+            result.deinflections = new ArrayList<Deinflection>();
+            for (final List<Deinflection> list : deinflections.values()) {
+                result.deinflections.addAll(list);
+            }
+            return result;
+        }
     }
 
     private static AbstractDeinflector basicSuffix(final String endsWith, final Form form, final String... replaceBy) {
@@ -198,7 +600,14 @@ public final class VerbDeinflection {
     	return result;
     }
     
-    private final static List<? extends AbstractDeinflector> DEINFLECTORS;
+    /**
+     * Deinflects {@link RomanizationEnum#NihonShiki} romaji.
+     */
+    private final static Engine ROMAJI;
+    /**
+     * Deinflects hiragana, with the same rules expressed in hiragana.
+     */
+    private final static Engine KANA;
 
     static {
         final List<AbstractDeinflector> d = new ArrayList<AbstractDeinflector>();
@@ -282,7 +691,24 @@ public final class VerbDeinflection {
         d.add(basicSuffix("tte",Form.CONTINUATION, "tu", "u", "ru"));
         d.add(basicSuffix("nda", Form.PAST_TENSE, "nu", "bu", "mu"));
         d.add(basicSuffix("nde",Form.CONTINUATION, "nu", "bu", "mu"));
-        DEINFLECTORS = d;
+        final int[] order = new int[d.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        ROMAJI = new Engine(d, order);
+        final List<AbstractDeinflector> kana = new ArrayList<AbstractDeinflector>();
+        final List<Integer> kanaOrder = new ArrayList<Integer>();
+        for (int i = 0; i < d.size(); i++) {
+            for (final KanaDeinflector k : d.get(i).toKana()) {
+                kana.add(k);
+                kanaOrder.add(i);
+            }
+        }
+        final int[] ko = new int[kanaOrder.size()];
+        for (int i = 0; i < ko.length; i++) {
+            ko[i] = kanaOrder.get(i);
+        }
+        KANA = new Engine(kana, ko);
     }
 
     /**
@@ -293,39 +719,72 @@ public final class VerbDeinflection {
      * @return deinflected verb(s)
      */
     public static Deinflections deinflect(final String japanese) {
-        final Deinflections result = new Deinflections();
-        result.deinflections=new ArrayList<Deinflection>();
-        result.deinflectedVerbs = new HashSet<String>();
-        Set<String> finalDeinflect = new HashSet<String>();
-        result.deinflectedVerbs.add(RomanizationEnum.NihonShiki.toRomaji(japanese).trim());
-        for (final AbstractDeinflector deinflector : DEINFLECTORS) {
-            final Set<String> newResult = new HashSet<String>(result.deinflectedVerbs);
-            for (final String romaji : result.deinflectedVerbs) {
-                final Set<String> deinflected = deinflector.deinflect(romaji);
-                if (deinflected != null && !deinflected.isEmpty()) {
-                    // successfully deinflected. remove the old verb and add the
-                    // deinflected one.
-                    newResult.remove(romaji);
-                    if (deinflector.stopIfMatch()) {
-                        finalDeinflect.addAll(deinflected);
-                    } else {
-                        newResult.addAll(deinflected);
-                    }
-                    result.deinflections.add(new Deinflection(romaji, deinflector.getForm(), deinflected.toArray(new String[0])));
-                }
-            }
-            result.deinflectedVerbs = newResult;
-        }
-        result.deinflectedVerbs.addAll(finalDeinflect);
-        return result;
+        return ROMAJI.deinflect(RomanizationEnum.NihonShiki.toRomaji(japanese).trim());
+    }
+
+    /**
+     * Attempts to deinflect given verb, without converting it to romaji.
+     * Only the kana ending is deinflected, therefore the verb may be written
+     * with kanji.
+     *
+     * @param japanese
+     *            hiragana or katakana, optionally with kanji, e.g. 食べません.
+     * @return deinflected verb(s), in hiragana (with the kanji preserved),
+     *         e.g. 食べる. The deinflection steps are in hiragana as well.
+     */
+    public static Deinflections deinflectKana(final String japanese) {
+        return KANA.deinflect(KanjiUtils.katakanaToHiragana(japanese).trim());
     }
 
     private VerbDeinflection() {
         throw new AssertionError();
     }
 
+    private static volatile VerbClasses verbs;
+
+    /**
+     * Sets the dictionary verbs used to prune the deinflected verbs in
+     * {@link #searchJpDeinflected(String, RomanizationEnum)}.
+     * @param verbs the verbs, null to disable the pruning.
+     */
+    public static void setVerbs(final VerbClasses verbs) {
+        VerbDeinflection.verbs = verbs;
+    }
+
+    /**
+     * Returns the dictionary verbs used to prune the deinflected verbs.
+     * @return the verbs, null if the pruning is disabled.
+     */
+    public static VerbClasses getVerbs() {
+        return verbs;
+    }
+
+    /**
+     * Removes deinflected verbs which are not dictionary verbs of the class
+     * expected by the deinflection rule, e.g. the -tta rule produces -tsu, -u
+     * and -ru verbs but only godan verbs are kept. The verbs which were not
+     * deinflected at all are always kept. If nothing would remain then the
+     * deinflections are left untouched.
+     * @param deinflections the deinflections, modified in place.
+     * @param verbs the dictionary verbs.
+     */
+    static void prune(final Deinflections deinflections, final VerbClasses verbs) {
+        final Set<String> result = new HashSet<String>();
+        for (final String verb : deinflections.deinflectedVerbs) {
+            final Integer verbClass = deinflections.verbClasses.get(verb);
+            if (verbClass == null || verbs.matches(verb, verbClass)) {
+                result.add(verb);
+            }
+        }
+        if (!result.isEmpty()) {
+            deinflections.deinflectedVerbs = result;
+        }
+    }
+
     /**
      * Creates an EDICT query which searches for a japanese term. Automatically performs a verb deinflection.
+     * If {@link #setVerbs(VerbClasses) the dictionary verbs} are known then deinflected verbs which are not
+     * in the dictionary are not searched for.
      *
      * @param verb
      *            the word to search, in japanese language, may contain romaji.
@@ -338,14 +797,17 @@ public final class VerbDeinflection {
     public static Deinflections searchJpDeinflected(final String verb, final RomanizationEnum romanization) {
         final SearchQuery result = new SearchQuery(DictTypeEnum.Edict);
         final String conv = KanjiUtils.halfwidthToKatakana(verb);
-        final String romaji = RomanizationEnum.NihonShiki.toRomaji(romanization.toHiragana(conv));
-        final Deinflections deinflections = VerbDeinflection.deinflect(romaji);
-        result.query = deinflections.deinflectedVerbs.toArray(new String[0]);
-        for (int i = 0; i < result.query.length; i++) {
-            result.query[i] = RomanizationEnum.NihonShiki.toHiragana(result.query[i]);
+        final String kana = romanization.toHiragana(conv);
+        final Deinflections deinflections = VerbDeinflection.deinflectKana(kana);
+        final VerbClasses v = verbs;
+        if (v != null) {
+            prune(deinflections, v);
         }
+        result.query = deinflections.deinflectedVerbs.toArray(new String[0]);
         result.isJapanese = true;
         result.matcher = MatcherEnum.Exact;
+        // dictionaries with the reverse index of conjugations find the verb directly
+        result.inflected = new String[]{KanjiUtils.katakanaToHiragana(kana).trim()};
         deinflections.query = result;
         return deinflections;
     }
@@ -19,6 +19,8 @@ package sk.baka.aedict.util;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -64,29 +66,49 @@ public class BackgroundService implements Closeable {
 		}
 		return result;
 	}
+	/**
+	 * Tasks to run again once the running task with the same key finishes.
+	 */
+	private final Map<String, Callable<Void>> rescheduled = new HashMap<String, Callable<Void>>();
 	/**
 	 * Schedules given task for execution.
-	 * @param key the task key. The scheduler will reject to schedule task with a key if any task with the same key is already scheduled for execution, or being executed.
+	 * @param key the task key. The scheduler will reject to schedule task with a key if any task with the same key is already scheduled for execution. If the task with the same key is already being executed, the task is run again once the running task finishes, as the running task may have already read a stale state.
 	 * @param r the task to run.
 	 */
 	public void schedule(final String key, final Callable<Void> r) {
-		if (runningOrScheduled.putIfAbsent(key, OBJ) == null) {
+		synchronized (this) {
+			if (runningOrScheduled.containsKey(key)) {
+				if (taskStatus.get(key).status == StatusEnum.Running) {
+					rescheduled.put(key, r);
+				}
+				return;
+			}
+			runningOrScheduled.put(key, OBJ);
 			taskStatus.put(key, new Status(StatusEnum.Scheduled, null));
-			executor.submit(new Runnable() {
+		}
+		executor.submit(new Runnable() {
 
-				public void run() {
+			public void run() {
+				synchronized (BackgroundService.this) {
 					taskStatus.put(key, new Status(StatusEnum.Running, null));
-					try {
-						r.call();
-						taskStatus.put(key, new Status(StatusEnum.Finished, null));
-					} catch (Throwable t) {
-						Log.e("BackgroundService", "Task " + key + " failed", t);
-						taskStatus.put(key, new Status(StatusEnum.Finished, t));
-					}
+				}
+				try {
+					r.call();
+					taskStatus.put(key, new Status(StatusEnum.Finished, null));
+				} catch (Throwable t) {
+					Log.e("BackgroundService", "Task " + key + " failed", t);
+					taskStatus.put(key, new Status(StatusEnum.Finished, t));
+				}
+				final Callable<Void> next;
+				synchronized (BackgroundService.this) {
 					runningOrScheduled.remove(key);
+					next = rescheduled.remove(key);
 				}
-			});
-		}
+				if (next != null && !executor.isShutdown()) {
+					schedule(key, next);
+				}
+			}
+		});
 	}
 
 	public void close() throws IOException {
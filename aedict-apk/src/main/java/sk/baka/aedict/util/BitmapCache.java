@@ -0,0 +1,173 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+ 
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+ 
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sk.baka.aedict.util;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+
+/**
+ * A LRU cache of decoded bitmaps, bounded by the total byte size of the
+ * bitmaps. Bitmaps evicted from the cache are still reachable softly, so they
+ * can be reused until the garbage collector needs the memory.
+ * <p/>
+ * Thread safe.
+ * 
+ * @param <K>
+ *            the key type
+ * @author Martin Vysny
+ */
+public class BitmapCache<K> {
+	private final long maxBytes;
+	private long bytes = 0;
+	/**
+	 * Strongly reachable bitmaps, in the access order.
+	 */
+	private final LinkedHashMap<K, BitmapDrawable> cache = new LinkedHashMap<K, BitmapDrawable>(16, 0.75f, true);
+	/**
+	 * Bitmaps evicted from the {@link #cache}, cleared by the GC when the
+	 * memory runs low.
+	 */
+	private final Map<K, SoftReference<BitmapDrawable>> evicted = new HashMap<K, SoftReference<BitmapDrawable>>();
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * Creates new cache.
+	 * 
+	 * @param maxBytes
+	 *            the maximum total size of bitmaps kept in the cache, in
+	 *            bytes.
+	 */
+	public BitmapCache(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns a cached bitmap.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return cached bitmap or null if the bitmap is not cached.
+	 */
+	public synchronized BitmapDrawable get(final K key) {
+		BitmapDrawable result = cache.get(key);
+		if (result == null) {
+			final SoftReference<BitmapDrawable> ref = evicted.remove(key);
+			result = ref == null ? null : ref.get();
+			if (result != null) {
+				// promote the bitmap back to the cache
+				put(key, result);
+			}
+		}
+		if (result == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if given key is cached, without affecting the counters and the
+	 * LRU order.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return true if the bitmap is strongly cached.
+	 */
+	public synchronized boolean contains(final K key) {
+		return cache.containsKey(key);
+	}
+
+	/**
+	 * Puts a bitmap into the cache, evicting the least recently used bitmaps
+	 * if the cache grows too big.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param bitmap
+	 *            the bitmap, not null.
+	 */
+	public synchronized void put(final K key, final BitmapDrawable bitmap) {
+		final BitmapDrawable old = cache.put(key, bitmap);
+		if (old != null) {
+			bytes -= sizeOf(old);
+		}
+		evicted.remove(key);
+		bytes += sizeOf(bitmap);
+		for (final Iterator<Map.Entry<K, BitmapDrawable>> i = cache.entrySet().iterator(); bytes > maxBytes && i.hasNext();) {
+			final Map.Entry<K, BitmapDrawable> e = i.next();
+			if (e.getKey().equals(key)) {
+				// never evict the bitmap being put
+				continue;
+			}
+			i.remove();
+			bytes -= sizeOf(e.getValue());
+			evicted.put(e.getKey(), new SoftReference<BitmapDrawable>(e.getValue()));
+			evictions++;
+		}
+		purgeCleared();
+	}
+
+	private void purgeCleared() {
+		for (final Iterator<SoftReference<BitmapDrawable>> i = evicted.values().iterator(); i.hasNext();) {
+			if (i.next().get() == null) {
+				i.remove();
+			}
+		}
+	}
+
+	private static long sizeOf(final BitmapDrawable drawable) {
+		final Bitmap b = drawable.getBitmap();
+		return b == null ? 0 : (long) b.getRowBytes() * b.getHeight();
+	}
+
+	/**
+	 * Returns the total size of strongly cached bitmaps.
+	 * 
+	 * @return size in bytes.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BitmapCache{" + cache.size() + " bitmaps, " + bytes + "/" + maxBytes + " bytes, hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+	}
+}
@@ -18,17 +18,15 @@
 
 package sk.baka.aedict.util;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 import sk.baka.aedict.dict.DictTypeEnum;
 import sk.baka.autils.MiscUtils;
@@ -36,47 +34,72 @@ import android.graphics.drawable.BitmapDrawable;
 
 /**
  * Loads the <a href="http://www.kanjicafe.com/license.htm">SOD</a> images from
- * a custom binary format. The format is gzipped, with the following structure:
+ * a custom binary format. Both the {@link SodContainer} format and the
+ * original format are supported. The {@link SodContainer} format is
+ * downloaded as-is from {@link #DOWNLOAD_URL}. The original format is
+ * downloaded gzipped from {@link #LEGACY_DOWNLOAD_URL} and stored unpacked,
+ * with the following structure:
  * <h4>The header:</h4> 4 byte int - number of kanji entries; for each entry:
  * 2-byte UTF-16 kanji character, 4-byte png offset in the file. The entries are
  * ordered by the "offset" value, ascending. <h4>The contents:</h4> Basically
  * just a streams of PNG images, one after another.
  * <p/>
- * Not thread safe.
+ * The file is mapped into memory once; the images are decoded directly from
+ * the mapped buffer. Decoded images are kept in a {@link BitmapCache}.
+ * <p/>
+ * Thread safe.
  * 
  * @author Martin Vysny
  */
 public class SodLoader {
 	/**
-	 * Creates new loader. The loader is initialized immediately, by reading the
-	 * binary format header. The constructor fails if the file is not available.
+	 * Creates new loader. The loader is initialized immediately, by mapping the
+	 * file into memory and reading the binary format header. The constructor
+	 * fails if the file is not available.
 	 * 
 	 * @throws IOException
 	 *             if the file fails to load.
 	 */
 	public SodLoader() throws IOException {
+		final RandomAccessFile file = new RandomAccessFile(SDCARD_LOCATION, "r");
+		try {
+			// the mapping stays valid even after the file is closed
+			data = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+		} finally {
+			MiscUtils.closeQuietly(file);
+		}
+		if (SodContainer.isContainer(data)) {
+			// the new format, no need to parse the header
+			return;
+		}
 		// parse the header
-		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(SDCARD_LOCATION)));
 		try {
-			try {
-				final int numberOfKanjis = in.readInt();
-				Character lastKanji = null;
-				for (int i = 0; i < numberOfKanjis; i++) {
-					final Character kanji = in.readChar();
-					final int offset = in.readInt();
-					startOffset.put(kanji, offset);
-					if (lastKanji != null) {
-						final int length = offset - startOffset.get(lastKanji);
-						this.length.put(lastKanji, length);
-					}
-					lastKanji = kanji;
-				}
-				length.put(lastKanji, (int) (SDCARD_LOCATION.length() - startOffset.get(lastKanji)));
-			} catch (IOException ex) {
-				tnio(ex);
+			final ByteBuffer header = data.duplicate();
+			final int numberOfKanjis = header.getInt();
+			if (numberOfKanjis < 0 || numberOfKanjis * 6L + 4 > data.limit()) {
+				throw new IOException("Invalid number of entries: " + numberOfKanjis);
 			}
-		} finally {
-			MiscUtils.closeQuietly(in);
+			kanjis = new char[numberOfKanjis];
+			startOffset = new int[numberOfKanjis];
+			length = new int[numberOfKanjis];
+			// the entries are ordered by offset; sort them by kanji, to allow
+			// the binary search
+			final long[] sorted = new long[numberOfKanjis];
+			final int[] offsets = new int[numberOfKanjis];
+			for (int i = 0; i < numberOfKanjis; i++) {
+				final char kanji = header.getChar();
+				offsets[i] = header.getInt();
+				sorted[i] = (((long) kanji) << 32) | i;
+			}
+			Arrays.sort(sorted);
+			for (int i = 0; i < numberOfKanjis; i++) {
+				final int index = (int) sorted[i];
+				kanjis[i] = (char) (sorted[i] >>> 32);
+				startOffset[i] = offsets[index];
+				length[i] = (index == numberOfKanjis - 1 ? data.limit() : offsets[index + 1]) - offsets[index];
+			}
+		} catch (Exception ex) {
+			tnio(ex);
 		}
 	}
 
@@ -87,21 +110,40 @@ public class SodLoader {
 	}
 
 	/**
-	 * Maps a character to the starting offset of the image in the file.
+	 * The memory-mapped contents of the SOD file.
+	 */
+	private final ByteBuffer data;
+	/**
+	 * Kanji characters, sorted ascending. Null if the file is in the
+	 * {@link SodContainer} format.
+	 */
+	private char[] kanjis;
+	/**
+	 * The starting offset of the image in the file, for each character from
+	 * {@link #kanjis}.
 	 */
-	private final Map<Character, Integer> startOffset = new HashMap<Character, Integer>();
+	private int[] startOffset;
 	/**
-	 * Maps a character to the length of the image data in the file.
+	 * The length of the image data in the file, for each character from
+	 * {@link #kanjis}.
 	 */
-	private final Map<Character, Integer> length = new HashMap<Character, Integer>();
+	private int[] length;
 
 	/**
-	 * The file can be obtained from this URL.
+	 * The file in the {@link SodContainer} format can be obtained from this
+	 * URL.
 	 */
 	public static final URL DOWNLOAD_URL;
+	/**
+	 * The file in the original format, gzipped, can be obtained from this URL.
+	 * Older clients download this file, as they do not understand the
+	 * {@link SodContainer} format.
+	 */
+	public static final URL LEGACY_DOWNLOAD_URL;
 	static {
 		try {
-			DOWNLOAD_URL = new URL(DictTypeEnum.DICT_BASE_LOCATION_URL + "sod.dat.gz");
+			DOWNLOAD_URL = new URL(DictTypeEnum.DICT_BASE_LOCATION_URL + "sod2.dat");
+			LEGACY_DOWNLOAD_URL = new URL(DictTypeEnum.DICT_BASE_LOCATION_URL + "sod.dat.gz");
 		} catch (MalformedURLException e) {
 			throw new RuntimeException(e);
 		}
@@ -113,41 +155,72 @@ public class SodLoader {
 	public static final long UNPACKED_SIZE = 4584605L;
 
 	/**
-	 * Loads a SOD image for given kanji character. Returns null if there is no
-	 * image for given kanji. No caching is performed of the image.
+	 * Returns a read-only view of the SOD image for given kanji character.
+	 * Returns null if there is no image for given kanji. No caching is
+	 * performed of the image.
 	 * 
 	 * @param kanji
 	 *            the kanji
-	 * @return a bitmap instance or null if there is no such image.
+	 * @return the PNG image data or null if there is no such image.
 	 * @throws IOException
-	 *             if the file is not available.
+	 *             if the file is corrupted.
 	 */
-	private byte[] load(final Character kanji) throws IOException {
-		final Integer offset = startOffset.get(kanji);
-		if (offset == null) {
+	private ByteBuffer load(final char kanji) throws IOException {
+		if (kanjis == null) {
+			return SodContainer.getImage(data, kanji);
+		}
+		final int index = Arrays.binarySearch(kanjis, kanji);
+		if (index < 0) {
 			return null;
 		}
-		final int length = this.length.get(kanji);
-		final RandomAccessFile file = new RandomAccessFile(SDCARD_LOCATION, "r");
-		try {
-			try {
-				file.seek(offset);
-				final byte[] result = new byte[length];
-				file.readFully(result);
-				return result;
-			} catch (IOException ex) {
-				tnio(ex);
-				throw new AssertionError();
+		final ByteBuffer result = data.duplicate();
+		result.position(startOffset[index]);
+		result.limit(startOffset[index] + length[index]);
+		return result.slice();
+	}
+
+	/**
+	 * Reads bytes from a byte buffer, to allow decoding images directly from
+	 * the memory-mapped file.
+	 * 
+	 * @author Martin Vysny
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
 			}
-		} finally {
-			MiscUtils.closeQuietly(file);
+			final int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
 		}
 	}
 
 	/**
 	 * The cached images.
 	 */
-	private final Map<Character, BitmapDrawable> cachedImages = new HashMap<Character, BitmapDrawable>();
+	private final BitmapCache<Character> cachedImages = new BitmapCache<Character>(CACHE_SIZE);
+	/**
+	 * Maximum size of the decoded images kept in the cache, in bytes.
+	 */
+	public static final long CACHE_SIZE = 2 * 1024 * 1024;
 
 	/**
 	 * Loads a SOD image for given kanji character. Returns null if there is no
@@ -163,12 +236,40 @@ public class SodLoader {
 	public BitmapDrawable loadBitmap(final Character kanji) throws IOException {
 		BitmapDrawable result = cachedImages.get(kanji);
 		if (result == null) {
-			final byte[] img = load(kanji);
+			final ByteBuffer img = load(kanji);
 			if (img != null) {
-				result = new BitmapDrawable(new ByteArrayInputStream(img));
+				result = new BitmapDrawable(new ByteBufferInputStream(img));
 				cachedImages.put(kanji, result);
 			}
 		}
 		return result;
 	}
+
+	/**
+	 * Decodes the SOD image for given kanji into the cache, unless it is
+	 * already cached. Does not affect the cache hit/miss counters.
+	 * 
+	 * @param kanji
+	 *            the kanji
+	 * @throws IOException
+	 *             if the file is corrupted.
+	 */
+	public void prefetch(final Character kanji) throws IOException {
+		if (cachedImages.contains(kanji)) {
+			return;
+		}
+		final ByteBuffer img = load(kanji);
+		if (img != null) {
+			cachedImages.put(kanji, new BitmapDrawable(new ByteBufferInputStream(img)));
+		}
+	}
+
+	/**
+	 * Returns the image cache, to allow checking the cache statistics.
+	 * 
+	 * @return the cache, never null.
+	 */
+	public BitmapCache<Character> getCache() {
+		return cachedImages;
+	}
 }
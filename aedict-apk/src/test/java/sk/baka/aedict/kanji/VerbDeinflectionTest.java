@@ -21,11 +21,15 @@ import static sk.baka.tools.test.Assert.assertArrayEqualsNoOrder;
 import static sk.baka.tools.test.Assert.assertUtilityClass;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
+import sk.baka.aedict.dict.EdictEntry;
 import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.VerbClasses;
 import sk.baka.tools.test.Assert;
 
 /**
@@ -182,10 +186,72 @@ public class VerbDeinflectionTest {
         }
     }
 
+    @Test
+    public void testDeinflectKana() {
+        assertDeinflectedKana(Arrays.asList("たべる", "たぶ"), "たべません", "タベマセン", "たべない");
+        assertDeinflectedKana(Arrays.asList("食べる", "食ぶ"), "食べません", "食べない");
+        assertDeinflectedKana(Arrays.asList("書く", "書きる"), "書きました");
+        assertDeinflectedKana(Arrays.asList("読む", "読ぬ", "読ぶ"), "読んだ");
+        assertDeinflectedKana(Arrays.asList("する"), "しません", "しない");
+        assertDeinflectedKana(Arrays.asList("です"), "じゃありません", "だった");
+        assertDeinflectedKana(Arrays.asList("きれい"), "きれい");
+    }
+
+    /**
+     * The kana rules must produce the same verbs as the romaji ones.
+     */
+    @Test
+    public void testKanaMatchesRomaji() {
+        for (final String romaji : Arrays.asList("tabemasen", "kakimasita", "kaita", "isoida", "kasita", "matta", "sinda", "minakatta", "kawanai", "aenai", "asobimasendesita", "kaerimasen desita", "kaette", "ikareta", "kimasu", "sareru", "tabetai", "kakeba", "kakanakereba")) {
+            final Set<String> expected = new HashSet<String>();
+            for (final String verb : VerbDeinflection.deinflect(romaji).deinflectedVerbs) {
+                expected.add(RomanizationEnum.NihonShiki.toHiragana(verb));
+            }
+            final String kana = RomanizationEnum.NihonShiki.toHiragana(romaji);
+            assertArrayEqualsNoOrder(VerbDeinflection.deinflectKana(kana).deinflectedVerbs, expected, "Deinflecting " + kana);
+        }
+    }
+
+    private void assertDeinflectedKana(final List<String> expected, final String... deinflects) {
+        for (final String deinflect : deinflects) {
+            assertArrayEqualsNoOrder(VerbDeinflection.deinflectKana(deinflect).deinflectedVerbs, expected, "Deinflecting " + deinflect);
+        }
+    }
+
     @Test
     public void jpSearchWithDeinflect() {
         final SearchQuery q = VerbDeinflection.searchJpDeinflected("tabenai", RomanizationEnum.Hepburn).query;
         Arrays.sort(q.query);
         Assert.assertArrayEquals(q.query, new String[]{"たぶ", "たべる"});
     }
+
+    private static void assertSearched(final String verb, final String... expected) {
+        final SearchQuery q = VerbDeinflection.searchJpDeinflected(verb, RomanizationEnum.Hepburn).query;
+        Arrays.sort(q.query);
+        Arrays.sort(expected);
+        Assert.assertArrayEquals(q.query, expected);
+    }
+
+    @Test
+    public void jpSearchPrunedByVerbClasses() {
+        final VerbClasses.Builder b = new VerbClasses.Builder();
+        b.add(new EdictEntry("食べる", "たべる", "(v1,vt) to eat/(P)/"));
+        b.add(new EdictEntry("帰る", "かえる", "(v5r,vi) to return/(P)/"));
+        b.add(new EdictEntry("買う", "かう", "(v5u,vt) to buy/(P)/"));
+        VerbDeinflection.setVerbs(b.build());
+        try {
+            assertSearched("tabenai", "たべる");
+            assertSearched("食べました", "食べる");
+            assertSearched("katta", "かう");
+            assertSearched("kaetta", "かえる");
+            // kaeriru is not a verb
+            assertSearched("kaerimasu", "かえる", "かう");
+            // not deinflected at all
+            assertSearched("kirei", "きれい");
+            // none of the verbs is known, keep them all
+            assertSearched("wakatta", "わかつ", "わかう", "わかる");
+        } finally {
+            VerbDeinflection.setVerbs(null);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Benchmark scores of a single run, keyed by the benchmark name including
+ * its parameters. May be saved and later compared with another run, to detect
+ * performance regressions.
+ * 
+ * @author Martin Vysny
+ */
+public final class Baseline {
+
+    /**
+     * The JMH throughput mode label. Higher throughput is better; for all
+     * other modes (average time, sample time, single shot time) lower scores
+     * are better.
+     */
+    public static final String THROUGHPUT = "thrpt";
+
+    private static final class Score {
+
+        private final String mode;
+        private final double score;
+
+        private Score(final String mode, final double score) {
+            this.mode = mode;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return mode + " " + score;
+        }
+    }
+    private final Map<String, Score> scores = new TreeMap<String, Score>();
+
+    /**
+     * Records a benchmark score.
+     *
+     * @param benchmark
+     *            the benchmark name including its parameters, not null.
+     * @param mode
+     *            the JMH mode label, e.g. {@value #THROUGHPUT}.
+     * @param score
+     *            the score.
+     */
+    public void put(final String benchmark, final String mode, final double score) {
+        scores.put(benchmark, new Score(mode, score));
+    }
+
+    /**
+     * Returns number of recorded scores.
+     *
+     * @return number of scores.
+     */
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * Compares this run with given baseline run. Benchmarks which are not
+     * present in both runs, or were measured in a different mode, are
+     * ignored.
+     *
+     * @param baseline
+     *            the baseline run, not null.
+     * @param threshold
+     *            the allowed slowdown, as a fraction of the baseline score;
+     *            0.1 allows the throughput to drop by 10%.
+     * @return a human-readable description of each regression, empty if
+     *         there is none.
+     */
+    public List<String> compare(final Baseline baseline, final double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Parameter threshold: invalid value " + threshold + ": must not be negative");
+        }
+        final List<String> result = new ArrayList<String>();
+        for (final Map.Entry<String, Score> e : scores.entrySet()) {
+            final Score base = baseline.scores.get(e.getKey());
+            final Score current = e.getValue();
+            if (base == null || !base.mode.equals(current.mode) || base.score <= 0) {
+                continue;
+            }
+            final double change = (current.score - base.score) / base.score;
+            final double slowdown = THROUGHPUT.equals(current.mode) ? -change : change;
+            if (slowdown > threshold) {
+                result.add(e.getKey() + ": " + base.score + " -> " + current.score + " " + current.mode + " (" + Math.round(change * 100) + "%)");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Saves the scores to given file.
+     *
+     * @param file
+     *            the file to write, overwritten if it exists.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public void save(final File file) throws IOException {
+        final Properties p = new Properties();
+        for (final Map.Entry<String, Score> e : scores.entrySet()) {
+            p.setProperty(e.getKey(), e.getValue().toString());
+        }
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            p.store(out, "Aedict benchmark scores");
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Loads scores saved by {@link #save(File)}.
+     *
+     * @param file
+     *            the file to read.
+     * @return the scores, never null.
+     * @throws IOException
+     *             on I/O error or if the file is malformed.
+     */
+    public static Baseline load(final File file) throws IOException {
+        final Properties p = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            p.load(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        final Baseline result = new Baseline();
+        for (final String key : p.stringPropertyNames()) {
+            final String value = p.getProperty(key);
+            final int space = value.indexOf(' ');
+            try {
+                result.put(key, value.substring(0, space), Double.parseDouble(value.substring(space + 1)));
+            } catch (RuntimeException ex) {
+                throw new IOException(file + ": invalid score of " + key + ": " + value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Baseline" + Collections.unmodifiableMap(scores);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * Runs the benchmarks. Accepts all JMH command-line options, plus:
+ * <ul>
+ * <li><code>-save file</code> saves the scores to given file, to be used as
+ * a baseline later on,</li>
+ * <li><code>-baseline file</code> compares the scores with the baseline
+ * saved earlier, and exits with status 1 when a benchmark regresses past the
+ * threshold,</li>
+ * <li><code>-threshold fraction</code> the allowed slowdown, 0.1 (10%) by
+ * default.</li>
+ * </ul>
+ * For example:
+ * <pre>
+ * java -jar target/benchmarks.jar -save baseline.properties
+ * java -jar target/benchmarks.jar -baseline baseline.properties -threshold 0.05 Search
+ * </pre>
+ * 
+ * @author Martin Vysny
+ */
+public class BenchMain {
+
+    private static final double DEFAULT_THRESHOLD = 0.1;
+
+    public static void main(String[] args) throws Exception {
+        File save = null;
+        File baseline = null;
+        double threshold = DEFAULT_THRESHOLD;
+        final List<String> jmhArgs = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-save") && i + 1 < args.length) {
+                save = new File(args[++i]);
+            } else if (args[i].equals("-baseline") && i + 1 < args.length) {
+                baseline = new File(args[++i]);
+            } else if (args[i].equals("-threshold") && i + 1 < args.length) {
+                threshold = Double.parseDouble(args[++i]);
+            } else {
+                jmhArgs.add(args[i]);
+            }
+        }
+        // fail early, not after an hour of benchmarking
+        final Baseline base = baseline == null ? null : Baseline.load(baseline);
+        final Collection<RunResult> results = new Runner(new CommandLineOptions(jmhArgs.toArray(new String[0]))).run();
+        final Baseline current = new Baseline();
+        for (final RunResult result : results) {
+            final BenchmarkParams params = result.getParams();
+            final StringBuilder key = new StringBuilder(params.getBenchmark());
+            for (final String param : params.getParamsKeys()) {
+                key.append(':').append(param).append('=').append(params.getParam(param));
+            }
+            current.put(key.toString(), params.getMode().shortLabel(), result.getPrimaryResult().getScore());
+        }
+        if (save != null) {
+            current.save(save);
+            System.out.println("Saved " + current.size() + " scores to " + save);
+        }
+        if (base != null) {
+            final List<String> regressions = current.compare(base, threshold);
+            if (!regressions.isEmpty()) {
+                System.out.println("Performance regressions against " + baseline + ":");
+                for (final String regression : regressions) {
+                    System.out.println("  " + regression);
+                }
+                System.exit(1);
+            }
+            System.out.println("No regressions against " + baseline + " (threshold " + Math.round(threshold * 100) + "%)");
+        }
+    }
+}
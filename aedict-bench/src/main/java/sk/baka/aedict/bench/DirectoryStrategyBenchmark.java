@@ -0,0 +1,100 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.baka.aedict.dict.DictEntry;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.DirectoryStrategy;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.autils.MiscUtils;
+
+/**
+ * Benchmarks the {@link DirectoryStrategy directory strategies} over the EDICT
+ * index: each invocation performs the next query of the sampled query log,
+ * either using a long-lived {@link LuceneSearch} or opening a new one, as the
+ * application does. The search cache is disabled.
+ * 
+ * @author Martin Vysny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DirectoryStrategyBenchmark {
+
+    @Param({"MMap", "NIOFS", "SimpleFS", "RAM"})
+    public DirectoryStrategy strategy;
+    private String index;
+    private LuceneSearch edict;
+    private List<SearchQuery> queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        LuceneSearch.setCache(null);
+        LuceneSearch.setStats(null);
+        index = Fixture.getIndex(DictTypeEnum.Edict);
+        edict = new LuceneSearch(DictTypeEnum.Edict, index, true, strategy);
+        queries = Fixture.getQueryLog(RomanizationEnum.Hepburn);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MiscUtils.closeQuietly(edict);
+    }
+
+    private SearchQuery nextQuery() {
+        final SearchQuery query = queries.get(nextQuery);
+        nextQuery = (nextQuery + 1) % queries.size();
+        return query;
+    }
+
+    @Benchmark
+    public List<DictEntry> search() throws IOException {
+        return edict.search(nextQuery());
+    }
+
+    @Benchmark
+    public List<DictEntry> openAndSearch() throws IOException {
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Edict, index, true, strategy);
+        try {
+            return search.search(nextQuery());
+        } finally {
+            search.close();
+        }
+    }
+}
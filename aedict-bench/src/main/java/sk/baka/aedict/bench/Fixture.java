@@ -0,0 +1,275 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.EdictEntry;
+import sk.baka.aedict.dict.MatcherEnum;
+import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.indexer.FileTypeEnum;
+import sk.baka.aedict.indexer.Main;
+import sk.baka.aedict.kanji.RomanizationEnum;
+
+/**
+ * Provides the benchmark inputs: the indices built out of the test EDICT and
+ * KANJIDIC files, the sampled query log, EDICT lines and KANJIDIC documents.
+ * The dictionary files are taken from the directory denoted by the
+ * {@value #DATA_DIR_PROPERTY} system property, the indexer test resources by
+ * default. The indices are built on first use, into target/bench.
+ * 
+ * @author Martin Vysny
+ */
+public final class Fixture {
+
+    private Fixture() {
+        throw new AssertionError();
+    }
+    /**
+     * The system property specifying the directory with edict.gz and
+     * kanjidic.gz.
+     */
+    public static final String DATA_DIR_PROPERTY = "bench.data";
+    private static final String DEFAULT_DATA_DIR = "../aedict-indexer/src/test/resources";
+    private static final File INDEX_DIR = new File("target/bench");
+
+    private static File getDataFile(final String name) {
+        final File file = new File(System.getProperty(DATA_DIR_PROPERTY, DEFAULT_DATA_DIR), name);
+        if (!file.exists()) {
+            throw new IllegalStateException("The " + file.getAbsolutePath() + " file is missing. Run the benchmarks from the aedict-bench directory or set the " + DATA_DIR_PROPERTY + " system property");
+        }
+        return file;
+    }
+
+    private static FileTypeEnum getFileType(final DictTypeEnum dictType) {
+        switch (dictType) {
+            case Edict:
+                return FileTypeEnum.Edict;
+            case Kanjidic:
+                return FileTypeEnum.Kanjidic;
+            default:
+                throw new IllegalArgumentException("Parameter dictType: invalid value " + dictType + ": not benchmarked");
+        }
+    }
+
+    /**
+     * Returns the index of given dictionary, building it if necessary.
+     *
+     * @param dictType
+     *            {@link DictTypeEnum#Edict} or {@link DictTypeEnum#Kanjidic}.
+     * @return absolute path to the index directory.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static synchronized String getIndex(final DictTypeEnum dictType) throws IOException {
+        final File index = new File(INDEX_DIR, dictType.name().toLowerCase());
+        if (!index.exists()) {
+            final FileTypeEnum fileType = getFileType(dictType);
+            final List<String> args = new ArrayList<String>(Arrays.asList("-u", getDataFile(fileType.name().toLowerCase() + ".gz").toURI().toURL().toString(), "-g"));
+            if (fileType == FileTypeEnum.Kanjidic) {
+                args.add("-k");
+            }
+            try {
+                Main.run(args.toArray(new String[0]));
+            } catch (IOException ex) {
+                throw ex;
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IOException("Failed to index " + fileType, ex);
+            }
+            FileUtils.moveDirectory(new File(Main.LUCENE_INDEX), index);
+            // the zipped index is not needed
+            new File(fileType.getTargetFileName(null)).delete();
+        }
+        return index.getAbsolutePath();
+    }
+
+    /**
+     * Returns the sampled query log. Each line of the log is a query type
+     * followed by a tab and the query itself. Supported types are jp (an
+     * exact japanese search), jp-substring, romaji, en (english word
+     * substring search) and en-exact.
+     *
+     * @param romanization
+     *            the romanization of the romaji queries.
+     * @return the queries, in the log order.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static List<SearchQuery> getQueryLog(final RomanizationEnum romanization) throws IOException {
+        final List<SearchQuery> result = new ArrayList<SearchQuery>();
+        for (final String[] line : readQueryLog()) {
+            final String type = line[0];
+            final String query = line[1];
+            if (type.equals("jp")) {
+                result.add(SearchQuery.searchJpEdict(query, MatcherEnum.Exact));
+            } else if (type.equals("jp-substring")) {
+                result.add(SearchQuery.searchJpEdict(query, MatcherEnum.Substring));
+            } else if (type.equals("romaji")) {
+                result.add(SearchQuery.searchJpRomaji(query, romanization, MatcherEnum.Exact));
+            } else if (type.equals("en")) {
+                result.add(SearchQuery.searchEnEdict(query, false));
+            } else if (type.equals("en-exact")) {
+                result.add(SearchQuery.searchEnEdict(query, true));
+            } else {
+                throw new IllegalStateException("Invalid query type " + type);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the romaji queries of the query log.
+     *
+     * @return the romaji words, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static List<String> getRomajiQueries() throws IOException {
+        final List<String> result = new ArrayList<String>();
+        for (final String[] line : readQueryLog()) {
+            if (line[0].equals("romaji")) {
+                result.add(line[1]);
+            }
+        }
+        return result;
+    }
+
+    private static List<String[]> readQueryLog() throws IOException {
+        final InputStream in = Fixture.class.getResourceAsStream("queries.txt");
+        if (in == null) {
+            throw new IllegalStateException("The query log is missing");
+        }
+        try {
+            final List<String[]> result = new ArrayList<String[]>();
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.trim().length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                final int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IllegalStateException("Invalid query log line: " + line);
+                }
+                result.add(new String[]{line.substring(0, tab), line.substring(tab + 1)});
+            }
+            return result;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns EDICT lines, sampled evenly from the whole file.
+     *
+     * @param count
+     *            the number of lines to return.
+     * @return the lines, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static List<String> getEdictLines(final int count) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(getDataFile("edict.gz"))), FileTypeEnum.Edict.getDefaultEncoding()));
+        final List<String> lines = new ArrayList<String>();
+        try {
+            // skip the header line
+            reader.readLine();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+        return sample(lines, count);
+    }
+
+    /**
+     * Returns parsed EDICT entries, sampled evenly from the whole file.
+     *
+     * @param count
+     *            the number of entries to return.
+     * @return the entries, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static List<EdictEntry> getEdictEntries(final int count) throws IOException {
+        final List<EdictEntry> result = new ArrayList<EdictEntry>(count);
+        for (final String line : getEdictLines(count)) {
+            result.add(DictTypeEnum.parseEdictEntry(line));
+        }
+        return result;
+    }
+
+    /**
+     * Returns stored KANJIDIC documents, sampled evenly from the whole index.
+     *
+     * @param count
+     *            the number of documents to return.
+     * @return the documents, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static List<Document> getKanjidicDocuments(final int count) throws IOException {
+        final Directory directory = FSDirectory.open(new File(getIndex(DictTypeEnum.Kanjidic)));
+        try {
+            final IndexReader reader = IndexReader.open(directory, true);
+            try {
+                final List<Document> docs = new ArrayList<Document>();
+                for (int i = 0; i < reader.maxDoc(); i++) {
+                    if (!reader.isDeleted(i)) {
+                        docs.add(reader.document(i));
+                    }
+                }
+                return sample(docs, count);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            directory.close();
+        }
+    }
+
+    private static <T> List<T> sample(final List<T> list, final int count) {
+        if (list.size() <= count) {
+            return list;
+        }
+        final List<T> result = new ArrayList<T>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(list.get((int) ((long) i * list.size() / count)));
+        }
+        return result;
+    }
+}
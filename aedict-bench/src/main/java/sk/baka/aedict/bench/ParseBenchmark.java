@@ -0,0 +1,85 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.EdictEntry;
+
+/**
+ * Benchmarks the dictionary entry parsing: each invocation parses a thousand
+ * EDICT lines sampled from the whole EDICT file, splits their senses, or
+ * decodes a thousand stored KANJIDIC documents.
+ * 
+ * @author Martin Vysny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    private static final int SAMPLE_SIZE = 1000;
+    private List<String> lines;
+    private List<EdictEntry> entries;
+    private List<Document> kanjidic;
+
+    @Setup
+    public void setUp() throws IOException {
+        lines = Fixture.getEdictLines(SAMPLE_SIZE);
+        entries = Fixture.getEdictEntries(SAMPLE_SIZE);
+        kanjidic = Fixture.getKanjidicDocuments(SAMPLE_SIZE);
+    }
+
+    @Benchmark
+    public void parseEdictEntry(final Blackhole bh) {
+        for (final String line : lines) {
+            bh.consume(DictTypeEnum.parseEdictEntry(line));
+        }
+    }
+
+    @Benchmark
+    public void getSenses(final Blackhole bh) {
+        for (final EdictEntry entry : entries) {
+            bh.consume(entry.getSenses());
+        }
+    }
+
+    @Benchmark
+    public void getKanjidicEntry(final Blackhole bh) {
+        for (final Document doc : kanjidic) {
+            bh.consume(DictTypeEnum.Kanjidic.getEntry(doc, null));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import sk.baka.aedict.dict.EdictEntry;
+import sk.baka.aedict.kanji.RomanizationEnum;
+
+/**
+ * Benchmarks the {@link RomanizationEnum} conversions: each invocation
+ * converts all romaji queries of the query log to kana, or a thousand EDICT
+ * readings to romaji.
+ * 
+ * @author Martin Vysny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RomanizationBenchmark {
+
+    @Param({"Hepburn", "NihonShiki"})
+    public RomanizationEnum romanization;
+    private List<String> romaji;
+    private List<String> kana;
+
+    @Setup
+    public void setUp() throws IOException {
+        romaji = Fixture.getRomajiQueries();
+        kana = new ArrayList<String>();
+        for (final EdictEntry entry : Fixture.getEdictEntries(1000)) {
+            kana.add(entry.reading != null ? entry.reading : entry.kanji);
+        }
+    }
+
+    @Benchmark
+    public void toHiragana(final Blackhole bh) {
+        for (final String s : romaji) {
+            bh.consume(romanization.toHiragana(s));
+        }
+    }
+
+    @Benchmark
+    public void toKatakana(final Blackhole bh) {
+        for (final String s : romaji) {
+            bh.consume(romanization.toKatakana(s));
+        }
+    }
+
+    @Benchmark
+    public void toRomaji(final Blackhole bh) {
+        for (final String s : kana) {
+            bh.consume(romanization.toRomaji(s));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.baka.aedict.dict.DictEntry;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.EdictEntry;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.autils.MiscUtils;
+
+/**
+ * Benchmarks the {@link LuceneSearch}: each invocation performs the next
+ * query of the sampled query log, or a kanji lookup. The search cache is
+ * disabled.
+ * 
+ * @author Martin Vysny
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private LuceneSearch edict;
+    private LuceneSearch kanjidic;
+    private List<SearchQuery> queries;
+    private List<EdictEntry> entries;
+    private int nextQuery = 0;
+    private int nextEntry = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        // measure the index, not the caches
+        LuceneSearch.setCache(null);
+        LuceneSearch.setKanjidic(null);
+        LuceneSearch.setStats(null);
+        edict = new LuceneSearch(DictTypeEnum.Edict, Fixture.getIndex(DictTypeEnum.Edict), true);
+        kanjidic = new LuceneSearch(DictTypeEnum.Kanjidic, Fixture.getIndex(DictTypeEnum.Kanjidic), true);
+        queries = Fixture.getQueryLog(RomanizationEnum.Hepburn);
+        entries = Fixture.getEdictEntries(1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MiscUtils.closeQuietly(edict);
+        MiscUtils.closeQuietly(kanjidic);
+    }
+
+    @Benchmark
+    public List<DictEntry> searchQueryLog() throws IOException {
+        final SearchQuery query = queries.get(nextQuery);
+        nextQuery = (nextQuery + 1) % queries.size();
+        return edict.search(query);
+    }
+
+    @Benchmark
+    public List<LuceneSearch.Hit> searchAllQueryLog() throws IOException {
+        return edict.searchAll(queries);
+    }
+
+    @Benchmark
+    public Map<Character, DictEntry> lookupKanji() throws IOException {
+        final EdictEntry entry = entries.get(nextEntry);
+        nextEntry = (nextEntry + 1) % entries.size();
+        return kanjidic.lookupKanji(entry.getJapanese());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.bench;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link Baseline} class.
+ * 
+ * @author Martin Vysny
+ */
+public class BaselineTest {
+
+    private Baseline baseline;
+
+    @Before
+    public void createBaseline() {
+        baseline = new Baseline();
+        baseline.put("SearchBenchmark.searchQueryLog", Baseline.THROUGHPUT, 1000);
+        baseline.put("RomanizationBenchmark.toRomaji:romanization=Hepburn", Baseline.THROUGHPUT, 200);
+        baseline.put("ParseBenchmark.parseEdictEntry", "avgt", 50);
+    }
+
+    @Test
+    public void testNoRegression() {
+        final Baseline current = new Baseline();
+        current.put("SearchBenchmark.searchQueryLog", Baseline.THROUGHPUT, 950);
+        current.put("RomanizationBenchmark.toRomaji:romanization=Hepburn", Baseline.THROUGHPUT, 400);
+        current.put("ParseBenchmark.parseEdictEntry", "avgt", 54);
+        current.put("SearchBenchmark.lookupKanji", Baseline.THROUGHPUT, 1);
+        assertEquals(Collections.emptyList(), current.compare(baseline, 0.1));
+    }
+
+    @Test
+    public void testRegression() {
+        final Baseline current = new Baseline();
+        current.put("SearchBenchmark.searchQueryLog", Baseline.THROUGHPUT, 800);
+        current.put("RomanizationBenchmark.toRomaji:romanization=Hepburn", Baseline.THROUGHPUT, 199);
+        current.put("ParseBenchmark.parseEdictEntry", "avgt", 60);
+        assertEquals(Arrays.asList("ParseBenchmark.parseEdictEntry: 50.0 -> 60.0 avgt (20%)", "SearchBenchmark.searchQueryLog: 1000.0 -> 800.0 thrpt (-20%)"), current.compare(baseline, 0.1));
+        assertEquals(3, current.compare(baseline, 0).size());
+    }
+
+    @Test
+    public void testDifferentModeIgnored() {
+        final Baseline current = new Baseline();
+        current.put("ParseBenchmark.parseEdictEntry", Baseline.THROUGHPUT, 1);
+        assertTrue(current.compare(baseline, 0.1).isEmpty());
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        final File file = File.createTempFile("baseline", ".properties");
+        try {
+            baseline.save(file);
+            final Baseline loaded = Baseline.load(file);
+            assertEquals(3, loaded.size());
+            assertEquals(baseline.toString(), loaded.toString());
+            assertTrue(loaded.compare(baseline, 0).isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -21,10 +21,12 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.zip.DataFormatException;
 import org.apache.lucene.document.CompressionTools;
 import org.apache.lucene.document.Document;
+import sk.baka.aedict.kanji.VerbInflection.Form;
 import sk.baka.aedict.util.Iso6393Codes;
 import sk.baka.autils.ListBuilder;
 import sk.baka.autils.MiscUtils;
@@ -73,6 +75,12 @@ public enum DictTypeEnum {
                     }
                 }
             }
+            if (query.inflected != null) {
+                // the reverse index of the verb conjugations
+                for (final String i : query.inflected) {
+                    sb.add("inflected:\"W" + i.trim() + "W\"");
+                }
+            }
             // first the common words are returned, then return all the rest
             // fixes http://code.google.com/p/aedict/issues/detail?id=47
             return new String[]{"(" + sb + ") AND common:t", "(" + sb + ") AND common:f"};
@@ -102,6 +110,17 @@ public enum DictTypeEnum {
             return parseEdictEntry(doc.get("contents"));
         }
 
+        @Override
+        protected boolean matchesInflected(final DictEntry entry, final String[] inflected) {
+            final Map<String, Set<Form>> inflections = EdictEntry.fromEntry(entry).getInflections();
+            for (final String i : inflected) {
+                if (inflections.containsKey(i.trim())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @Override
         public boolean matches(final DictEntry entry, boolean isJapanese, String query, MatcherEnum matcher) {
             if (isJapanese) {
@@ -479,15 +498,47 @@ public enum DictTypeEnum {
      */
     public DictEntry tryGetEntry(final Document doc, final SearchQuery query) {
         final DictEntry entry = tryGetEntry(doc, query.langCode);
-        if (!entry.isValid() || MiscUtils.isBlank(query.query)) {
+        if (!entry.isValid() || accepts(entry, query)) {
             return entry;
         }
+        return null;
+    }
+
+    /**
+     * Checks if given entry matches given query.
+     *
+     * @param entry
+     *            the entry, must be {@link DictEntry#isValid() valid}.
+     * @param query
+     *            the query
+     * @return true if the entry matches the query, false otherwise.
+     */
+    final boolean accepts(final DictEntry entry, final SearchQuery query) {
+        if (MiscUtils.isBlank(query.query)) {
+            return true;
+        }
 	for (final String q : query.query) {
 	    if (matchesHandlesAnd(entry, query.isJapanese, q, query.matcher)) {
-		return entry;
+		return true;
 	    }
 	}
-        return null;
+        return query.inflected != null && matchesInflected(entry, query.inflected);
+    }
+
+    /**
+     * Checks if given dictionary entry is a verb which conjugates to one of
+     * given words. See {@link SearchQuery#inflected} for details.
+     *
+     * @param entry
+     *            the entry to match. Never null, always
+     *            {@link DictEntry#isValid() valid}.
+     * @param inflected
+     *            the inflected words, never null.
+     * @return true if the entry matches, false otherwise. The default
+     *         implementation returns false.
+     */
+    protected boolean matchesInflected(final DictEntry entry, final String[] inflected) {
+        return false;
     }
 
     protected final boolean matchesHandlesAnd(final DictEntry entry, final boolean isJapanese, final String query, final MatcherEnum matcher){
@@ -0,0 +1,375 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import sk.baka.autils.MiscUtils;
+
+/**
+ * A compact, read-only trie of dictionary words (EDICT headwords and
+ * readings), stored in a flat binary format which may be memory-mapped. Allows
+ * finding all dictionary words starting at given position of a sentence
+ * in a single walk, and completing a prefix to the most relevant words.
+ * <h4>The format:</h4> 4 byte magic number {@link #MAGIC}; 4 byte int - number
+ * of nodes; the root node. Each node consists of: 1-byte word score (-1 if the
+ * node does not denote a word), 1-byte maximum word score in the subtree
+ * (including the node itself), 2-byte number of children; for each child: 2-byte
+ * UTF-16 character, 4-byte child node offset. The children are ordered by the
+ * character, ascending.
+ * <p/>
+ * Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class DictionaryTrie {
+
+    /**
+     * The magic number, "WTRI" in ASCII.
+     */
+    public static final int MAGIC = 0x57545249;
+    /**
+     * The trie file name, located in the dictionary index directory.
+     */
+    public static final String FILE_NAME = "words.trie";
+    /**
+     * The maximum score of a word.
+     */
+    public static final int MAX_SCORE = Byte.MAX_VALUE;
+    /**
+     * The score of a common word (an EDICT entry marked with (P)).
+     */
+    public static final int SCORE_COMMON = 2;
+    /**
+     * The score of an uncommon word.
+     */
+    public static final int SCORE_UNCOMMON = 1;
+    /**
+     * Offset of the root node.
+     */
+    static final int ROOT = 8;
+    private static final int NODE_HEADER = 4;
+    private static final int CHILD_SIZE = 6;
+    private final ByteBuffer trie;
+
+    /**
+     * Creates the trie.
+     * @param trie the trie data, not modified.
+     * @throws IOException if the data is not a trie.
+     */
+    public DictionaryTrie(final ByteBuffer trie) throws IOException {
+        if (trie.limit() < ROOT + NODE_HEADER || trie.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary trie");
+        }
+        this.trie = trie;
+    }
+
+    /**
+     * Memory-maps a trie from given dictionary directory.
+     * @param dictionaryPath the dictionary index directory, an absolute os-specific path, e.g. /sdcard/aedict/index.
+     * @return the trie or null if the dictionary does not contain the trie file (e.g. it was downloaded by an older Aedict version).
+     * @throws IOException on I/O error.
+     */
+    public static DictionaryTrie open(final String dictionaryPath) throws IOException {
+        final File file = new File(dictionaryPath, FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return new DictionaryTrie(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            MiscUtils.closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Finds a child node of given node.
+     * @param node the node offset
+     * @param c the character
+     * @return the child node offset or -1 if there is no such child.
+     */
+    int child(final int node, final char c) {
+        int low = 0;
+        int high = (trie.getShort(node + 2) & 0xFFFF) - 1;
+        final int children = node + NODE_HEADER;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midChar = trie.getChar(children + mid * CHILD_SIZE);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return trie.getInt(children + mid * CHILD_SIZE + 2);
+            }
+        }
+        return -1;
+    }
+
+    private int score(final int node) {
+        return trie.get(node);
+    }
+
+    private int maxScore(final int node) {
+        return trie.get(node + 1);
+    }
+
+    /**
+     * Finds all dictionary words which start at given position of given text.
+     * @param text the text, not null.
+     * @param start the starting position.
+     * @param lengths receives lengths of matched words, ascending. Must be able to hold at least
+     * <code>text.length() - start</code> items.
+     * @param scores receives scores of matched words. Must be able to hold at least
+     * <code>text.length() - start</code> items.
+     * @return number of matched words.
+     */
+    public int findMatches(final CharSequence text, final int start, final int[] lengths, final int[] scores) {
+        int result = 0;
+        int node = ROOT;
+        for (int i = start; i < text.length(); i++) {
+            node = child(node, text.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            final int score = score(node);
+            if (score >= 0) {
+                lengths[result] = i - start + 1;
+                scores[result] = score;
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the score of given word.
+     * @param word the word, not null.
+     * @return the word score, 0..{@link #MAX_SCORE}, or -1 if the word is not in the trie.
+     */
+    public int getScore(final CharSequence word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node >= 0; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node < 0 ? -1 : score(node);
+    }
+
+    /**
+     * Checks if given word is present in the trie.
+     * @param word the word, not null.
+     * @return true if the word is present, false otherwise.
+     */
+    public boolean contains(final CharSequence word) {
+        return getScore(word) >= 0;
+    }
+
+    /**
+     * Returns the most relevant words starting with given prefix: words with
+     * higher score come first, shorter words come before longer words with the
+     * same score. The trie is walked best-first, guided by the maximum score
+     * stored in each node, thus only a small part of the subtree is visited.
+     * @param prefix the prefix, not null. An empty prefix completes all words.
+     * @param max the maximum number of words to return.
+     * @return the words, never null, may be empty. The prefix itself is
+     * included if it is a word.
+     */
+    public List<String> complete(final String prefix, final int max) {
+        int node = ROOT;
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = child(node, prefix.charAt(i));
+        }
+        return complete(node, prefix, max);
+    }
+
+    /**
+     * Returns the most relevant words starting with given prefix, see
+     * {@link #complete(String, int)} for details.
+     * @param node the node denoting the prefix, -1 if there is no such node.
+     * @param prefix the prefix, not null.
+     * @param max the maximum number of words to return.
+     * @return the words, never null, may be empty.
+     */
+    List<String> complete(final int node, final String prefix, final int max) {
+        final List<String> result = new ArrayList<String>(Math.min(max, 16));
+        if (node < 0 || max <= 0) {
+            return result;
+        }
+        final PriorityQueue<Completion> queue = new PriorityQueue<Completion>();
+        int sequence = 0;
+        queue.add(new Completion(null, '\0', node, maxScore(node), false, sequence++));
+        while (!queue.isEmpty() && result.size() < max) {
+            final Completion c = queue.poll();
+            if (c.isWord) {
+                result.add(c.toWord(prefix));
+                continue;
+            }
+            final int score = score(c.node);
+            if (score >= 0) {
+                queue.add(new Completion(c.parent, c.c, c.node, score, true, sequence++));
+            }
+            final int childCount = trie.getShort(c.node + 2) & 0xFFFF;
+            for (int i = 0; i < childCount; i++) {
+                final int child = c.node + NODE_HEADER + i * CHILD_SIZE;
+                final int childNode = trie.getInt(child + 2);
+                queue.add(new Completion(c, trie.getChar(child), childNode, maxScore(childNode), false, sequence++));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A candidate of the best-first completion: either a node to be expanded
+     * or a word to be reported.
+     */
+    private static final class Completion implements Comparable<Completion> {
+
+        private final Completion parent;
+        private final char c;
+        private final int node;
+        /**
+         * Word score if this is a word, the maximum score of the subtree otherwise.
+         */
+        private final int score;
+        private final boolean isWord;
+        private final int depth;
+        private final int sequence;
+
+        Completion(final Completion parent, final char c, final int node, final int score, final boolean isWord, final int sequence) {
+            this.parent = parent;
+            this.c = c;
+            this.node = node;
+            this.score = score;
+            this.isWord = isWord;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(Completion o) {
+            if (score != o.score) {
+                return o.score - score;
+            }
+            if (depth != o.depth) {
+                return depth - o.depth;
+            }
+            if (isWord != o.isWord) {
+                return isWord ? -1 : 1;
+            }
+            return sequence - o.sequence;
+        }
+
+        String toWord(final String prefix) {
+            final char[] suffix = new char[depth];
+            for (Completion c = this; c.parent != null; c = c.parent) {
+                suffix[c.depth - 1] = c.c;
+            }
+            return prefix + new String(suffix);
+        }
+    }
+
+    /**
+     * Builds the trie.
+     *
+     * @author Martin Vysny
+     */
+    public static final class Builder {
+
+        private static final class Node {
+
+            private final TreeMap<Character, Node> children = new TreeMap<Character, Node>();
+            private int score = -1;
+            private int maxScore = -1;
+            private int offset;
+        }
+        private final Node root = new Node();
+        private int nodes = 1;
+
+        /**
+         * Adds a word to the trie. If the word is already present then the higher score is kept.
+         * @param word the word, not null, not empty.
+         * @param score the score, 0..{@link DictionaryTrie#MAX_SCORE}.
+         */
+        public void add(final String word, final int score) {
+            if (score < 0 || score > MAX_SCORE) {
+                throw new IllegalArgumentException("Parameter score: invalid value " + score + ": must be 0.." + MAX_SCORE);
+            }
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                final Character c = word.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    nodes++;
+                }
+                node.maxScore = Math.max(node.maxScore, score);
+                node = child;
+            }
+            node.score = Math.max(node.score, score);
+            node.maxScore = Math.max(node.maxScore, score);
+        }
+
+        private int computeOffsets(final Node node, final int offset) {
+            node.offset = offset;
+            int next = offset + NODE_HEADER + node.children.size() * CHILD_SIZE;
+            for (final Node child : node.children.values()) {
+                next = computeOffsets(child, next);
+            }
+            return next;
+        }
+
+        private void write(final Node node, final DataOutputStream out) throws IOException {
+            out.writeByte(node.score);
+            out.writeByte(node.maxScore);
+            out.writeShort(node.children.size());
+            for (final Map.Entry<Character, Node> e : node.children.entrySet()) {
+                out.writeChar(e.getKey());
+                out.writeInt(e.getValue().offset);
+            }
+            for (final Node child : node.children.values()) {
+                write(child, out);
+            }
+        }
+
+        /**
+         * Writes the trie.
+         * @param out the stream to write to, not closed.
+         * @throws IOException on I/O error.
+         */
+        public void write(final OutputStream out) throws IOException {
+            computeOffsets(root, ROOT);
+            final DataOutputStream dout = new DataOutputStream(out);
+            dout.writeInt(MAGIC);
+            dout.writeInt(nodes);
+            write(root, dout);
+            dout.flush();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.store.SimpleFSDirectory;
+
+/**
+ * Controls how the {@link LuceneSearch} accesses the index files.
+ * 
+ * @author Martin Vysny
+ */
+public enum DirectoryStrategy {
+
+    /**
+     * Chooses the strategy by the index size and the VM memory, see
+     * {@link #choose(long, long)}.
+     */
+    Auto {
+
+        @Override
+        public Directory open(File dir) throws IOException {
+            return choose(getIndexSize(dir), Runtime.getRuntime().maxMemory()).open(dir);
+        }
+    },
+    /**
+     * The index files are memory-mapped: reads do not copy the data into Java
+     * heap buffers and the OS page cache is used directly. Lucene 3.0 never
+     * unmaps the files: a mapping is released only when its buffer is garbage
+     * collected, therefore each open of the index takes the address space of
+     * the whole index until the next GC.
+     */
+    MMap {
+
+        @Override
+        public Directory open(File dir) throws IOException {
+            return new MMapDirectory(dir);
+        }
+    },
+    /**
+     * The index files are read using positional NIO reads, into heap buffers.
+     */
+    NIOFS {
+
+        @Override
+        public Directory open(File dir) throws IOException {
+            return new NIOFSDirectory(dir);
+        }
+    },
+    /**
+     * The index files are read using {@link java.io.RandomAccessFile}, into
+     * heap buffers.
+     */
+    SimpleFS {
+
+        @Override
+        public Directory open(File dir) throws IOException {
+            return new SimpleFSDirectory(dir);
+        }
+    },
+    /**
+     * The whole index is loaded into the Java heap when opened. Only suitable
+     * for small indexes, e.g. KANJIDIC, searched by a long-lived
+     * {@link LuceneSearch}: the index is copied again on each open. Never
+     * chosen by {@link #Auto}, as the application opens a new
+     * {@link LuceneSearch} for each search.
+     */
+    RAM {
+
+        @Override
+        public Directory open(File dir) throws IOException {
+            final Directory fs = FSDirectory.open(dir);
+            try {
+                return new RAMDirectory(fs);
+            } finally {
+                fs.close();
+            }
+        }
+    };
+    /**
+     * Indexes up to this size may be memory-mapped. Larger indexes could
+     * exhaust the address space of a 32-bit VM.
+     */
+    public static final long MMAP_MAX_INDEX_SIZE = 512L * 1024 * 1024;
+    /**
+     * Indexes are memory-mapped only in a VM with at least this maximum heap
+     * size, see {@link Runtime#maxMemory()}. Android devices give far less
+     * memory to an application, while their address space is 32-bit.
+     */
+    public static final long MMAP_MIN_MAX_MEMORY = 1024L * 1024 * 1024;
+
+    /**
+     * Opens the index directory.
+     *
+     * @param dir
+     *            the index directory, not null.
+     * @return the Lucene directory, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public abstract Directory open(final File dir) throws IOException;
+
+    /**
+     * Chooses the best strategy. The application opens a new
+     * {@link LuceneSearch} for each search and the {@link #MMap memory-mapped}
+     * files are not unmapped on close, therefore the index files are read by
+     * {@link #NIOFS} by default; the OS page cache still keeps reopening the
+     * index cheap. Only a VM with a large heap, typically a 64-bit desktop VM
+     * running the indexer, has enough address space to memory-map an index
+     * which is not too large.
+     *
+     * @param indexSize
+     *            the index size in bytes.
+     * @param maxMemory
+     *            the maximum heap size of the VM in bytes, see
+     *            {@link Runtime#maxMemory()}.
+     * @return the strategy, never {@link #Auto} nor {@link #RAM}.
+     */
+    public static DirectoryStrategy choose(final long indexSize, final long maxMemory) {
+        if (maxMemory >= MMAP_MIN_MAX_MEMORY && indexSize <= MMAP_MAX_INDEX_SIZE) {
+            return MMap;
+        }
+        return NIOFS;
+    }
+
+    /**
+     * Computes the size of all index files.
+     *
+     * @param dir
+     *            the index directory.
+     * @return size in bytes, 0 if the directory does not exist.
+     */
+    public static long getIndexSize(final File dir) {
+        long result = 0;
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (final File f : files) {
+                if (f.isFile()) {
+                    result += f.length();
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -19,10 +19,14 @@ package sk.baka.aedict.dict;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import sk.baka.aedict.kanji.VerbInflection;
+import sk.baka.aedict.kanji.VerbInflection.Form;
 import sk.baka.autils.MiscUtils;
 
 /**
@@ -131,6 +135,26 @@ public final class EdictEntry extends DictEntry {
         return getMarkings().contains("vk");
     }
 
+    /**
+     * Lists all single-word conjugations of this verb, see
+     * {@link VerbInflection#getInflections(String, String, boolean)}.
+     *
+     * @return maps inflected words, both in kana and with the kanji, to the
+     *         forms producing them. Empty if this entry is not a verb or its
+     *         reading does not match its verb class.
+     */
+    public Map<String, Set<Form>> getInflections() {
+        if (!isVerb()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return VerbInflection.getInflections(kanji, reading, isIchidan());
+        } catch (RuntimeException ex) {
+            // e.g. an ichidan verb not ending with -eru/-iru
+            return Collections.emptyMap();
+        }
+    }
+
     /**
      * Returns a list of POS or other markings which this entry is annotated
      * with.
@@ -22,22 +22,39 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Searcher;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
 
+import sk.baka.aedict.dict.SearchStats.Stage;
+import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.aedict.util.IOExceptionWithCause;
 import sk.baka.autils.MiscUtils;
 
@@ -61,6 +78,135 @@ public final class LuceneSearch implements Closeable {
      * if true then the result list is always sorted.
      */
     private final boolean sort;
+    /**
+     * The dictionary location.
+     */
+    private final String path;
+    /**
+     * The index version, see {@link IndexReader#getVersion()}.
+     */
+    private final long version;
+    /**
+     * Caches the search results, null if the results are not cached.
+     */
+    private static volatile SearchCache cache = null;
+
+    /**
+     * Receives the traces of all searches, may be null.
+     */
+    private static volatile SearchStats stats = null;
+
+    /**
+     * Sets the statistics which receive the latency traces of all searches.
+     * @param stats the statistics, null to disable the collection.
+     */
+    public static void setStats(final SearchStats stats) {
+        LuceneSearch.stats = stats;
+    }
+
+    /**
+     * Returns the statistics which receive the latency traces of all searches.
+     * @return the statistics, may be null.
+     */
+    public static SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * The trace of the last Lucene search performed by this object.
+     */
+    private volatile SearchStats.Trace lastTrace = null;
+    /**
+     * If true then the searches are traced even if no
+     * {@link #setStats(SearchStats) statistics} are collected.
+     */
+    private volatile boolean traced = false;
+    /**
+     * True while {@link #warmUp(int, int, List)} is in progress: the warm-up
+     * searches are not recorded in the {@link #setStats(SearchStats)
+     * statistics}.
+     */
+    private volatile boolean warmingUp = false;
+
+    /**
+     * Returns the per-stage timings of the last search performed by this
+     * object. Searches served by the {@link SearchCache} or by the
+     * {@link MemoryKanjidic} are not traced. The searches are traced only if
+     * the {@link #setStats(SearchStats) statistics} are collected or if
+     * {@link #setTraced(boolean) enabled} for this object.
+     * @return the trace, null if no traced search went to the index yet.
+     */
+    public SearchStats.Trace getLastTrace() {
+        return lastTrace;
+    }
+
+    /**
+     * Traces the searches performed by this object, so that
+     * {@link #getLastTrace()} is available even if no statistics are
+     * collected.
+     * @param traced true to trace the searches.
+     */
+    public void setTraced(final boolean traced) {
+        this.traced = traced;
+    }
+
+    /**
+     * Serves the KANJIDIC queries if non-null, instead of the Lucene index.
+     */
+    private final MemoryKanjidic memory;
+    /**
+     * The in-memory KANJIDIC, null if KANJIDIC queries are served by Lucene.
+     */
+    private static volatile MemoryKanjidic kanjidic = null;
+
+    /**
+     * Registers the in-memory KANJIDIC. KANJIDIC searches opened afterwards
+     * for the same dictionary location are served from memory.
+     * @param kanjidic the dictionary, null to use the Lucene index.
+     */
+    public static void setKanjidic(final MemoryKanjidic kanjidic) {
+        LuceneSearch.kanjidic = kanjidic;
+    }
+
+    /**
+     * Returns the in-memory KANJIDIC.
+     * @return the dictionary, null if KANJIDIC queries are served by Lucene.
+     */
+    public static MemoryKanjidic getKanjidic() {
+        return kanjidic;
+    }
+
+    /**
+     * The directory strategy used by {@link #LuceneSearch(DictTypeEnum, String, boolean)}.
+     */
+    private static volatile DirectoryStrategy defaultStrategy = DirectoryStrategy.Auto;
+
+    /**
+     * Sets the directory strategy used when none is specified.
+     * @param strategy the strategy, not null.
+     */
+    public static void setDefaultStrategy(final DirectoryStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Parameter strategy: invalid value " + strategy + ": must not be null");
+        }
+        defaultStrategy = strategy;
+    }
+
+    /**
+     * Sets the cache for the search results.
+     * @param cache the cache, null to disable caching.
+     */
+    public static void setCache(final SearchCache cache) {
+        LuceneSearch.cache = cache;
+    }
+
+    /**
+     * Returns the cache for the search results.
+     * @return the cache, null if the results are not cached.
+     */
+    public static SearchCache getCache() {
+        return cache;
+    }
 
     /**
      * Creates the object and opens the index file.
@@ -75,12 +221,47 @@ public final class LuceneSearch implements Closeable {
      *             on I/O error.
      */
     public LuceneSearch(final DictTypeEnum dictType, final String dictionaryPath, final boolean sort) throws IOException {
+        this(dictType, dictionaryPath, sort, defaultStrategy);
+    }
+
+    /**
+     * Creates the object and opens the index file.
+     *
+     * @param dictType
+     *            the dictionary we will use for the search.
+     * @param dictionaryPath
+     *            overrides default dictionary location if non-null. An absolute
+     *            os-specific path, e.g. /sdcard/aedict/index.
+     * @param sort if true then the result list is always sorted.
+     * @param strategy controls how the index files are accessed, not null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public LuceneSearch(final DictTypeEnum dictType, final String dictionaryPath, final boolean sort, final DirectoryStrategy strategy) throws IOException {
         this.dictType = dictType;
-        directory = FSDirectory.open(new File(dictionaryPath != null ? dictionaryPath : dictType.getDefaultDictionaryPath()));
+        path = dictionaryPath != null ? dictionaryPath : dictType.getDefaultDictionaryPath();
+        this.sort = sort;
+        final MemoryKanjidic k = kanjidic;
+        if (dictType == DictTypeEnum.Kanjidic && k != null && new File(k.getPath()).getAbsolutePath().equals(new File(path).getAbsolutePath())) {
+            // no need to open the index at all
+            memory = k;
+            directory = null;
+            reader = null;
+            searcher = null;
+            parser = null;
+            version = k.getVersion();
+            return;
+        }
+        memory = null;
+        directory = strategy.open(new File(path));
         reader = IndexReader.open(directory, true);
         searcher = new IndexSearcher(reader);
         parser = new QueryParser(LUCENE_VERSION, "contents", new StandardAnalyzer(LUCENE_VERSION));
-        this.sort = sort;
+        version = reader.getVersion();
+        final SearchCache c = cache;
+        if (c != null) {
+            c.setVersion(path, version);
+        }
     }
 
     /**
@@ -116,23 +297,26 @@ public final class LuceneSearch implements Closeable {
         // "maxResults" results and filter out non-exact results - we can filter
         // out all results this way, and the real, exact matches, may remain
         // unretrieved by Lucene. TODO perhaps a better Lucene query might help.
-        final int maxLuceneResults = (query.matcher != MatcherEnum.Substring) && (query.dictType == DictTypeEnum.Edict) && (!query.isJapanese) ? 5000 : maxResults;
+        final int maxLuceneResults = isPostFiltered(query) ? 5000 : maxResults;
         int resultsToFind = maxLuceneResults;
+        final SearchStats.Trace trace = newTrace();
         for (final String q : queries) {
             // gradually walk through the queries and fill the result list.
-            final Query parsedQuery;
-            try {
-                parsedQuery = parser.parse(q);
-            } catch (ParseException e) {
-                // not expected - the SearchQuery object should produce valid
-                // query strings... indicates a bug in Aedict code.
-                throw new RuntimeException(e);
-            }
-            final TopDocs result = searcher.search(parsedQuery, null, resultsToFind);
+            long t = trace.now();
+            final Query parsed = parse(q);
+            t = trace.add(Stage.Parse, t);
+            final TopDocs result = searcher.search(parsed, null, resultsToFind);
+            t = trace.addQuery(t);
             for (final ScoreDoc sd : result.scoreDocs) {
                 final Document doc = searcher.doc(sd.doc);
-                final DictEntry entry = dictType.tryGetEntry(doc, query);
-                if (entry != null) {
+                t = trace.add(Stage.LoadDocument, t);
+                final DictEntry entry = dictType.tryGetEntry(doc, query.langCode);
+                t = trace.add(Stage.Decompress, t);
+                count(trace, doc, entry);
+                final boolean accepted = !entry.isValid() || dictType.accepts(entry, query);
+                t = trace.add(Stage.Match, t);
+                if (accepted) {
+                    accepted(trace);
                     r.add(entry);
                     if (r.size() >= maxResults) {
                         break;
@@ -145,11 +329,72 @@ public final class LuceneSearch implements Closeable {
             }
         }
         if (sort) {
+            final long t = trace.now();
             Collections.sort(r);
+            trace.add(Stage.Sort, t);
         }
+        finish(trace);
         return r;
     }
 
+    private SearchStats.Trace newTrace() {
+        return traced || stats != null ? new SearchStats.Trace() : SearchStats.Trace.NONE;
+    }
+
+    /**
+     * Updates the document counters of given trace.
+     */
+    private static void count(final SearchStats.Trace trace, final Document doc, final DictEntry entry) {
+        if (!trace.isEnabled()) {
+            return;
+        }
+        trace.docsScanned++;
+        for (final Object field : doc.getFields()) {
+            final Fieldable f = (Fieldable) field;
+            if (f.isBinary()) {
+                trace.compressedBytes += f.getBinaryLength();
+            }
+        }
+        if (entry.reading != null) {
+            trace.decompressedChars += entry.reading.length();
+        }
+        if (entry.english != null) {
+            trace.decompressedChars += entry.english.length();
+        }
+    }
+
+    private static void accepted(final SearchStats.Trace trace) {
+        if (trace.isEnabled()) {
+            trace.docsAccepted++;
+        }
+    }
+
+    private void finish(final SearchStats.Trace trace) {
+        if (!trace.isEnabled()) {
+            return;
+        }
+        trace.finish();
+        lastTrace = trace;
+        final SearchStats s = stats;
+        if (s != null && !warmingUp) {
+            s.record(trace);
+        }
+    }
+
+    private Query parse(final String query) {
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            // not expected - the SearchQuery object should produce valid
+            // query strings... indicates a bug in Aedict code.
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isPostFiltered(final SearchQuery query) {
+        return (query.matcher != MatcherEnum.Substring) && (query.dictType == DictTypeEnum.Edict) && (!query.isJapanese);
+    }
+
     /**
      * Performs a search.
      *
@@ -162,8 +407,27 @@ public final class LuceneSearch implements Closeable {
      *             on I/O error.
      */
     public List<DictEntry> search(final SearchQuery query, final int maxResults) throws IOException {
+        if (memory != null) {
+            return memory.search(query, maxResults, sort);
+        }
+        final SearchCache c = cache;
+        if (c != null) {
+            final List<DictEntry> cached = c.get(path, version, query, maxResults, sort);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return searchAndCache(query, maxResults);
+    }
+
+    private List<DictEntry> searchAndCache(final SearchQuery query, final int maxResults) throws IOException {
         try {
-            return searchInternal(query, maxResults);
+            final List<DictEntry> result = searchInternal(query, maxResults);
+            final SearchCache c = cache;
+            if (c != null) {
+                c.put(path, version, query, maxResults, sort, result);
+            }
+            return result;
         } catch (IOException ex) {
             // catch the "read past EOF" IO exception which indicates that the
             // dictionary files are corrupted. See
@@ -174,9 +438,466 @@ public final class LuceneSearch implements Closeable {
             throw ex;
         }
     }
+
+    /**
+     * A search result entry, tagged with the query it matched.
+     */
+    public static final class Hit implements Comparable<Hit> {
+
+        /**
+         * The entry, never null. May be an {@link DictEntry#isValid() error}
+         * entry.
+         */
+        public final DictEntry entry;
+        /**
+         * The first query (in the order passed to {@link LuceneSearch#searchAll(List)}) which
+         * matched the entry, never null.
+         */
+        public final SearchQuery query;
+
+        public Hit(final DictEntry entry, final SearchQuery query) {
+            this.entry = entry;
+            this.query = query;
+        }
+
+        public int compareTo(Hit o) {
+            return entry.compareTo(o.entry);
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+
+        /**
+         * Returns the entries of given hits.
+         *
+         * @param hits
+         *            the hits, not null.
+         * @return a list of entries, in the order of the hits.
+         */
+        public static List<DictEntry> getEntries(final List<Hit> hits) {
+            final List<DictEntry> result = new ArrayList<DictEntry>(hits.size());
+            for (final Hit hit : hits) {
+                result.add(hit.entry);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Performs all given searches at once. Returns a maximum of 100 results per
+     * query.
+     *
+     * @param queries
+     *            the queries to search for, must all target the dictionary of
+     *            this search object.
+     * @return a result list, never null, may be empty. See
+     *         {@link #searchAll(List, int)} for details.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public List<Hit> searchAll(final List<SearchQuery> queries) throws IOException {
+        return searchAll(queries, 100);
+    }
+
+    /**
+     * Performs all given searches at once. The queries are combined into a
+     * single disjunction and the index is traversed only once for all of them
+     * (once per distinct {@link SearchQuery#langCode}, since the language
+     * affects the parsed entries, and separately for the post-filtered
+     * queries, which need to walk many more documents). Each document is
+     * reported at most once, tagged with the first query it matched which has
+     * not yet reached its maximum number of results.
+     *
+     * @param queries
+     *            the queries to search for, must all target the dictionary of
+     *            this search object.
+     * @param maxResults
+     *            the maximum number of results to list, per query. A query
+     *            with many matches thus cannot crowd out the other queries.
+     * @return a result list, never null, may be empty. The list is sorted
+     *         depending on the value of {@link Config#isSorted()}
+     *         configuration option.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public List<Hit> searchAll(final List<SearchQuery> queries, final int maxResults) throws IOException {
+        if (memory != null) {
+            return searchAllInMemory(queries, maxResults);
+        }
+        final SearchCache c = cache;
+        if (c != null) {
+            final List<Hit> cached = c.get(path, version, queries, maxResults, sort);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        try {
+            // queries with a different language produce different entries and
+            // cannot share the traversal. The post-filtered queries walk
+            // thousands of documents; sharing their traversal would let them
+            // crowd out the matches of the other queries.
+            final Map<String, List<SearchQuery>> groups = new LinkedHashMap<String, List<SearchQuery>>();
+            for (final SearchQuery query : queries) {
+                if (query.dictType != dictType) {
+                    throw new IllegalArgumentException("Query " + query + " does not target " + dictType);
+                }
+                query.validate();
+                final String key = query.langCode + (isPostFiltered(query) ? "/postFiltered" : "");
+                List<SearchQuery> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<SearchQuery>();
+                    groups.put(key, group);
+                }
+                group.add(query);
+            }
+            final List<Hit> r = new ArrayList<Hit>();
+            final Set<Integer> reported = new HashSet<Integer>();
+            final SearchStats.Trace trace = newTrace();
+            for (final List<SearchQuery> group : groups.values()) {
+                searchGroup(group, maxResults, r, reported, trace);
+            }
+            if (sort) {
+                final long t = trace.now();
+                Collections.sort(r);
+                trace.add(Stage.Sort, t);
+            }
+            finish(trace);
+            if (c != null) {
+                c.put(path, version, queries, maxResults, sort, r);
+            }
+            return r;
+        } catch (IOException ex) {
+            if ("read past EOF".equals(ex.getMessage())) {
+                throw new IOExceptionWithCause(DICT_FILES_CORRUPTED + ": " + ex.getMessage(), ex);
+            }
+            throw ex;
+        }
+    }
+
+    private List<Hit> searchAllInMemory(final List<SearchQuery> queries, final int maxResults) {
+        final Map<String, Hit> hits = new LinkedHashMap<String, Hit>();
+        for (final SearchQuery query : queries) {
+            int found = 0;
+            for (final DictEntry entry : memory.search(query, maxResults, false)) {
+                if (found < maxResults && !hits.containsKey(entry.kanji)) {
+                    hits.put(entry.kanji, new Hit(entry, query));
+                    found++;
+                }
+            }
+        }
+        final List<Hit> r = new ArrayList<Hit>(hits.values());
+        if (sort) {
+            Collections.sort(r);
+        }
+        return r;
+    }
+
+    private void searchGroup(final List<SearchQuery> group, final int maxResults, final List<Hit> r, final Set<Integer> reported, final SearchStats.Trace trace) throws IOException {
+        // every query yields a list of queries which are walked gradually
+        // (e.g. the common EDICT words first). Combine queries of the same
+        // rank into a single disjunction.
+        final List<BooleanQuery> ranks = new ArrayList<BooleanQuery>();
+        final boolean postFiltered = isPostFiltered(group.get(0));
+        // see searchInternal() for details
+        final int maxLuceneResults = postFiltered ? Math.max(maxResults * group.size(), 5000) : maxResults * group.size();
+        long t = trace.now();
+        for (final SearchQuery query : group) {
+            final String[] queries = dictType.getLuceneQuery(query);
+            for (int i = 0; i < queries.length; i++) {
+                if (ranks.size() <= i) {
+                    ranks.add(new BooleanQuery());
+                }
+                ranks.get(i).add(parse(queries[i]), BooleanClause.Occur.SHOULD);
+            }
+        }
+        t = trace.add(Stage.Parse, t);
+        final String langCode = group.get(0).langCode;
+        final Set<Integer> seen = new HashSet<Integer>();
+        // number of hits of each query
+        final int[] found = new int[group.size()];
+        int foundTotal = 0;
+        int resultsToFind = maxLuceneResults;
+        for (final BooleanQuery q : ranks) {
+            int n = resultsToFind;
+            while (true) {
+                final TopDocs result = searcher.search(q, null, n);
+                t = trace.addQuery(t);
+                for (final ScoreDoc sd : result.scoreDocs) {
+                    if (!seen.add(sd.doc) || reported.contains(sd.doc)) {
+                        continue;
+                    }
+                    final Document doc = searcher.doc(sd.doc);
+                    t = trace.add(Stage.LoadDocument, t);
+                    final DictEntry entry = dictType.tryGetEntry(doc, langCode);
+                    t = trace.add(Stage.Decompress, t);
+                    count(trace, doc, entry);
+                    final int matched = findMatchingQuery(entry, group, found, maxResults);
+                    t = trace.add(Stage.Match, t);
+                    if (matched >= 0) {
+                        accepted(trace);
+                        r.add(new Hit(entry, group.get(matched)));
+                        reported.add(sd.doc);
+                        found[matched]++;
+                        if (++foundTotal >= maxResults * group.size()) {
+                            return;
+                        }
+                    }
+                }
+                // the documents of the other queries may have taken the
+                // places of a query which has not yet reached its maximum;
+                // fetch more documents, up to the post-filtering limit
+                if (postFiltered || result.totalHits <= n || n >= 5000) {
+                    break;
+                }
+                n = Math.min(n * 2, 5000);
+            }
+            resultsToFind = maxLuceneResults - foundTotal;
+            if (resultsToFind <= 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Finds the query which matched given entry.
+     *
+     * @param entry
+     *            the entry, not null.
+     * @param queries
+     *            the queries, not null.
+     * @param found
+     *            the number of hits of each query.
+     * @param maxResults
+     *            the maximum number of hits per query.
+     * @return the index of the first query which accepts the entry and did not
+     *         yet reach the maximum number of hits, -1 if there is no such
+     *         query.
+     */
+    private int findMatchingQuery(final DictEntry entry, final List<SearchQuery> queries, final int[] found, final int maxResults) {
+        for (int i = 0; i < queries.size(); i++) {
+            if (found[i] >= maxResults) {
+                continue;
+            }
+            // report the error with the first query
+            if (!entry.isValid() || dictType.accepts(entry, queries.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up all distinct kanji characters of given text at once. For
+     * KANJIDIC the kanji terms are looked up directly in the term dictionary,
+     * in a single pass; for EDICT a single query matching any of the kanjis is
+     * performed (each kanji is queried separately should the result list get
+     * truncated) and the best entry for each kanji is picked. Non-kanji
+     * characters are ignored.
+     *
+     * @param text
+     *            the text, not null.
+     * @return maps kanji to its dictionary entry. The map iterates in the
+     *         order in which the kanjis first appear in the text. Kanjis not
+     *         found in the dictionary are not present in the map.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public Map<Character, DictEntry> lookupKanji(final CharSequence text) throws IOException {
+        final Set<Character> kanjis = new LinkedHashSet<Character>();
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (KanjiUtils.isKanji(c)) {
+                kanjis.add(c);
+            }
+        }
+        final Map<Character, DictEntry> found;
+        try {
+            if (memory != null) {
+                found = new HashMap<Character, DictEntry>();
+                for (final Character kanji : kanjis) {
+                    final DictEntry entry = memory.get(kanji);
+                    if (entry != null) {
+                        found.put(kanji, entry);
+                    }
+                }
+            } else if (dictType == DictTypeEnum.Kanjidic) {
+                found = lookupKanjidic(kanjis);
+            } else if (dictType == DictTypeEnum.Edict) {
+                found = lookupEdict(kanjis);
+            } else {
+                throw new IllegalStateException("Kanji lookup is not supported by " + dictType);
+            }
+        } catch (IOException ex) {
+            if ("read past EOF".equals(ex.getMessage())) {
+                throw new IOExceptionWithCause(DICT_FILES_CORRUPTED + ": " + ex.getMessage(), ex);
+            }
+            throw ex;
+        }
+        // restore the input order
+        final Map<Character, DictEntry> result = new LinkedHashMap<Character, DictEntry>();
+        for (final Character kanji : kanjis) {
+            final DictEntry e = found.get(kanji);
+            if (e != null) {
+                result.put(kanji, e);
+            }
+        }
+        return result;
+    }
+
+    private Map<Character, DictEntry> lookupKanjidic(final Set<Character> kanjis) throws IOException {
+        // walk the term dictionary in the term order, then load the documents
+        // in the index order
+        final SortedMap<Integer, Character> docs = new TreeMap<Integer, Character>();
+        final TermDocs termDocs = reader.termDocs();
+        try {
+            for (final Character kanji : new TreeSet<Character>(kanjis)) {
+                termDocs.seek(new Term("kanji", kanji.toString()));
+                if (termDocs.next()) {
+                    docs.put(termDocs.doc(), kanji);
+                }
+            }
+        } finally {
+            termDocs.close();
+        }
+        final Map<Character, DictEntry> result = new HashMap<Character, DictEntry>();
+        for (final Map.Entry<Integer, Character> e : docs.entrySet()) {
+            final DictEntry entry = dictType.tryGetEntry(reader.document(e.getKey()), (String) null);
+            if (entry.isValid()) {
+                result.put(e.getValue(), entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The maximum number of EDICT entries expected for a single kanji.
+     */
+    private static final int MAX_EDICT_ENTRIES_PER_KANJI = 10;
+
+    private Map<Character, DictEntry> lookupEdict(final Set<Character> kanjis) throws IOException {
+        final Map<Character, DictEntry> result = new HashMap<Character, DictEntry>();
+        if (kanjis.isEmpty()) {
+            return result;
+        }
+        final int maxResults = kanjis.size() * MAX_EDICT_ENTRIES_PER_KANJI;
+        final List<DictEntry> entries = search(edictQuery(kanjis), maxResults);
+        if (entries.size() < maxResults) {
+            pickBest(entries, kanjis, result);
+            return result;
+        }
+        // the result list was truncated: entries of some kanjis may be
+        // missing, e.g. all entries of a kanji which has only uncommon words.
+        // Look up each kanji separately.
+        for (final Character kanji : kanjis) {
+            final Set<Character> k = Collections.singleton(kanji);
+            pickBest(search(edictQuery(k), MAX_EDICT_ENTRIES_PER_KANJI), k, result);
+        }
+        return result;
+    }
+
+    private static SearchQuery edictQuery(final Set<Character> kanjis) {
+        final SearchQuery query = new SearchQuery(DictTypeEnum.Edict);
+        query.isJapanese = true;
+        query.matcher = MatcherEnum.Exact;
+        query.query = new String[kanjis.size()];
+        int i = 0;
+        for (final Character kanji : kanjis) {
+            query.query[i++] = kanji.toString();
+        }
+        return query;
+    }
+
+    /**
+     * Stores the best entry for each kanji into given map. The entries do not
+     * need to be sorted.
+     */
+    private static void pickBest(final List<DictEntry> entries, final Set<Character> kanjis, final Map<Character, DictEntry> result) {
+        for (final DictEntry entry : entries) {
+            if (!entry.isValid()) {
+                continue;
+            }
+            for (final String jp : new String[]{entry.kanji, entry.reading}) {
+                if (jp != null && jp.length() == 1 && kanjis.contains(jp.charAt(0))) {
+                    final DictEntry best = result.get(jp.charAt(0));
+                    if (best == null || entry.compareTo(best) < 0) {
+                        result.put(jp.charAt(0), entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Warms up the index, so that subsequent searches do not suffer from cold
+     * caches: walks the beginning of the term dictionary, reads the whole
+     * postings of frequent terms (e.g. the "common" EDICT flag which is a part
+     * of every EDICT query), loads a stored document and performs given
+     * queries. The results are not {@link #setCache(SearchCache) cached}.
+     * <p/>
+     * Nothing is retained by this object: only the state which survives
+     * {@link #close()} is warmed up, that is the OS page cache of the index
+     * files and the JIT-compiled search code. Therefore an index loaded
+     * {@link DirectoryStrategy#RAM into memory} is not warmed up at all.
+     *
+     * @param maxTerms
+     *            the maximum number of terms to walk.
+     * @param minDocFreq
+     *            postings of a term are read if it occurs in at least this
+     *            many documents.
+     * @param queries
+     *            the queries to perform, not null, may be empty. They are not
+     *            recorded in the {@link #setStats(SearchStats) statistics}.
+     * @return number of terms walked.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public int warmUp(final int maxTerms, final int minDocFreq, final List<SearchQuery> queries) throws IOException {
+        if (memory != null || directory instanceof RAMDirectory) {
+            // nothing to warm up, the memory copy is dropped on close
+            return 0;
+        }
+        int terms = 0;
+        final TermEnum termEnum = reader.terms();
+        try {
+            final TermDocs termDocs = reader.termDocs();
+            try {
+                while (terms < maxTerms && termEnum.next()) {
+                    terms++;
+                    if (termEnum.docFreq() >= minDocFreq) {
+                        termDocs.seek(termEnum);
+                        while (termDocs.next()) {
+                            // just read the postings
+                        }
+                    }
+                }
+            } finally {
+                termDocs.close();
+            }
+        } finally {
+            termEnum.close();
+        }
+        if (reader.maxDoc() > 0 && !reader.isDeleted(0)) {
+            reader.document(0);
+        }
+        warmingUp = true;
+        try {
+            for (final SearchQuery query : queries) {
+                searchInternal(query, 100);
+            }
+        } finally {
+            warmingUp = false;
+        }
+        return terms;
+    }
+
     public static String DICT_FILES_CORRUPTED = "It seems that the dictionary files became corrupted. Please try to delete them and re-download them. Also please check your sd-card for errors.";
 
     public void close() throws IOException {
+        if (memory != null) {
+            return;
+        }
         searcher.close();
         reader.close();
         directory.close();
@@ -197,8 +918,25 @@ public final class LuceneSearch implements Closeable {
      *             on I/O error.
      */
     public static List<DictEntry> singleSearch(final SearchQuery query, final String dictionaryPath, final boolean sort) throws IOException {
+        final SearchCache c = cache;
+        Long knownVersion = null;
+        if (c != null) {
+            // do not even open the index if the result is known
+            final String path = dictionaryPath != null ? dictionaryPath : query.dictType.getDefaultDictionaryPath();
+            knownVersion = c.getVersion(path);
+            if (knownVersion != null) {
+                final List<DictEntry> cached = c.get(path, knownVersion, query, 100, sort);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
         final LuceneSearch s = new LuceneSearch(query.dictType, dictionaryPath, sort);
         try {
+            if (s.memory == null && knownVersion != null && knownVersion == s.version) {
+                // already looked up in the cache
+                return s.searchAndCache(query, 100);
+            }
             return s.search(query);
         } finally {
             MiscUtils.closeQuietly(s);
@@ -0,0 +1,292 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.zip.DataFormatException;
+
+import org.apache.lucene.document.CompressionTools;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import sk.baka.aedict.util.IOExceptionWithCause;
+
+/**
+ * The whole KANJIDIC dictionary, loaded into memory. The kanji, stroke counts,
+ * SKIP codes and radicals are kept in plain arrays, thus all KANJIDIC queries
+ * (kanji, strokes, SKIP, radical) are served without touching the index; the
+ * compressed readings and English meanings are decompressed when an entry is
+ * requested for the first time. Entries are addressed by a char-indexed array.
+ * <p/>
+ * When {@link LuceneSearch#setKanjidic(MemoryKanjidic) registered}, the
+ * {@link LuceneSearch} routes all KANJIDIC queries to this object. Thread
+ * safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class MemoryKanjidic {
+
+    private final String path;
+    private final long version;
+    /**
+     * The kanji characters, in the index order.
+     */
+    private final char[] kanjis;
+    private final int[] radicals;
+    /**
+     * The stroke counts. The first number denotes a correct number of strokes,
+     * following numbers denote a commonly mismatched number of strokes.
+     */
+    private final int[][] strokes;
+    private final String[] skips;
+    private final Integer[] grades;
+    /**
+     * Compressed readings, name readings and English meanings. Released when
+     * the entry is created.
+     */
+    private final byte[][] readings;
+    private final byte[][] nameReadings;
+    private final byte[][] english;
+    /**
+     * Lazily created entries.
+     */
+    private final KanjidicEntry[] entries;
+    /**
+     * Maps kanji minus {@link #firstKanji} to the index of the entry plus one;
+     * zero if there is no such entry.
+     */
+    private final int[] byKanji;
+    private final char firstKanji;
+
+    private MemoryKanjidic(final String path, final IndexReader reader) throws IOException {
+        this.path = path;
+        version = reader.getVersion();
+        final int count = reader.numDocs();
+        kanjis = new char[count];
+        radicals = new int[count];
+        strokes = new int[count][];
+        skips = new String[count];
+        grades = new Integer[count];
+        readings = new byte[count][];
+        nameReadings = new byte[count][];
+        english = new byte[count][];
+        entries = new KanjidicEntry[count];
+        // the SKIP codes repeat a lot, share them
+        final Map<String, String> sharedSkips = new HashMap<String, String>();
+        char min = Character.MAX_VALUE;
+        char max = 0;
+        int i = 0;
+        for (int doc = 0; doc < reader.maxDoc(); doc++) {
+            if (reader.isDeleted(doc)) {
+                continue;
+            }
+            final Document d = reader.document(doc);
+            final char kanji = d.get("kanji").charAt(0);
+            kanjis[i] = kanji;
+            min = kanji < min ? kanji : min;
+            max = kanji > max ? kanji : max;
+            radicals[i] = Integer.parseInt(d.get("radical"));
+            final StringTokenizer t = new StringTokenizer(d.get("strokes"));
+            strokes[i] = new int[t.countTokens()];
+            for (int j = 0; j < strokes[i].length; j++) {
+                strokes[i][j] = Integer.parseInt(t.nextToken());
+            }
+            final String skip = d.get("skip");
+            skips[i] = sharedSkips.get(skip);
+            if (skips[i] == null) {
+                sharedSkips.put(skip, skip);
+                skips[i] = skip;
+            }
+            grades[i] = d.get("grade") == null ? null : Integer.valueOf(d.get("grade"));
+            readings[i] = d.getBinaryValue("reading");
+            nameReadings[i] = d.getBinaryValue("namereading");
+            english[i] = d.getBinaryValue("english");
+            i++;
+        }
+        firstKanji = count == 0 ? 0 : min;
+        byKanji = new int[count == 0 ? 0 : max - min + 1];
+        for (i = count - 1; i >= 0; i--) {
+            byKanji[kanjis[i] - firstKanji] = i + 1;
+        }
+    }
+
+    /**
+     * Loads the KANJIDIC index into memory.
+     *
+     * @param dictionaryPath
+     *            overrides default dictionary location if non-null. An
+     *            absolute os-specific path, e.g. /sdcard/aedict/index-kanjidic.
+     * @return the in-memory dictionary, never null.
+     * @throws IOException
+     *             on I/O error.
+     */
+    public static MemoryKanjidic load(final String dictionaryPath) throws IOException {
+        final String path = dictionaryPath != null ? dictionaryPath : DictTypeEnum.Kanjidic.getDefaultDictionaryPath();
+        final Directory directory = FSDirectory.open(new File(path));
+        try {
+            final IndexReader reader = IndexReader.open(directory, true);
+            try {
+                return new MemoryKanjidic(path, reader);
+            } finally {
+                reader.close();
+            }
+        } catch (RuntimeException ex) {
+            // e.g. a malformed number
+            throw new IOExceptionWithCause(LuceneSearch.DICT_FILES_CORRUPTED + ": " + ex.getMessage(), ex);
+        } finally {
+            directory.close();
+        }
+    }
+
+    /**
+     * Returns the dictionary location.
+     * @return absolute os-specific path, e.g. /sdcard/aedict/index-kanjidic.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the version of the index this dictionary was loaded from.
+     * @return the index version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries.
+     */
+    public int size() {
+        return kanjis.length;
+    }
+
+    private int indexOf(final char kanji) {
+        final int i = kanji - firstKanji;
+        return i < 0 || i >= byKanji.length ? -1 : byKanji[i] - 1;
+    }
+
+    private synchronized KanjidicEntry get(final int i) {
+        KanjidicEntry result = entries[i];
+        if (result == null) {
+            try {
+                String reading = CompressionTools.decompressString(readings[i]);
+                final String namereading = CompressionTools.decompressString(nameReadings[i]);
+                if (namereading.length() != 0) {
+                    reading = reading + ", [" + namereading + "]";
+                }
+                result = new KanjidicEntry(String.valueOf(kanjis[i]), reading, CompressionTools.decompressString(english[i]), radicals[i], strokes[i][0], skips[i], grades[i]);
+            } catch (DataFormatException ex) {
+                throw new RuntimeException(ex);
+            }
+            entries[i] = result;
+            readings[i] = null;
+            nameReadings[i] = null;
+            english[i] = null;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entry for given kanji.
+     * @param kanji the kanji character.
+     * @return the entry, null if the kanji is not present in KANJIDIC.
+     */
+    public KanjidicEntry get(final char kanji) {
+        final int i = indexOf(kanji);
+        return i < 0 ? null : get(i);
+    }
+
+    private boolean matches(final int i, final SearchQuery q) {
+        if (q.strokeCount != null) {
+            final int plusMinus = q.strokesPlusMinus == null ? 0 : q.strokesPlusMinus;
+            boolean matches = false;
+            for (final int s : strokes[i]) {
+                if (Math.abs(s - q.strokeCount) <= plusMinus) {
+                    matches = true;
+                    break;
+                }
+            }
+            if (!matches) {
+                return false;
+            }
+        }
+        if (q.skip != null && !q.skip.equals(skips[i])) {
+            return false;
+        }
+        if (q.radical != null && q.radical != radicals[i]) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Performs a search, with the same semantics as the Lucene search.
+     *
+     * @param query
+     *            the query to search for.
+     * @param maxResults
+     *            the maximum number of results to list
+     * @param sort
+     *            if true then the result list is sorted.
+     * @return a result list, never null, may be empty.
+     */
+    public List<DictEntry> search(final SearchQuery query, final int maxResults, final boolean sort) {
+        query.validate();
+        if (query.strokeCount != null) {
+            final int plusMinus = query.strokesPlusMinus == null ? 0 : query.strokesPlusMinus;
+            if ((plusMinus > 3) || (plusMinus < 0)) {
+                throw new IllegalStateException("Invalid value: " + query.strokesPlusMinus);
+            }
+        }
+        final List<DictEntry> result = new ArrayList<DictEntry>();
+        if (query.query != null) {
+            if (query.query.length != 1) {
+                throw new IllegalStateException("Kanjidic search requires a single kanji character search");
+            }
+            final String kanji = query.query[0].trim();
+            final int i = kanji.length() == 1 ? indexOf(kanji.charAt(0)) : -1;
+            if (i >= 0 && maxResults > 0 && matches(i, query)) {
+                final KanjidicEntry entry = get(i);
+                if (DictTypeEnum.Kanjidic.accepts(entry, query)) {
+                    result.add(entry);
+                }
+            }
+        } else {
+            for (int i = 0; i < kanjis.length && result.size() < maxResults; i++) {
+                if (matches(i, query)) {
+                    result.add(get(i));
+                }
+            }
+        }
+        if (sort) {
+            Collections.sort(result);
+        }
+        return result;
+    }
+}
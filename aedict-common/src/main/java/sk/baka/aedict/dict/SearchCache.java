@@ -0,0 +1,295 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches search results of the {@link LuceneSearch}. The results are keyed by
+ * the dictionary location, the index version, the normalized (trimmed) query,
+ * the maximum result count and the sorting flag. The least recently used
+ * results are evicted when the approximate memory occupied by the cached
+ * entries exceeds given limit.
+ * <p/>
+ * The cache must be {@link #invalidate(String) invalidated} when a dictionary
+ * is installed, updated or deleted: a stale result would otherwise be returned
+ * without opening the index. Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class SearchCache {
+
+    /**
+     * Approximate memory occupied by a cached entry, excluding the strings.
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+    private final long maxBytes;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    /**
+     * The cached results, in the access order.
+     */
+    private final LinkedHashMap<Key, Value> cache = new LinkedHashMap<Key, Value>(16, 0.75f, true);
+    /**
+     * Maps dictionary location to the last known index version.
+     */
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    /**
+     * Creates the cache.
+     * @param maxBytes the maximum approximate size of cached results, in bytes.
+     */
+    public SearchCache(final long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Parameter maxBytes: invalid value " + maxBytes + ": must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    private static final class Key {
+
+        private final String path;
+        private final long version;
+        /**
+         * A normalized {@link SearchQuery} or a list of normalized queries.
+         */
+        private final Object query;
+        private final int maxResults;
+        private final boolean sort;
+
+        Key(final String path, final long version, final Object query, final int maxResults, final boolean sort) {
+            this.path = path;
+            this.version = version;
+            this.query = query;
+            this.maxResults = maxResults;
+            this.sort = sort;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (int) (version ^ (version >>> 32));
+            result = 31 * result + query.hashCode();
+            result = 31 * result + maxResults;
+            return 31 * result + (sort ? 1231 : 1237);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return path.equals(other.path) && version == other.version && query.equals(other.query) && maxResults == other.maxResults && sort == other.sort;
+        }
+    }
+
+    private static final class Value {
+
+        private final List<?> result;
+        private final long bytes;
+
+        Value(final List<?> result, final long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    private static String normalizePath(final String path) {
+        return new File(path).getAbsolutePath();
+    }
+
+    /**
+     * Returns a normalized copy of given query, suitable as a cache key.
+     * @param query a {@link SearchQuery} or a list of queries.
+     * @return a normalized copy.
+     */
+    private static Object normalize(final Object query) {
+        if (query instanceof SearchQuery) {
+            return new SearchQuery((SearchQuery) query).trim();
+        }
+        final List<Object> result = new ArrayList<Object>();
+        for (final Object q : (List<?>) query) {
+            result.add(normalize(q));
+        }
+        return result;
+    }
+
+    private static long estimateSize(final List<?> result) {
+        long size = ENTRY_OVERHEAD;
+        for (final Object o : result) {
+            final DictEntry e = o instanceof LuceneSearch.Hit ? ((LuceneSearch.Hit) o).entry : (DictEntry) o;
+            size += ENTRY_OVERHEAD + 2 * (length(e.kanji) + length(e.reading) + length(e.english));
+        }
+        return size;
+    }
+
+    private static int length(final String str) {
+        return str == null ? 0 : str.length();
+    }
+
+    /**
+     * Returns cached result.
+     * @param path the dictionary location.
+     * @param version the index version.
+     * @param query a {@link SearchQuery} or a list of queries.
+     * @param maxResults the maximum number of results.
+     * @param sort if the result is sorted.
+     * @return a modifiable copy of the cached result, null if the result is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> List<T> get(final String path, final long version, final Object query, final int maxResults, final boolean sort) {
+        final Value v = cache.get(new Key(normalizePath(path), version, normalize(query), maxResults, sort));
+        if (v == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<T>((List<T>) v.result);
+    }
+
+    /**
+     * Caches a search result.
+     * @param path the dictionary location.
+     * @param version the index version.
+     * @param query a {@link SearchQuery} or a list of queries.
+     * @param maxResults the maximum number of results.
+     * @param sort if the result is sorted.
+     * @param result the result to cache, copied.
+     */
+    synchronized void put(final String path, final long version, final Object query, final int maxResults, final boolean sort, final List<?> result) {
+        final long size = estimateSize(result);
+        if (size > maxBytes) {
+            return;
+        }
+        final Value old = cache.put(new Key(normalizePath(path), version, normalize(query), maxResults, sort), new Value(Collections.unmodifiableList(new ArrayList<Object>(result)), size));
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        bytes += size;
+        for (final Iterator<Value> i = cache.values().iterator(); bytes > maxBytes && i.hasNext();) {
+            bytes -= i.next().bytes;
+            i.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Returns the last known version of an index.
+     * @param path the dictionary location.
+     * @return the index version, null if the index was not yet opened or it was invalidated.
+     */
+    synchronized Long getVersion(final String path) {
+        return versions.get(normalizePath(path));
+    }
+
+    /**
+     * Records the version of an opened index. Results cached for other
+     * versions are dropped.
+     * @param path the dictionary location.
+     * @param version the index version.
+     */
+    synchronized void setVersion(final String path, final long version) {
+        final String p = normalizePath(path);
+        final Long old = versions.put(p, version);
+        if (old != null && old != version) {
+            remove(p);
+        }
+    }
+
+    private void remove(final String path) {
+        for (final Iterator<Map.Entry<Key, Value>> i = cache.entrySet().iterator(); i.hasNext();) {
+            final Map.Entry<Key, Value> e = i.next();
+            if (e.getKey().path.equals(path)) {
+                bytes -= e.getValue().bytes;
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all results of given dictionary. Invoke when the dictionary is
+     * installed, updated or deleted.
+     * @param path the dictionary location, an absolute os-specific path, e.g. /sdcard/aedict/index.
+     */
+    public synchronized void invalidate(final String path) {
+        final String p = normalizePath(path);
+        versions.remove(p);
+        remove(p);
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public synchronized void invalidateAll() {
+        versions.clear();
+        cache.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the ratio of successful lookups.
+     * @return the hit ratio, 0..1; 0 if there was no lookup yet.
+     */
+    public synchronized float getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (float) hits / lookups;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the approximate size of the cached results.
+     * @return size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of cached results.
+     * @return the number of cached results.
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SearchCache[" + cache.size() + " results, " + bytes / 1024 + "/" + maxBytes / 1024 + "kb, hit ratio " + Math.round(getHitRatio() * 100) + "%, " + evictions + " evictions]";
+    }
+}
@@ -18,6 +18,7 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package sk.baka.aedict.dict;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.aedict.kanji.RomanizationEnum;
@@ -50,6 +51,12 @@ public final class SearchQuery implements Serializable {
      * A matcher to use when matching query strings to a line.
      */
     public MatcherEnum matcher;
+    /**
+     * Optional, Japanese EDICT search only: inflected words, e.g. 食べない. Verbs
+     * having one of these words among their conjugations are matched as
+     * well, regardless of the {@link #matcher}. May be null.
+     */
+    public String[] inflected;
     /**
      * If non-null, defines the stroke count.
      */
@@ -91,12 +98,55 @@ public final class SearchQuery implements Serializable {
      */
     public SearchQuery(SearchQuery other) {
         this(other.dictType);
-        query = other.query.clone();
+        query = other.query == null ? null : other.query.clone();
         isJapanese = other.isJapanese;
+        langCode = other.langCode;
         matcher = other.matcher;
+        inflected = other.inflected == null ? null : other.inflected.clone();
         strokeCount = other.strokeCount;
         skip = other.skip;
         radical = other.radical;
+        strokesPlusMinus = other.strokesPlusMinus;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Arrays.hashCode(query);
+        result = prime * result + (isJapanese ? 1231 : 1237);
+        result = prime * result + ((langCode == null) ? 0 : langCode.hashCode());
+        result = prime * result + ((matcher == null) ? 0 : matcher.hashCode());
+        result = prime * result + Arrays.hashCode(inflected);
+        result = prime * result + ((strokeCount == null) ? 0 : strokeCount.hashCode());
+        result = prime * result + ((skip == null) ? 0 : skip.hashCode());
+        result = prime * result + ((radical == null) ? 0 : radical.hashCode());
+        result = prime * result + ((strokesPlusMinus == null) ? 0 : strokesPlusMinus.hashCode());
+        result = prime * result + ((dictType == null) ? 0 : dictType.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final SearchQuery other = (SearchQuery) obj;
+        return Arrays.equals(query, other.query) && isJapanese == other.isJapanese && eq(langCode, other.langCode) && matcher == other.matcher
+                && Arrays.equals(inflected, other.inflected) && eq(strokeCount, other.strokeCount) && eq(skip, other.skip) && eq(radical, other.radical)
+                && eq(strokesPlusMinus, other.strokesPlusMinus) && dictType == other.dictType;
+    }
+
+    private static boolean eq(final Object o1, final Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchQuery[" + dictType + ": " + prettyPrintQuery() + (isJapanese ? ", jp" : "") + (langCode != null ? ", " + langCode : "") + (matcher != null ? ", " + matcher : "") + "]";
     }
 
     /**
@@ -278,6 +328,9 @@ public final class SearchQuery implements Serializable {
                 if (!isJapanese && matcher != MatcherEnum.Exact && matcher != MatcherEnum.Substring) {
                     throw new IllegalStateException("Edict eng search: invalid matcher type " + matcher);
                 }
+                if (!isJapanese && inflected != null) {
+                    throw new IllegalStateException("Edict eng search: inflected words are not supported");
+                }
             }
             break;
             case Tanaka: {
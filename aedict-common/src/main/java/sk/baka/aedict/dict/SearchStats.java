@@ -0,0 +1,406 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the per-stage latency of {@link LuceneSearch} searches. Every
+ * search produces a {@link Trace} with the time spent in each {@link Stage}
+ * and a couple of counters; the traces are aggregated into totals and
+ * per-stage latency histograms, which may be dumped e.g. to the log.
+ * <p/>
+ * The histogram buckets are powers of two of nanoseconds: a duration of
+ * <code>d</code> ns falls into the bucket <code>b</code> where
+ * 2<sup>b-1</sup> &lt;= d &lt; 2<sup>b</sup>. Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class SearchStats {
+
+    /**
+     * The stages of the search pipeline.
+     */
+    public static enum Stage {
+
+        /**
+         * Parsing of the Lucene query strings.
+         */
+        Parse,
+        /**
+         * The Lucene search itself, all sub-queries together. See
+         * {@link Trace#getQueryNanos()} for the individual sub-queries.
+         */
+        Query,
+        /**
+         * Loading of the stored documents.
+         */
+        LoadDocument,
+        /**
+         * Decompression of the document fields and creation of the
+         * {@link DictEntry}.
+         */
+        Decompress,
+        /**
+         * Matching of the entry against the query, see
+         * {@link DictTypeEnum#accepts(DictEntry, SearchQuery)}.
+         */
+        Match,
+        /**
+         * Sorting of the result list.
+         */
+        Sort;
+    }
+
+    /**
+     * Number of histogram buckets: covers everything up to 2<sup>63</sup>
+     * ns.
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Timings and counters of a single search. Not thread safe: a trace is
+     * filled by a single search.
+     */
+    public static final class Trace {
+
+        /**
+         * A trace which records nothing and does not even read the clock.
+         * Used when nobody is interested in the trace. Never finished.
+         */
+        public static final Trace NONE = new Trace(false);
+        private final boolean enabled;
+        private final long[] nanos = new long[Stage.values().length];
+        private final List<Long> queryNanos = new ArrayList<Long>();
+        private final long start;
+        private long totalNanos = -1;
+        /**
+         * Number of documents returned by Lucene and examined.
+         */
+        public int docsScanned = 0;
+        /**
+         * Number of documents accepted into the result list.
+         */
+        public int docsAccepted = 0;
+        /**
+         * Number of compressed bytes read from the stored fields.
+         */
+        public long compressedBytes = 0;
+        /**
+         * Number of characters produced by decompression.
+         */
+        public long decompressedChars = 0;
+
+        /**
+         * Creates a trace of a search which starts now.
+         */
+        public Trace() {
+            this(true);
+        }
+
+        private Trace(final boolean enabled) {
+            this.enabled = enabled;
+            start = enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Checks if this trace records anything.
+         *
+         * @return false for {@link #NONE}, true otherwise.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Returns the start of a stage.
+         *
+         * @return current {@link System#nanoTime()}, 0 if this trace is not
+         *         {@link #isEnabled() enabled}.
+         */
+        public long now() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Adds time spent in given stage.
+         *
+         * @param stage
+         *            the stage, not null.
+         * @param since
+         *            the {@link System#nanoTime()} when the stage began.
+         * @return current {@link System#nanoTime()}, to be used as a start
+         *         of the next stage.
+         */
+        public long add(final Stage stage, final long since) {
+            if (!enabled) {
+                return since;
+            }
+            final long now = System.nanoTime();
+            nanos[stage.ordinal()] += now - since;
+            return now;
+        }
+
+        /**
+         * Records the duration of a single Lucene sub-query and adds it to
+         * the {@link Stage#Query} stage.
+         *
+         * @param since
+         *            the {@link System#nanoTime()} when the query began.
+         * @return current {@link System#nanoTime()}.
+         */
+        public long addQuery(final long since) {
+            if (!enabled) {
+                return since;
+            }
+            final long now = add(Stage.Query, since);
+            queryNanos.add(now - since);
+            return now;
+        }
+
+        /**
+         * Marks the search as finished.
+         */
+        void finish() {
+            if (!enabled) {
+                throw new IllegalStateException("The NONE trace cannot be finished");
+            }
+            totalNanos = System.nanoTime() - start;
+        }
+
+        /**
+         * Returns time spent in given stage.
+         *
+         * @param stage
+         *            the stage, not null.
+         * @return nanoseconds.
+         */
+        public long getNanos(final Stage stage) {
+            return nanos[stage.ordinal()];
+        }
+
+        /**
+         * Returns durations of individual Lucene sub-queries, in the order of
+         * execution.
+         *
+         * @return nanoseconds, never null.
+         */
+        public List<Long> getQueryNanos() {
+            return queryNanos;
+        }
+
+        /**
+         * Returns the total duration of the search.
+         *
+         * @return nanoseconds, -1 if the search is not yet finished.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Trace[total ").append(format(totalNanos));
+            for (final Stage stage : Stage.values()) {
+                sb.append(", ").append(stage).append(' ').append(format(getNanos(stage)));
+                if (stage == Stage.Query && queryNanos.size() > 1) {
+                    sb.append(' ').append(formatAll(queryNanos));
+                }
+            }
+            sb.append(", scanned ").append(docsScanned).append(", accepted ").append(docsAccepted);
+            sb.append(", ").append(compressedBytes).append(" bytes decompressed to ").append(decompressedChars).append(" chars]");
+            return sb.toString();
+        }
+    }
+
+    private long searches = 0;
+    private final long[] nanos = new long[Stage.values().length];
+    private long totalNanos = 0;
+    private long docsScanned = 0;
+    private long docsAccepted = 0;
+    private long compressedBytes = 0;
+    private long decompressedChars = 0;
+    /**
+     * Histograms, indexed by {@link Stage#ordinal()}. The last histogram
+     * holds the total search durations.
+     */
+    private final long[][] histograms = new long[Stage.values().length + 1][BUCKETS];
+
+    /**
+     * Adds a finished search to the statistics.
+     *
+     * @param trace
+     *            the trace, not null.
+     */
+    public synchronized void record(final Trace trace) {
+        if (trace.totalNanos < 0) {
+            throw new IllegalArgumentException("Parameter trace: the search is not finished");
+        }
+        searches++;
+        for (final Stage stage : Stage.values()) {
+            final long n = trace.getNanos(stage);
+            nanos[stage.ordinal()] += n;
+            histograms[stage.ordinal()][getBucket(n)]++;
+        }
+        totalNanos += trace.totalNanos;
+        histograms[Stage.values().length][getBucket(trace.totalNanos)]++;
+        docsScanned += trace.docsScanned;
+        docsAccepted += trace.docsAccepted;
+        compressedBytes += trace.compressedBytes;
+        decompressedChars += trace.decompressedChars;
+    }
+
+    /**
+     * Returns the histogram bucket for given duration.
+     *
+     * @param nanos
+     *            the duration.
+     * @return the bucket index, 0 for durations of 0 or less.
+     */
+    static int getBucket(final long nanos) {
+        return nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Returns number of recorded searches.
+     *
+     * @return number of searches.
+     */
+    public synchronized long getSearches() {
+        return searches;
+    }
+
+    /**
+     * Returns total time spent in given stage, over all recorded searches.
+     *
+     * @param stage
+     *            the stage, not null.
+     * @return nanoseconds.
+     */
+    public synchronized long getNanos(final Stage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    /**
+     * Returns a copy of the latency histogram of given stage.
+     *
+     * @param stage
+     *            the stage, null for the total search duration.
+     * @return number of searches per bucket, see the class javadoc for
+     *         details.
+     */
+    public synchronized long[] getHistogram(final Stage stage) {
+        return histograms[stage == null ? Stage.values().length : stage.ordinal()].clone();
+    }
+
+    /**
+     * Forgets all recorded searches.
+     */
+    public synchronized void clear() {
+        searches = 0;
+        totalNanos = 0;
+        docsScanned = 0;
+        docsAccepted = 0;
+        compressedBytes = 0;
+        decompressedChars = 0;
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = 0;
+        }
+        for (final long[] histogram : histograms) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a one-line summary: the number of searches, average time per
+     * stage and the counters.
+     *
+     * @return the summary, never null.
+     */
+    public synchronized String getSummary() {
+        final StringBuilder sb = new StringBuilder("SearchStats[").append(searches).append(" searches");
+        if (searches > 0) {
+            sb.append(", avg ").append(format(totalNanos / searches));
+            for (final Stage stage : Stage.values()) {
+                sb.append(", ").append(stage).append(' ').append(format(nanos[stage.ordinal()] / searches));
+            }
+        }
+        sb.append(", scanned ").append(docsScanned).append(", accepted ").append(docsAccepted);
+        sb.append(", ").append(compressedBytes).append(" bytes decompressed to ").append(decompressedChars).append(" chars]");
+        return sb.toString();
+    }
+
+    /**
+     * Dumps the non-empty buckets of all histograms, one line per stage, e.g.
+     * <code>Parse: &lt;16us 3, &lt;33us 1</code>.
+     *
+     * @return the histogram dump, never null.
+     */
+    public synchronized String getHistogramDump() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < histograms.length; i++) {
+            sb.append(i < Stage.values().length ? Stage.values()[i].toString() : "Total").append(':');
+            boolean first = true;
+            for (int b = 0; b < BUCKETS; b++) {
+                if (histograms[i][b] == 0) {
+                    continue;
+                }
+                sb.append(first ? " " : ", ").append('<').append(format(b == BUCKETS - 1 ? Long.MAX_VALUE : 1L << b)).append(' ').append(histograms[i][b]);
+                first = false;
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+
+    /**
+     * Formats given duration.
+     *
+     * @param nanos
+     *            the duration in nanoseconds.
+     * @return e.g. "150ns", "12us" or "3ms".
+     */
+    static String format(final long nanos) {
+        if (nanos < 10000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10000000) {
+            return nanos / 1000 + "us";
+        }
+        return nanos / 1000000 + "ms";
+    }
+
+    private static String formatAll(final List<Long> nanos) {
+        final StringBuilder sb = new StringBuilder("(");
+        for (final Long n : nanos) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(format(n));
+        }
+        return sb.append(')').toString();
+    }
+}
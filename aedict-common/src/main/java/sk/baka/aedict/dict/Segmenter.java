@@ -0,0 +1,139 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a japanese sentence into dictionary words. Builds a lattice of all
+ * dictionary words found in the sentence (using the {@link DictionaryTrie})
+ * and picks the cheapest path through the lattice, in one pass. The cost of a
+ * word is based on its commonality and its length: each word has a base
+ * cost, therefore a segmentation with fewer words is preferred; uncommon
+ * words cost more than common ones and each character beyond the first one
+ * makes the word cheaper, so longer matches win. Characters not covered by
+ * any dictionary word cost the most.
+ * <p/>
+ * The cost is linear in the sentence length (the trie walk is bounded by the
+ * longest dictionary word). Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class Segmenter {
+
+    private static final int WORD_COST = 10;
+    private static final int UNCOMMON_WORD_PENALTY = 3;
+    /**
+     * Cost reduction for each character of a word beyond the first one.
+     */
+    private static final int LENGTH_BONUS = 2;
+    private static final int UNKNOWN_CHARACTER_COST = 3 * WORD_COST;
+    private final DictionaryTrie trie;
+
+    /**
+     * Creates the segmenter.
+     * @param trie the dictionary words, not null.
+     */
+    public Segmenter(final DictionaryTrie trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * A segment of a sentence.
+     */
+    public static final class Segment {
+
+        /**
+         * The segment text, not null, not empty.
+         */
+        public final String text;
+        /**
+         * The segment starting position in the sentence.
+         */
+        public final int start;
+        /**
+         * If true then the segment is a dictionary word. If false then the
+         * segment is a single character which is not a part of any
+         * dictionary word.
+         */
+        public final boolean isWord;
+
+        public Segment(final String text, final int start, final boolean isWord) {
+            this.text = text;
+            this.start = start;
+            this.isWord = isWord;
+        }
+
+        @Override
+        public String toString() {
+            return isWord ? text : "?" + text;
+        }
+    }
+
+    private static int cost(final int score, final int length) {
+        final int cost = score >= DictionaryTrie.SCORE_COMMON ? WORD_COST : WORD_COST + UNCOMMON_WORD_PENALTY;
+        // a word always costs something, otherwise splitting would be free
+        return Math.max(1, cost - LENGTH_BONUS * (length - 1));
+    }
+
+    /**
+     * Splits given sentence into words.
+     * @param sentence the sentence, not null. Must not contain romaji.
+     * @return a list of segments covering the whole sentence, in the sentence order. Never null, empty for an empty sentence.
+     */
+    public List<Segment> segment(final String sentence) {
+        final int n = sentence.length();
+        if (n == 0) {
+            return new ArrayList<Segment>();
+        }
+        // cost[i] is the cost of the cheapest segmentation of the first i characters
+        final int[] cost = new int[n + 1];
+        // the starting position of the last segment of the cheapest segmentation
+        final int[] from = new int[n + 1];
+        final boolean[] isWord = new boolean[n + 1];
+        for (int i = 1; i <= n; i++) {
+            cost[i] = Integer.MAX_VALUE;
+        }
+        final int[] lengths = new int[n];
+        final int[] scores = new int[n];
+        for (int i = 0; i < n; i++) {
+            // a character not covered by a word
+            relax(cost, from, isWord, i, i + 1, cost[i] + UNKNOWN_CHARACTER_COST, false);
+            final int matches = trie.findMatches(sentence, i, lengths, scores);
+            for (int j = 0; j < matches; j++) {
+                relax(cost, from, isWord, i, i + lengths[j], cost[i] + cost(scores[j], lengths[j]), true);
+            }
+        }
+        final List<Segment> result = new ArrayList<Segment>();
+        for (int end = n; end > 0; end = from[end]) {
+            result.add(new Segment(sentence.substring(from[end], end), from[end], isWord[end]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static void relax(final int[] cost, final int[] from, final boolean[] isWord, final int start, final int end, final int newCost, final boolean word) {
+        if (newCost < cost[end]) {
+            cost[end] = newCost;
+            from[end] = start;
+            isWord[end] = word;
+        }
+    }
+}
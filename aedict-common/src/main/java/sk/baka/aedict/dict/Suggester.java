@@ -0,0 +1,212 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import sk.baka.aedict.kanji.RomanizationEnum;
+import sk.baka.autils.MiscUtils;
+
+/**
+ * Suggests dictionary words while the user types a search query. Completes the
+ * query using the {@link DictionaryTrie} of EDICT headwords and readings; a
+ * romaji query is converted to hiragana and katakana first (a romaji syllable
+ * being typed is ignored until it is complete). Only Japanese queries are
+ * completed, see {@link #isJapanese(String, RomanizationEnum)}.
+ * <p/>
+ * The trie nodes of the previous query are remembered: when the user types
+ * (or deletes) a character only the changed part of the query is walked.
+ * Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class Suggester {
+
+    /**
+     * The maximum length of a romaji syllable being typed, e.g. "sh" of
+     * "sha", or "tch" of "tcha".
+     */
+    private static final int MAX_UNFINISHED_SYLLABLE = 3;
+
+    private final DictionaryTrie trie;
+    /**
+     * Remembered walks for the query as typed, converted to hiragana and
+     * converted to katakana.
+     */
+    private final Walk[] walks = new Walk[]{new Walk(), new Walk(), new Walk()};
+    private String lastQuery = null;
+    private RomanizationEnum lastRomanization = null;
+    private int lastMax = -1;
+    private List<String> lastResult = null;
+
+    /**
+     * Creates the suggester.
+     * @param trie the dictionary words, not null.
+     */
+    public Suggester(final DictionaryTrie trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * Returns the most relevant dictionary words starting with given query.
+     * @param query the query as typed by the user, not null.
+     * @param max the maximum number of suggestions.
+     * @param romanization used to convert romaji to kana, not null.
+     * @return the suggested words, common words first, never null, may be
+     *         empty. Always empty if the query is not
+     *         {@link #isJapanese(String, RomanizationEnum) Japanese}.
+     */
+    public synchronized List<String> suggest(final String query, final int max, final RomanizationEnum romanization) {
+        final String q = query.trim();
+        if (q.equals(lastQuery) && max == lastMax && romanization == lastRomanization) {
+            return new ArrayList<String>(lastResult);
+        }
+        if (!isJapanese(q, romanization)) {
+            return new ArrayList<String>();
+        }
+        final String[] prefixes = new String[3];
+        prefixes[0] = q;
+        if (hasAsciiLetter(q)) {
+            prefixes[1] = toKanaPrefix(q, romanization.toHiragana(q));
+            prefixes[2] = toKanaPrefix(q, romanization.toKatakana(q));
+        }
+        final Set<String> words = new LinkedHashSet<String>();
+        for (int i = 0; i < prefixes.length; i++) {
+            if (!MiscUtils.isBlank(prefixes[i])) {
+                words.addAll(trie.complete(walks[i].walk(prefixes[i]), prefixes[i], max));
+            }
+        }
+        final List<String> result = new ArrayList<String>(words);
+        if (prefixes[1] != null) {
+            // merge the suggestions of all prefixes. The sort is stable so
+            // that the order of words with the same score is retained.
+            Collections.sort(result, new Comparator<String>() {
+
+                public int compare(String o1, String o2) {
+                    final int result = trie.getScore(o2) - trie.getScore(o1);
+                    return result != 0 ? result : o1.length() - o2.length();
+                }
+            });
+        }
+        if (result.size() > max) {
+            result.subList(max, result.size()).clear();
+        }
+        lastQuery = q;
+        lastMax = max;
+        lastRomanization = romanization;
+        lastResult = result;
+        return new ArrayList<String>(result);
+    }
+
+    /**
+     * Checks if given query is meant to be Japanese: it either contains no
+     * ASCII letters (e.g. kana or kanji), or it is romaji which converts to
+     * kana completely, except for the syllable being typed. For example
+     * "kyou" is Japanese while "mother" is not.
+     * @param query the query as typed by the user, not null.
+     * @param romanization used to convert romaji to kana, not null.
+     * @return true if the query is Japanese, false otherwise.
+     */
+    public static boolean isJapanese(final String query, final RomanizationEnum romanization) {
+        final String q = query.trim();
+        if (!hasAsciiLetter(q)) {
+            return q.length() > 0;
+        }
+        final String kana = romanization.toHiragana(q);
+        final int end = toKanaPrefix(q, kana).length();
+        if (end == 0 || kana.length() - end > MAX_UNFINISHED_SYLLABLE) {
+            return false;
+        }
+        // no letters may remain unconverted in the middle of the query
+        return !hasAsciiLetter(kana.substring(0, end));
+    }
+
+    private static boolean hasAsciiLetter(final String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (MiscUtils.isAsciiLetter(str.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the unfinished romaji syllable from the end of a converted query.
+     * @param romaji the query, in romaji.
+     * @param kana the query converted to kana.
+     * @return kana without the trailing, not yet converted characters.
+     */
+    private static String toKanaPrefix(final String romaji, final String kana) {
+        int end = kana.length();
+        while (end > 0 && MiscUtils.isAsciiLetter(kana.charAt(end - 1))) {
+            end--;
+        }
+        if (end == kana.length() && romaji.endsWith("n") && !romaji.endsWith("nn")) {
+            // a trailing n is converted to ん, but it may be the beginning of
+            // e.g. "na"
+            final char last = kana.charAt(end - 1);
+            if (last == 'ん' || last == 'ン') {
+                end--;
+            }
+        }
+        return kana.substring(0, end);
+    }
+
+    /**
+     * Remembers nodes of the last walked prefix.
+     */
+    private final class Walk {
+
+        private final StringBuilder prefix = new StringBuilder();
+        private int[] nodes = new int[]{DictionaryTrie.ROOT};
+
+        /**
+         * Walks given prefix, reusing the common part of the previous prefix.
+         * @param text the prefix to walk.
+         * @return the trie node denoting the prefix, -1 if there is no such node.
+         */
+        int walk(final String text) {
+            int common = 0;
+            final int limit = Math.min(prefix.length(), text.length());
+            while (common < limit && prefix.charAt(common) == text.charAt(common)) {
+                common++;
+            }
+            prefix.setLength(common);
+            int node = nodes[common];
+            for (int i = common; i < text.length(); i++) {
+                node = trie.child(node, text.charAt(i));
+                if (node < 0) {
+                    return -1;
+                }
+                prefix.append(text.charAt(i));
+                if (nodes.length <= i + 1) {
+                    final int[] newNodes = new int[nodes.length * 2];
+                    System.arraycopy(nodes, 0, newNodes, 0, nodes.length);
+                    nodes = newNodes;
+                }
+                nodes[i + 1] = node;
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sk.baka.autils.MiscUtils;
+
+/**
+ * A compact in-memory set of EDICT verbs (both kanji headwords and readings),
+ * each with its conjugation class. Allows checking that a deinflected verb is
+ * really a dictionary verb of the expected class, without querying the Lucene
+ * index.
+ * <h4>The format:</h4> 4 byte magic number {@link #MAGIC}; 4 byte int - number
+ * of verbs; for each verb: the verb in modified UTF-8 (as written by
+ * {@link DataOutputStream#writeUTF(String)}), 4 byte int - the class bit mask.
+ * <p/>
+ * Thread safe.
+ * 
+ * @author Martin Vysny
+ */
+public final class VerbClasses {
+
+    /**
+     * The magic number, "VERB" in ASCII.
+     */
+    public static final int MAGIC = 0x56455242;
+    /**
+     * The verb file name, located in the dictionary index directory.
+     */
+    public static final String FILE_NAME = "verbs.dat";
+    /**
+     * An ichidan verb (v1), e.g. taberu.
+     */
+    public static final int ICHIDAN = 1;
+    /**
+     * A godan verb ending with u (v5u, v5u-s), e.g. kau.
+     */
+    public static final int GODAN_U = 1 << 1;
+    /**
+     * A godan verb ending with ku (v5k, v5k-s), e.g. kaku, iku.
+     */
+    public static final int GODAN_KU = 1 << 2;
+    /**
+     * A godan verb ending with gu (v5g), e.g. oyogu.
+     */
+    public static final int GODAN_GU = 1 << 3;
+    /**
+     * A godan verb ending with su (v5s), e.g. hanasu.
+     */
+    public static final int GODAN_SU = 1 << 4;
+    /**
+     * A godan verb ending with tsu (v5t), e.g. matsu.
+     */
+    public static final int GODAN_TSU = 1 << 5;
+    /**
+     * A godan verb ending with nu (v5n), e.g. shinu.
+     */
+    public static final int GODAN_NU = 1 << 6;
+    /**
+     * A godan verb ending with bu (v5b), e.g. asobu.
+     */
+    public static final int GODAN_BU = 1 << 7;
+    /**
+     * A godan verb ending with mu (v5m), e.g. yomu.
+     */
+    public static final int GODAN_MU = 1 << 8;
+    /**
+     * A godan verb ending with ru (v5r, v5r-i, v5aru), e.g. kaeru, aru.
+     */
+    public static final int GODAN_RU = 1 << 9;
+    /**
+     * The suru verb (vs-i, vs-s).
+     */
+    public static final int SURU = 1 << 10;
+    /**
+     * The kuru verb (vk).
+     */
+    public static final int KURU = 1 << 11;
+    /**
+     * Matches a word of any class, even a word which is not a verb at all.
+     */
+    public static final int ANY = -1;
+    private static final Map<String, Integer> MARKINGS = new HashMap<String, Integer>();
+
+    static {
+        MARKINGS.put("v1", ICHIDAN);
+        MARKINGS.put("v5u", GODAN_U);
+        MARKINGS.put("v5u-s", GODAN_U);
+        MARKINGS.put("v5k", GODAN_KU);
+        MARKINGS.put("v5k-s", GODAN_KU);
+        MARKINGS.put("v5g", GODAN_GU);
+        MARKINGS.put("v5s", GODAN_SU);
+        MARKINGS.put("v5t", GODAN_TSU);
+        MARKINGS.put("v5n", GODAN_NU);
+        MARKINGS.put("v5b", GODAN_BU);
+        MARKINGS.put("v5m", GODAN_MU);
+        MARKINGS.put("v5r", GODAN_RU);
+        MARKINGS.put("v5r-i", GODAN_RU);
+        MARKINGS.put("v5aru", GODAN_RU);
+        MARKINGS.put("vs-i", SURU);
+        MARKINGS.put("vs-s", SURU);
+        MARKINGS.put("vk", KURU);
+    }
+    private final Map<String, Integer> verbs;
+
+    private VerbClasses(final Map<String, Integer> verbs) {
+        this.verbs = verbs;
+    }
+
+    /**
+     * Computes the verb classes out of EDICT markings.
+     * @param markings the markings, as returned by {@link EdictEntry#getMarkings()}.
+     * @return the class bit mask, 0 if the markings do not denote a verb.
+     */
+    public static int fromMarkings(final List<String> markings) {
+        int result = 0;
+        for (final String marking : markings) {
+            final Integer c = MARKINGS.get(marking);
+            if (c != null) {
+                result |= c;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the verbs.
+     * @param in the stream to read, not closed.
+     * @return the verbs, never null.
+     * @throws IOException on I/O error or if the stream does not contain the verbs.
+     */
+    public static VerbClasses read(final InputStream in) throws IOException {
+        final DataInputStream din = new DataInputStream(in);
+        if (din.readInt() != MAGIC) {
+            throw new IOException("Not a verb class file");
+        }
+        final int count = din.readInt();
+        final Map<String, Integer> verbs = new HashMap<String, Integer>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            final String verb = din.readUTF();
+            verbs.put(verb, din.readInt());
+        }
+        return new VerbClasses(verbs);
+    }
+
+    /**
+     * Loads the verbs from given dictionary directory.
+     * @param dictionaryPath the dictionary index directory, an absolute os-specific path, e.g. /sdcard/aedict/index.
+     * @return the verbs or null if the dictionary does not contain the verb file (e.g. it was downloaded by an older Aedict version).
+     * @throws IOException on I/O error.
+     */
+    public static VerbClasses open(final String dictionaryPath) throws IOException {
+        final File file = new File(dictionaryPath, FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+        final InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return read(in);
+        } finally {
+            MiscUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns the classes of given verb.
+     * @param verb the verb, kanji or hiragana, e.g. 食べる or たべる.
+     * @return the class bit mask, 0 if the word is not a known verb.
+     */
+    public int getClasses(final String verb) {
+        final Integer result = verbs.get(verb);
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * Checks if given word is a verb of one of given classes.
+     * @param word the word, kanji or hiragana.
+     * @param classes the class bit mask. {@link #ANY} matches all words, including unknown ones.
+     * @return true if the word matches.
+     */
+    public boolean matches(final String word, final int classes) {
+        return classes == ANY || (getClasses(word) & classes) != 0;
+    }
+
+    /**
+     * Returns the number of verbs.
+     * @return the number of verbs, both kanji headwords and readings.
+     */
+    public int size() {
+        return verbs.size();
+    }
+
+    /**
+     * Builds the verb file.
+     *
+     * @author Martin Vysny
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> verbs = new HashMap<String, Integer>();
+
+        /**
+         * Adds an EDICT entry. Entries which are not verbs are ignored.
+         * @param entry the entry, not null.
+         */
+        public void add(final EdictEntry entry) {
+            final int classes = fromMarkings(entry.getMarkings());
+            if (classes == 0) {
+                return;
+            }
+            if (entry.kanji != null) {
+                add(entry.kanji, classes);
+            }
+            add(entry.reading, classes);
+        }
+
+        /**
+         * Adds a verb. If the verb is already present then the classes are merged.
+         * @param verb the verb, not null, not empty.
+         * @param classes the class bit mask.
+         */
+        public void add(final String verb, final int classes) {
+            final Integer old = verbs.get(verb);
+            verbs.put(verb, old == null ? classes : old | classes);
+        }
+
+        /**
+         * Returns the verbs built so far.
+         * @return the verbs, never null.
+         */
+        public VerbClasses build() {
+            return new VerbClasses(new HashMap<String, Integer>(verbs));
+        }
+
+        /**
+         * Writes the verbs.
+         * @param out the stream to write to, not closed.
+         * @throws IOException on I/O error.
+         */
+        public void write(final OutputStream out) throws IOException {
+            final DataOutputStream dout = new DataOutputStream(out);
+            dout.writeInt(MAGIC);
+            dout.writeInt(verbs.size());
+            for (final Map.Entry<String, Integer> e : verbs.entrySet()) {
+                dout.writeUTF(e.getKey());
+                dout.writeInt(e.getValue());
+            }
+            dout.flush();
+        }
+    }
+}
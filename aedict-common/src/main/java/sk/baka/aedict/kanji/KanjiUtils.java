@@ -114,6 +114,24 @@ public final class KanjiUtils {
         return translate(halfwidth, HALFWIDTH_TO_KATAKANA, 2);
     }
 
+    /**
+     * Converts full-width katakana characters to hiragana. Other characters,
+     * including the prolonged sound mark, are unchanged.
+     *
+     * @param katakana
+     *            a string containing katakana characters, not null
+     * @return the string with katakana replaced by hiragana, never null
+     */
+    public static String katakanaToHiragana(final String katakana) {
+        final StringBuilder sb = new StringBuilder(katakana.length());
+        for (int i = 0; i < katakana.length(); i++) {
+            final char c = katakana.charAt(i);
+            // the katakana block mirrors the hiragana block, ァ..ヶ
+            sb.append(c >= '\u30a1' && c <= '\u30f6' ? (char) (c - 0x60) : c);
+        }
+        return sb.toString();
+    }
+
     /**
      * Converts a string containing full-width katakana to half-width katakana.
      * Non-full-width katakana characters are unchanged.
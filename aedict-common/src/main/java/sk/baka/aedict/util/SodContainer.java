@@ -0,0 +1,260 @@
+/**
+ *     Aedict - an EDICT browser for Android
+ Copyright (C) 2009 Martin Vysny
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An indexed, seekable container of the SOD images. Unlike the original
+ * gzipped format the container is used as-is, without unpacking, and it
+ * supports a random access without parsing the whole header first.
+ * <h4>The header:</h4> 4 byte magic number {@link #MAGIC}; 4 byte int - number
+ * of kanji entries; 4 byte int - offset of the first image. <h4>The directory:
+ * </h4> Fixed-width entries of {@link #ENTRY_SIZE} bytes, ordered by the kanji
+ * character, ascending: 2-byte UTF-16 kanji character, 2-byte flags (see
+ * {@link #FLAG_DEFLATED}), 4-byte image offset in the file, 4-byte length of
+ * the stored image data, 4-byte length of the image. <h4>The contents:</h4> The
+ * images, starting at a {@link #PAGE_SIZE} boundary. An image never crosses a
+ * page boundary unless it is larger than a page, in which case it starts at a
+ * page boundary.
+ * 
+ * @author Martin Vysny
+ */
+public final class SodContainer {
+	private SodContainer() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * The magic number, "SOD2" in ASCII.
+	 */
+	public static final int MAGIC = 0x534F4432;
+	/**
+	 * The header size in bytes.
+	 */
+	public static final int HEADER_SIZE = 12;
+	/**
+	 * Size of one directory entry, in bytes.
+	 */
+	public static final int ENTRY_SIZE = 16;
+	/**
+	 * The page size the images are aligned to.
+	 */
+	public static final int PAGE_SIZE = 4096;
+	/**
+	 * The entry flag: the image data is compressed with {@link Deflater}.
+	 */
+	public static final int FLAG_DEFLATED = 1;
+
+	/**
+	 * Checks if given buffer contains the SOD container.
+	 * 
+	 * @param file
+	 *            the file contents, not modified.
+	 * @return true if the file starts with the {@link #MAGIC} number, false
+	 *         otherwise.
+	 */
+	public static boolean isContainer(final ByteBuffer file) {
+		return file.limit() >= HEADER_SIZE && file.getInt(0) == MAGIC;
+	}
+
+	/**
+	 * Returns the number of images in the container.
+	 * 
+	 * @param file
+	 *            the file contents, not modified.
+	 * @return number of images.
+	 */
+	public static int getEntryCount(final ByteBuffer file) {
+		return file.getInt(4);
+	}
+
+	/**
+	 * Finds an image for given kanji, using a binary search over the
+	 * directory.
+	 * 
+	 * @param file
+	 *            the file contents, not modified.
+	 * @param kanji
+	 *            the kanji to look up.
+	 * @return the image data, decompressed if necessary, or null if there is
+	 *         no such kanji in the container.
+	 * @throws IOException
+	 *             if the container is corrupted.
+	 */
+	public static ByteBuffer getImage(final ByteBuffer file, final char kanji) throws IOException {
+		int low = 0;
+		int high = getEntryCount(file) - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int entry = HEADER_SIZE + mid * ENTRY_SIZE;
+			final char c = file.getChar(entry);
+			if (c < kanji) {
+				low = mid + 1;
+			} else if (c > kanji) {
+				high = mid - 1;
+			} else {
+				return getImage(file, entry);
+			}
+		}
+		return null;
+	}
+
+	private static ByteBuffer getImage(final ByteBuffer file, final int entry) throws IOException {
+		final int flags = file.getShort(entry + 2);
+		final int offset = file.getInt(entry + 4);
+		final int storedLength = file.getInt(entry + 8);
+		final int length = file.getInt(entry + 12);
+		if (offset < 0 || storedLength < 0 || offset + storedLength > file.limit()) {
+			throw new IOException("Invalid entry at " + entry + ": offset " + offset + ", length " + storedLength);
+		}
+		final ByteBuffer stored = file.duplicate();
+		stored.limit(offset + storedLength);
+		stored.position(offset);
+		if ((flags & FLAG_DEFLATED) == 0) {
+			return stored.slice();
+		}
+		final byte[] in = new byte[storedLength];
+		stored.get(in);
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(in);
+			final byte[] result = new byte[length];
+			int inflated = 0;
+			while (inflated < length && !inflater.finished()) {
+				final int count = inflater.inflate(result, inflated, length - inflated);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				inflated += count;
+			}
+			if (inflated != length) {
+				throw new IOException("Invalid entry at " + entry + ": expected " + length + " bytes but got " + inflated);
+			}
+			return ByteBuffer.wrap(result);
+		} catch (DataFormatException ex) {
+			throw new IOExceptionWithCause("Invalid entry at " + entry + ": " + ex.getMessage(), ex);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Computes an offset of an image, so that the image does not cross a page
+	 * boundary, if possible.
+	 * 
+	 * @param offset
+	 *            the first free offset in the file.
+	 * @param length
+	 *            the image length.
+	 * @return the image offset, not less than given offset.
+	 */
+	public static int align(final int offset, final int length) {
+		final int pageEnd = (offset / PAGE_SIZE + 1) * PAGE_SIZE;
+		if (offset % PAGE_SIZE == 0 || offset + length <= pageEnd) {
+			return offset;
+		}
+		return pageEnd;
+	}
+
+	/**
+	 * Writes the container.
+	 * 
+	 * @param images
+	 *            maps kanji to the PNG image data.
+	 * @param compress
+	 *            if true then images are compressed if it saves at least
+	 *            10% of the image size.
+	 * @param out
+	 *            write the container here. The stream is not closed.
+	 * @throws IOException
+	 *             on I/O error
+	 */
+	public static void write(final SortedMap<Character, byte[]> images, final boolean compress, final OutputStream out) throws IOException {
+		final List<byte[]> stored = new ArrayList<byte[]>(images.size());
+		final DataOutputStream dout = new DataOutputStream(out);
+		final int dataStart = align(HEADER_SIZE + images.size() * ENTRY_SIZE, PAGE_SIZE);
+		dout.writeInt(MAGIC);
+		dout.writeInt(images.size());
+		dout.writeInt(dataStart);
+		int offset = dataStart;
+		for (final Map.Entry<Character, byte[]> e : images.entrySet()) {
+			final byte[] image = e.getValue();
+			byte[] data = compress ? deflate(image) : image;
+			int flags = FLAG_DEFLATED;
+			if (data.length * 10L > image.length * 9L) {
+				data = image;
+				flags = 0;
+			}
+			stored.add(data);
+			offset = align(offset, data.length);
+			dout.writeChar(e.getKey());
+			dout.writeShort(flags);
+			dout.writeInt(offset);
+			dout.writeInt(data.length);
+			dout.writeInt(image.length);
+			offset += data.length;
+		}
+		int position = pad(dout, HEADER_SIZE + images.size() * ENTRY_SIZE, dataStart);
+		for (final byte[] data : stored) {
+			position = pad(dout, position, align(position, data.length));
+			dout.write(data);
+			position += data.length;
+		}
+		dout.flush();
+	}
+
+	private static int pad(final DataOutputStream out, final int position, final int aligned) throws IOException {
+		for (int i = position; i < aligned; i++) {
+			out.write(0);
+		}
+		return aligned;
+	}
+
+	private static byte[] deflate(final byte[] data) {
+		final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			final byte[] buf = new byte[data.length + 64];
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == buf.length) {
+					// not compressible, no point in continuing
+					return data;
+				}
+				length += deflater.deflate(buf, length, buf.length - length);
+			}
+			final byte[] result = new byte[length];
+			System.arraycopy(buf, 0, result, 0, length);
+			return result;
+		} finally {
+			deflater.end();
+		}
+	}
+}
@@ -80,6 +80,19 @@ public class DictTypeEnumTest {
         assertTrue(DictTypeEnum.Edict.matchesHandlesAnd(entryjp("はは"), true, "はは", MatcherEnum.Exact));
     }
 
+    @Test
+    public void inflectedEdictMatchesJp() {
+        final SearchQuery q = new SearchQuery(DictTypeEnum.Edict);
+        q.query = new String[]{"たべなかった"};
+        q.isJapanese = true;
+        q.matcher = MatcherEnum.Exact;
+        assertFalse(DictTypeEnum.Edict.accepts(new EdictEntry("食べる", "たべる", "(v1,vt) to eat/(P)/"), q));
+        q.inflected = new String[]{"食べなかった"};
+        assertTrue(DictTypeEnum.Edict.accepts(new EdictEntry("食べる", "たべる", "(v1,vt) to eat/(P)/"), q));
+        assertFalse(DictTypeEnum.Edict.accepts(new EdictEntry("食べ物", "たべもの", "(n) food/(P)/"), q));
+        assertTrue(DictTypeEnum.Edict.getLuceneQuery(q)[0].contains("inflected:\"W食べなかったW\""));
+    }
+
     private DictEntry entryjp(final String jp) {
         return new DictEntry(null, jp, "English");
     }
@@ -0,0 +1,70 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DictionaryTrie} class.
+ * 
+ * @author Martin Vysny
+ */
+public class DictionaryTrieTest {
+
+    private static DictionaryTrie trie(final String... words) throws IOException {
+        final DictionaryTrie.Builder b = new DictionaryTrie.Builder();
+        for (final String word : words) {
+            b.add(word, DictionaryTrie.SCORE_UNCOMMON);
+        }
+        b.add("今日", DictionaryTrie.SCORE_COMMON);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        b.write(out);
+        return new DictionaryTrie(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void testScore() throws IOException {
+        final DictionaryTrie t = trie("今", "今日");
+        assertEquals(DictionaryTrie.SCORE_COMMON, t.getScore("今日"));
+        assertEquals(DictionaryTrie.SCORE_UNCOMMON, t.getScore("今"));
+        assertEquals(-1, t.getScore("今日は"));
+        assertTrue(t.contains("今"));
+        assertFalse(t.contains("日"));
+    }
+
+    @Test
+    public void testComplete() throws IOException {
+        final DictionaryTrie t = trie("今", "今日は", "今晩", "日");
+        assertEquals(Arrays.asList("今日", "今", "今晩", "今日は"), t.complete("今", 10));
+        assertEquals(Arrays.asList("今日", "今"), t.complete("今", 2));
+        assertEquals(Arrays.asList("今日", "今日は"), t.complete("今日", 10));
+        assertEquals(Arrays.asList("今日", "今", "日"), t.complete("", 3));
+        assertTrue(t.complete("明", 10).isEmpty());
+        assertTrue(t.complete("今", 0).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidData() throws IOException {
+        new DictionaryTrie(ByteBuffer.wrap(new byte[20]));
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DirectoryStrategy} class.
+ * 
+ * @author Martin Vysny
+ */
+public class DirectoryStrategyTest {
+
+    @Test
+    public void testChoose() {
+        // the index is reopened for each search, never load it into memory
+        final long desktop = 4L * DirectoryStrategy.MMAP_MIN_MAX_MEMORY;
+        assertEquals(DirectoryStrategy.MMap, DirectoryStrategy.choose(DictTypeEnum.Kanjidic.luceneFileSize(), desktop));
+        assertEquals(DirectoryStrategy.MMap, DirectoryStrategy.choose(DictTypeEnum.Edict.luceneFileSize(), desktop));
+        assertEquals(DirectoryStrategy.NIOFS, DirectoryStrategy.choose(DirectoryStrategy.MMAP_MAX_INDEX_SIZE + 1, desktop));
+    }
+
+    @Test
+    public void testChooseOnDevice() {
+        // the mappings of the indexes reopened for each search would exhaust the address space
+        final long device = 64L * 1024 * 1024;
+        assertEquals(DirectoryStrategy.NIOFS, DirectoryStrategy.choose(DictTypeEnum.Kanjidic.luceneFileSize(), device));
+        assertEquals(DirectoryStrategy.NIOFS, DirectoryStrategy.choose(DictTypeEnum.Edict.luceneFileSize(), device));
+    }
+}
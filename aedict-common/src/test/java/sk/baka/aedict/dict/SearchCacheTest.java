@@ -0,0 +1,113 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SearchCache} class.
+ * 
+ * @author Martin Vysny
+ */
+public class SearchCacheTest {
+
+    private static final String PATH = "/sdcard/aedict/index";
+    private SearchCache cache;
+
+    @Before
+    public void createCache() {
+        cache = new SearchCache(1024);
+    }
+
+    private static List<DictEntry> result(final String english) {
+        return Collections.singletonList(new DictEntry("母", "はは", english));
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        final SearchQuery q = SearchQuery.searchEnEdict("mother", true);
+        assertNull(cache.get(PATH, 1, q, 100, true));
+        cache.put(PATH, 1, q, 100, true, result("mother"));
+        assertEquals(result("mother"), cache.get(PATH, 1, SearchQuery.searchEnEdict(" mother ", true), 100, true));
+        assertNull(cache.get(PATH, 2, q, 100, true));
+        assertNull(cache.get(PATH, 1, q, 10, true));
+        assertNull(cache.get(PATH, 1, SearchQuery.searchEnEdict("mother", false), 100, true));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(0.2f, cache.getHitRatio(), 0.001f);
+    }
+
+    @Test
+    public void testResultIsCopied() {
+        final SearchQuery q = SearchQuery.searchEnEdict("mother", true);
+        cache.put(PATH, 1, q, 100, true, result("mother"));
+        // modifying the key or the returned result must not affect the cache
+        q.query[0] = "father";
+        cache.<DictEntry>get(PATH, 1, SearchQuery.searchEnEdict("mother", true), 100, true).clear();
+        assertEquals(result("mother"), cache.get(PATH, 1, SearchQuery.searchEnEdict("mother", true), 100, true));
+    }
+
+    @Test
+    public void testEviction() {
+        for (int i = 0; i < 20; i++) {
+            cache.put(PATH, 1, SearchQuery.searchEnEdict("q" + i, true), 100, true, result("a long english translation " + i));
+            assertTrue(cache.getBytes() <= 1024);
+        }
+        assertTrue(cache.getEvictions() > 0);
+        assertNull(cache.get(PATH, 1, SearchQuery.searchEnEdict("q0", true), 100, true));
+        assertNotNull(cache.get(PATH, 1, SearchQuery.searchEnEdict("q19", true), 100, true));
+    }
+
+    @Test
+    public void testInvalidation() {
+        final SearchQuery q = SearchQuery.searchEnEdict("mother", true);
+        cache.setVersion(PATH, 1);
+        cache.put(PATH, 1, q, 100, true, result("mother"));
+        cache.put("/sdcard/aedict/index-tanaka", 1, q, 100, true, result("mother"));
+        assertEquals(Long.valueOf(1), cache.getVersion(PATH));
+        cache.invalidate(PATH);
+        assertNull(cache.getVersion(PATH));
+        assertNull(cache.get(PATH, 1, q, 100, true));
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testNewIndexVersionDropsResults() {
+        final SearchQuery q = SearchQuery.searchEnEdict("mother", true);
+        cache.setVersion(PATH, 1);
+        cache.put(PATH, 1, q, 100, true, result("mother"));
+        cache.setVersion(PATH, 2);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testQueryList() {
+        final List<SearchQuery> queries = Arrays.asList(SearchQuery.searchEnEdict("mother", true), SearchQuery.searchJpEdict("はは", MatcherEnum.Exact));
+        cache.put(PATH, 1, queries, 200, true, Collections.singletonList(new LuceneSearch.Hit(new DictEntry("母", "はは", "mother"), queries.get(0))));
+        assertEquals(1, cache.get(PATH, 1, Arrays.asList(SearchQuery.searchEnEdict("mother", true), SearchQuery.searchJpEdict("はは", MatcherEnum.Exact)), 200, true).size());
+        assertNull(cache.get(PATH, 1, queries.subList(0, 1), 200, true));
+    }
+}
@@ -20,6 +20,7 @@ package sk.baka.aedict.dict;
 import org.junit.Test;
 import sk.baka.aedict.kanji.RomanizationEnum;
 import sk.baka.tools.test.Assert;
+import static org.junit.Assert.*;
 
 /**
  * Tests the {@link SearchQuery} class.
@@ -39,4 +40,29 @@ public class SearchQueryTest {
 	final SearchQuery q = SearchQuery.searchTanaka(DictTypeEnum.Tanaka, "haha AND chichi", true, r, null);
 	Assert.assertArrayEquals(q.query, new String[]{r.toKatakana("haha") + " AND " + r.toKatakana("chichi"), r.toHiragana("haha") + " AND " + r.toHiragana("chichi")});
     }
+
+    @Test
+    public void equalsAndHashCode() {
+	final SearchQuery q = SearchQuery.searchEnEdict("mother", true);
+	final SearchQuery q2 = SearchQuery.searchEnEdict("mother", true);
+	assertEquals(q, q2);
+	assertEquals(q.hashCode(), q2.hashCode());
+	assertFalse(q.equals(SearchQuery.searchEnEdict("mother", false)));
+	assertFalse(q.equals(SearchQuery.searchEnEdict("father", true)));
+	q2.langCode = "ger";
+	assertFalse(q.equals(q2));
+	final SearchQuery k = SearchQuery.kanjiSearch('母', 5, 1);
+	assertFalse(k.equals(SearchQuery.kanjiSearch('母', 5, 2)));
+	assertEquals(k, SearchQuery.kanjiSearch('母', 5, 1));
+    }
+
+    @Test
+    public void copyConstructorCopiesAllFields() {
+	final SearchQuery q = SearchQuery.kanjiSearch('母', 5, 1);
+	q.langCode = "ger";
+	assertEquals(q, new SearchQuery(q));
+	final SearchQuery skip = new SearchQuery(DictTypeEnum.Kanjidic);
+	skip.skip = "1-2-3";
+	assertEquals(skip, new SearchQuery(skip));
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import org.junit.Test;
+import sk.baka.aedict.dict.SearchStats.Stage;
+import sk.baka.aedict.dict.SearchStats.Trace;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SearchStats} class.
+ * 
+ * @author Martin Vysny
+ */
+public class SearchStatsTest {
+
+    @Test
+    public void testBucket() {
+        assertEquals(0, SearchStats.getBucket(0));
+        assertEquals(1, SearchStats.getBucket(1));
+        assertEquals(2, SearchStats.getBucket(2));
+        assertEquals(2, SearchStats.getBucket(3));
+        assertEquals(11, SearchStats.getBucket(1024));
+        assertEquals(63, SearchStats.getBucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTrace() {
+        final Trace trace = new Trace();
+        long t = System.nanoTime();
+        t = trace.add(Stage.Parse, t - 100);
+        trace.addQuery(t - 1000);
+        trace.addQuery(t - 2000);
+        assertTrue(trace.getNanos(Stage.Parse) >= 100);
+        assertEquals(2, trace.getQueryNanos().size());
+        assertTrue(trace.getNanos(Stage.Query) >= 3000);
+        assertEquals(trace.getQueryNanos().get(0) + trace.getQueryNanos().get(1), trace.getNanos(Stage.Query));
+        assertEquals(0, trace.getNanos(Stage.Sort));
+        assertEquals(-1, trace.getTotalNanos());
+        trace.finish();
+        assertTrue(trace.getTotalNanos() >= 0);
+    }
+
+    @Test
+    public void testNoneTrace() {
+        assertFalse(Trace.NONE.isEnabled());
+        assertEquals(0, Trace.NONE.now());
+        assertEquals(5, Trace.NONE.add(Stage.Parse, 5));
+        assertEquals(5, Trace.NONE.addQuery(5));
+        assertEquals(0, Trace.NONE.getNanos(Stage.Parse));
+        assertTrue(Trace.NONE.getQueryNanos().isEmpty());
+        assertTrue(new Trace().isEnabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordUnfinishedTrace() {
+        new SearchStats().record(new Trace());
+    }
+
+    @Test
+    public void testRecord() {
+        final SearchStats stats = new SearchStats();
+        for (int i = 0; i < 3; i++) {
+            final Trace trace = new Trace();
+            trace.add(Stage.Match, System.nanoTime() - 1000);
+            trace.docsScanned = 10;
+            trace.docsAccepted = 2;
+            trace.compressedBytes = 100;
+            trace.decompressedChars = 300;
+            trace.finish();
+            stats.record(trace);
+        }
+        assertEquals(3, stats.getSearches());
+        assertTrue(stats.getNanos(Stage.Match) >= 3000);
+        assertEquals(3, stats.getHistogram(Stage.Parse)[0]);
+        assertEquals(3, sum(stats.getHistogram(Stage.Match)));
+        assertEquals(0, stats.getHistogram(Stage.Match)[0]);
+        assertEquals(3, sum(stats.getHistogram(null)));
+        assertTrue(stats.getSummary(), stats.getSummary().contains("scanned 30, accepted 6, 300 bytes decompressed to 900 chars"));
+        final String dump = stats.getHistogramDump();
+        assertTrue(dump, dump.startsWith("Parse: <1ns 3\n"));
+        assertTrue(dump, dump.contains("Total: <"));
+        stats.clear();
+        assertEquals(0, stats.getSearches());
+        assertEquals(0, sum(stats.getHistogram(null)));
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("150ns", SearchStats.format(150));
+        assertEquals("12us", SearchStats.format(12345));
+        assertEquals("3000us", SearchStats.format(3000000));
+        assertEquals("12ms", SearchStats.format(12345678));
+    }
+
+    private static long sum(final long[] histogram) {
+        long result = 0;
+        for (final long l : histogram) {
+            result += l;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link Segmenter} class.
+ * 
+ * @author Martin Vysny
+ */
+public class SegmenterTest {
+
+    private static Segmenter segmenter(final String commonWords, final String uncommonWords) throws IOException {
+        final DictionaryTrie.Builder b = new DictionaryTrie.Builder();
+        for (final String word : commonWords.split(" ")) {
+            b.add(word, DictionaryTrie.SCORE_COMMON);
+        }
+        for (final String word : uncommonWords.split(" ")) {
+            b.add(word, DictionaryTrie.SCORE_UNCOMMON);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        b.write(out);
+        return new Segmenter(new DictionaryTrie(ByteBuffer.wrap(out.toByteArray())));
+    }
+
+    private static String segment(final Segmenter s, final String sentence) {
+        final List<Segmenter.Segment> segments = s.segment(sentence);
+        final StringBuilder sb = new StringBuilder();
+        for (final Segmenter.Segment segment : segments) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(segment);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testBeatsGreedyLongestMatch() throws IOException {
+        // the greedy algorithm would pick あい, leaving う and え unmatched
+        assertEquals("あ いうえ", segment(segmenter("あ あい いうえ", "え"), "あいうえ"));
+    }
+
+    @Test
+    public void testFewerWordsArePreferred() throws IOException {
+        assertEquals("今日は 良い 天気", segment(segmenter("今日 は 良い 天気 今 日", "今日は"), "今日は良い天気"));
+    }
+
+    @Test
+    public void testCommonWordsArePreferred() throws IOException {
+        assertEquals("あい うえ", segment(segmenter("あい うえ", "あ いうえ"), "あいうえ"));
+    }
+
+    @Test
+    public void testLongerWordsArePreferred() throws IOException {
+        assertEquals("今日は", segment(segmenter("今日 は", "今日は"), "今日は"));
+        assertEquals("ありがとう", segment(segmenter("あり が とう", "ありがとう"), "ありがとう"));
+    }
+
+    @Test
+    public void testUnknownCharacters() throws IOException {
+        final List<Segmenter.Segment> segments = segmenter("天気", "x").segment("猫天気");
+        assertEquals(2, segments.size());
+        assertEquals("猫", segments.get(0).text);
+        assertFalse(segments.get(0).isWord);
+        assertEquals(0, segments.get(0).start);
+        assertEquals("天気", segments.get(1).text);
+        assertTrue(segments.get(1).isWord);
+        assertEquals(1, segments.get(1).start);
+        assertTrue(segmenter("天気", "x").segment("").isEmpty());
+    }
+}
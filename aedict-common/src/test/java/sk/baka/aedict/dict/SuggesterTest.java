@@ -0,0 +1,89 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import sk.baka.aedict.kanji.RomanizationEnum;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link Suggester} class.
+ * 
+ * @author Martin Vysny
+ */
+public class SuggesterTest {
+
+    private Suggester s;
+
+    @Before
+    public void createSuggester() throws IOException {
+        final DictionaryTrie.Builder b = new DictionaryTrie.Builder();
+        b.add("今日", DictionaryTrie.SCORE_COMMON);
+        b.add("きょう", DictionaryTrie.SCORE_COMMON);
+        b.add("きょうと", DictionaryTrie.SCORE_UNCOMMON);
+        b.add("キョウ", DictionaryTrie.SCORE_UNCOMMON);
+        b.add("かな", DictionaryTrie.SCORE_UNCOMMON);
+        b.add("カナダ", DictionaryTrie.SCORE_COMMON);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        b.write(out);
+        s = new Suggester(new DictionaryTrie(ByteBuffer.wrap(out.toByteArray())));
+    }
+
+    @Test
+    public void testKanaAndKanji() {
+        assertEquals(Arrays.asList("きょう", "きょうと"), s.suggest("きょ", 10, RomanizationEnum.Hepburn));
+        assertEquals(Arrays.asList("今日"), s.suggest("今", 10, RomanizationEnum.Hepburn));
+        assertTrue(s.suggest("明", 10, RomanizationEnum.Hepburn).isEmpty());
+        assertTrue(s.suggest(" ", 10, RomanizationEnum.Hepburn).isEmpty());
+    }
+
+    @Test
+    public void testRomaji() {
+        assertEquals(Arrays.asList("きょう", "キョウ", "きょうと"), s.suggest("kyou", 10, RomanizationEnum.Hepburn));
+        // the unfinished syllable is ignored
+        assertEquals(Arrays.asList("カナダ", "かな"), s.suggest("kan", 10, RomanizationEnum.Hepburn));
+        assertEquals(Arrays.asList("カナダ"), s.suggest("kanad", 1, RomanizationEnum.Hepburn));
+    }
+
+    @Test
+    public void testEnglishIsNotCompleted() {
+        assertTrue(Suggester.isJapanese("kyou", RomanizationEnum.Hepburn));
+        assertTrue(Suggester.isJapanese("kanad", RomanizationEnum.Hepburn));
+        assertTrue(Suggester.isJapanese("今日", RomanizationEnum.Hepburn));
+        assertFalse(Suggester.isJapanese("mother", RomanizationEnum.Hepburn));
+        assertFalse(Suggester.isJapanese("love", RomanizationEnum.Hepburn));
+        assertFalse(Suggester.isJapanese(" ", RomanizationEnum.Hepburn));
+        assertTrue(s.suggest("love", 10, RomanizationEnum.Hepburn).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalTyping() {
+        // the walks must be reused correctly when typing and deleting
+        assertEquals(Arrays.asList("きょう", "きょうと"), s.suggest("きょう", 10, RomanizationEnum.Hepburn));
+        assertEquals(Arrays.asList("きょうと"), s.suggest("きょうと", 10, RomanizationEnum.Hepburn));
+        assertEquals(Arrays.asList("きょう", "きょうと"), s.suggest("きょう", 10, RomanizationEnum.Hepburn));
+        assertEquals(Arrays.asList("きょう"), s.suggest("きょう", 1, RomanizationEnum.Hepburn));
+        assertTrue(s.suggest("きょうは", 10, RomanizationEnum.Hepburn).isEmpty());
+        assertEquals(Arrays.asList("かな"), s.suggest("か", 10, RomanizationEnum.Hepburn));
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.dict;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link VerbClasses} class.
+ * 
+ * @author Martin Vysny
+ */
+public class VerbClassesTest {
+
+    private static VerbClasses verbs() throws IOException {
+        final VerbClasses.Builder b = new VerbClasses.Builder();
+        b.add(new EdictEntry("食べる", "たべる", "(v1,vt) to eat/(P)/"));
+        b.add(new EdictEntry("帰る", "かえる", "(v5r,vi) to return/(P)/"));
+        b.add(new EdictEntry("変える", "かえる", "(v1,vt) to change/(P)/"));
+        b.add(new EdictEntry("来る", "くる", "(vk,vi,aux-v) to come/(P)/"));
+        b.add(new EdictEntry("今日", "きょう", "(n-t) today/(P)/"));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        b.write(out);
+        return VerbClasses.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testFromMarkings() {
+        assertEquals(VerbClasses.ICHIDAN, VerbClasses.fromMarkings(Arrays.asList("v1", "vt")));
+        assertEquals(VerbClasses.GODAN_KU, VerbClasses.fromMarkings(Arrays.asList("v5k-s", "vi")));
+        assertEquals(VerbClasses.GODAN_RU, VerbClasses.fromMarkings(Arrays.asList("v5r-i")));
+        assertEquals(VerbClasses.SURU, VerbClasses.fromMarkings(Arrays.asList("vs-i")));
+        assertEquals(0, VerbClasses.fromMarkings(Arrays.asList("n", "vs")));
+    }
+
+    @Test
+    public void testClasses() throws IOException {
+        final VerbClasses v = verbs();
+        assertEquals(7, v.size());
+        assertEquals(VerbClasses.ICHIDAN, v.getClasses("食べる"));
+        assertEquals(VerbClasses.ICHIDAN, v.getClasses("たべる"));
+        assertEquals(VerbClasses.GODAN_RU | VerbClasses.ICHIDAN, v.getClasses("かえる"));
+        assertEquals(VerbClasses.KURU, v.getClasses("来る"));
+        assertEquals(0, v.getClasses("今日"));
+        assertEquals(0, v.getClasses("たべ"));
+    }
+
+    @Test
+    public void testMatches() throws IOException {
+        final VerbClasses v = verbs();
+        assertTrue(v.matches("帰る", VerbClasses.GODAN_RU));
+        assertFalse(v.matches("帰る", VerbClasses.ICHIDAN));
+        assertTrue(v.matches("かえる", VerbClasses.ICHIDAN));
+        assertTrue(v.matches("かえる", VerbClasses.GODAN_RU | VerbClasses.GODAN_U));
+        assertFalse(v.matches("たべう", VerbClasses.GODAN_U));
+        assertTrue(v.matches("たべう", VerbClasses.ANY));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidData() throws IOException {
+        VerbClasses.read(new ByteArrayInputStream(new byte[20]));
+    }
+}
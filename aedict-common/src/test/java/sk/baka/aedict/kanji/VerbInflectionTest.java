@@ -17,9 +17,16 @@
  */
 package sk.baka.aedict.kanji;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.Test;
 
 import sk.baka.aedict.kanji.VerbInflection.AbstractBaseInflector;
+import sk.baka.aedict.kanji.VerbInflection.Form;
 
 import static org.junit.Assert.*;
 
@@ -161,4 +168,49 @@ public class VerbInflectionTest {
 		assertEquals("kaetta", i.inflect("kaeru", false));
 		assertEquals("tabeta", i.inflect("taberu", true));
 	}
+
+	@Test
+	public void testConjugate() {
+		final Map<Form, String> taberu = VerbInflection.conjugate("たべる", true);
+		assertEquals("たべます", taberu.get(Form.POLITE));
+		assertEquals("たべない", taberu.get(Form.NEGATIVE));
+		assertEquals("たべた", taberu.get(Form.PAST_TENSE));
+		assertFalse(taberu.containsKey(Form.PLAIN_COMMAND));
+		final Map<Form, String> kaku = VerbInflection.conjugate("かく", false);
+		assertEquals(Form.values().length, kaku.size());
+		assertEquals("かいた", kaku.get(Form.PAST_TENSE));
+		assertEquals("かけ", kaku.get(Form.PLAIN_COMMAND));
+	}
+
+	@Test
+	public void testGetInflectedWords() {
+		final Set<String> taberu = VerbInflection.getInflections("食べる", "たべる", true).keySet();
+		assertTrue(taberu.containsAll(Arrays.asList("たべます", "食べます", "たべなかった", "食べなかった", "たべて", "食べて")));
+		assertFalse(taberu.contains("たべる"));
+		assertFalse(taberu.contains("たべて ください"));
+		final Set<String> kuru = VerbInflection.getInflections("来る", "くる", false).keySet();
+		assertTrue(kuru.containsAll(Arrays.asList("こない", "きます", "来れば")));
+		// the kanji reading changes, the kanji form is not known
+		assertFalse(kuru.contains("来ない"));
+		assertEquals(new HashSet<String>(VerbInflection.conjugate("たべる", true).values()).size() - 1 - countMultiWord(VerbInflection.conjugate("たべる", true)), VerbInflection.getInflections(null, "たべる", true).keySet().size());
+	}
+
+	@Test
+	public void testGetInflections() {
+		final Map<String, Set<Form>> taberu = VerbInflection.getInflections("食べる", "たべる", true);
+		assertEquals(EnumSet.of(Form.NEGATIVE_PAST), taberu.get("たべなかった"));
+		assertEquals(EnumSet.of(Form.NEGATIVE_PAST), taberu.get("食べなかった"));
+		assertEquals(EnumSet.of(Form.MILD_COMMAND, Form.CONTINUATION), taberu.get("食べて"));
+		assertNull(taberu.get("たべる"));
+	}
+
+	private static int countMultiWord(final Map<Form, String> table) {
+		final Set<String> result = new HashSet<String>();
+		for (final String inflected : table.values()) {
+			if (inflected.indexOf(' ') >= 0) {
+				result.add(inflected);
+			}
+		}
+		return result.size();
+	}
 }
@@ -0,0 +1,106 @@
+/**
+ *     Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SodContainer} class.
+ * 
+ * @author Martin Vysny
+ */
+public class SodContainerTest {
+
+    private static SortedMap<Character, byte[]> images() {
+        final SortedMap<Character, byte[]> result = new TreeMap<Character, byte[]>();
+        // incompressible data
+        final byte[] random = new byte[5000];
+        new java.util.Random(1).nextBytes(random);
+        result.put('読', random);
+        // compressible data
+        final byte[] zeroes = new byte[3000];
+        result.put('母', zeroes);
+        result.put('一', new byte[]{1, 2, 3});
+        return result;
+    }
+
+    private static ByteBuffer write(final boolean compress) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SodContainer.write(images(), compress, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    @Test
+    public void testRoundtrip() throws Exception {
+        for (final boolean compress : new boolean[]{false, true}) {
+            final ByteBuffer file = write(compress);
+            assertTrue(SodContainer.isContainer(file));
+            assertEquals(3, SodContainer.getEntryCount(file));
+            for (final java.util.Map.Entry<Character, byte[]> e : images().entrySet()) {
+                final ByteBuffer image = SodContainer.getImage(file, e.getKey());
+                final byte[] data = new byte[image.remaining()];
+                image.get(data);
+                assertTrue(Arrays.equals(e.getValue(), data));
+            }
+            assertNull(SodContainer.getImage(file, '犬'));
+        }
+    }
+
+    @Test
+    public void testOnlyCompressibleImagesAreCompressed() throws Exception {
+        final ByteBuffer file = write(true);
+        final int[] expectedFlags = new int[]{0, SodContainer.FLAG_DEFLATED, 0};
+        for (int i = 0; i < expectedFlags.length; i++) {
+            final int entry = SodContainer.HEADER_SIZE + i * SodContainer.ENTRY_SIZE;
+            assertEquals(expectedFlags[i], file.getShort(entry + 2));
+            final int storedLength = file.getInt(entry + 8);
+            final int length = file.getInt(entry + 12);
+            assertEquals(expectedFlags[i] != 0, storedLength < length);
+        }
+        assertEquals(0, write(false).getShort(SodContainer.HEADER_SIZE + SodContainer.ENTRY_SIZE + 2));
+    }
+
+    @Test
+    public void testImagesDoNotCrossPages() throws Exception {
+        final ByteBuffer file = write(false);
+        final int dataStart = file.getInt(8);
+        assertEquals(0, dataStart % SodContainer.PAGE_SIZE);
+        for (int i = 0; i < SodContainer.getEntryCount(file); i++) {
+            final int entry = SodContainer.HEADER_SIZE + i * SodContainer.ENTRY_SIZE;
+            final int offset = file.getInt(entry + 4);
+            final int length = file.getInt(entry + 8);
+            assertTrue(offset >= dataStart);
+            if (length <= SodContainer.PAGE_SIZE) {
+                assertEquals(offset / SodContainer.PAGE_SIZE, (offset + length - 1) / SodContainer.PAGE_SIZE);
+            } else {
+                assertEquals(0, offset % SodContainer.PAGE_SIZE);
+            }
+        }
+    }
+
+    @Test
+    public void testOldFormatIsNotContainer() {
+        assertFalse(SodContainer.isContainer(ByteBuffer.wrap(new byte[]{0, 0, 0, 1, 0x4e, 0x00, 0, 0, 0, 10})));
+    }
+}
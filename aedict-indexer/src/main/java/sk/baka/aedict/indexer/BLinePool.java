@@ -0,0 +1,165 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import sk.baka.aedict.indexer.TanakaParser.BLineParser;
+import sk.baka.aedict.indexer.TanakaParser.Edict;
+
+/**
+ * Parses B-lines in a thread pool. The jobs are finished in the order they
+ * were submitted, thus the documents are written to the index in the same
+ * order as if the B-lines were parsed by a single thread. At most
+ * {@link #MAX_PENDING} jobs per thread are pending, to keep the memory
+ * consumption bounded.
+ * @author Martin Vysny
+ */
+public final class BLinePool {
+
+    /**
+     * A document waiting for its B-line to be parsed.
+     */
+    public static abstract class Job {
+
+        private Future<BLineParser> bLine;
+
+        /**
+         * Invoked in the submitter thread, in the order the jobs were submitted.
+         * @param bLine the parsed B-line, null if the job was submitted without a B-line.
+         * @throws IOException on I/O error.
+         */
+        protected abstract void finish(BLineParser bLine) throws IOException;
+    }
+    /**
+     * Maximum number of pending jobs per thread.
+     */
+    static final int MAX_PENDING = 256;
+    private final Edict edict;
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final LinkedList<Job> pending = new LinkedList<Job>();
+
+    /**
+     * Creates the pool with one thread per available processor.
+     * @param edict the EDICT readings, shared by all threads.
+     */
+    public BLinePool(final Edict edict) {
+        this(edict, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the pool.
+     * @param edict the EDICT readings, shared by all threads.
+     * @param threads the number of threads.
+     */
+    public BLinePool(final Edict edict, final int threads) {
+        this.edict = edict;
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                // do not prevent the VM from exiting when the indexing fails
+                final Thread t = new Thread(r, "B-line parser");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        maxPending = threads * MAX_PENDING;
+    }
+
+    /**
+     * Submits a job. Blocks and finishes the oldest jobs if there are too many pending jobs.
+     * @param job the job
+     * @param japaneseSentence the original Japanese sentence. Ignored if bLine is null.
+     * @param bLine the Tanaka B-line, without the B: prefix. May be null - the job is then finished with a null B-line.
+     * @throws IOException if a job failed to finish.
+     */
+    public void submit(final Job job, final String japaneseSentence, final String bLine) throws IOException {
+        if (bLine != null) {
+            job.bLine = executor.submit(new Callable<BLineParser>() {
+
+                public BLineParser call() {
+                    return new BLineParser(edict, japaneseSentence, bLine);
+                }
+            });
+        }
+        pending.add(job);
+        while (pending.size() > maxPending) {
+            finishOldest();
+        }
+    }
+
+    private void finishOldest() throws IOException {
+        final Job job = pending.removeFirst();
+        BLineParser bLine = null;
+        if (job.bLine != null) {
+            try {
+                bLine = job.bLine.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+        job.finish(bLine);
+    }
+
+    /**
+     * Finishes all pending jobs and shuts down the threads.
+     * @throws IOException if a job failed to finish.
+     */
+    public void finish() throws IOException {
+        try {
+            while (!pending.isEmpty()) {
+                finishOldest();
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Shuts down the threads without finishing pending jobs.
+     */
+    public void shutdown() {
+        pending.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks if the threads were shut down.
+     * @return true if {@link #shutdown()} was called.
+     */
+    boolean isShutdown() {
+        return executor.isShutdown();
+    }
+}
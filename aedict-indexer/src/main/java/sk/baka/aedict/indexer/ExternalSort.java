@@ -0,0 +1,280 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import sk.baka.autils.MiscUtils;
+
+/**
+ * Sorts text files of tab-separated records by the integer key in the first
+ * column, using temporary files. At most {@link #RUN_LENGTH} records and
+ * {@link #MAX_FAN_IN} open readers are kept at any time, thus the memory
+ * consumption does not depend on the file size. The sort is stable.
+ * @author Martin Vysny
+ */
+public final class ExternalSort {
+
+    private ExternalSort() {
+        throw new AssertionError();
+    }
+    /**
+     * Maximum number of records sorted in memory.
+     */
+    static final int RUN_LENGTH = 200000;
+    /**
+     * Maximum number of runs merged at once.
+     */
+    static final int MAX_FAN_IN = 64;
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * Creates a new temporary file, deleted when the VM exits.
+     * @param prefix the file name prefix.
+     * @return the temporary file, never null.
+     * @throws IOException on I/O error.
+     */
+    public static File newTempFile(final String prefix) throws IOException {
+        final File result = File.createTempFile(prefix, ".tmp");
+        result.deleteOnExit();
+        return result;
+    }
+
+    /**
+     * Opens a writer which writes the records in the encoding expected by {@link #sort(File)}.
+     * @param file the file to write
+     * @return the writer, must be closed.
+     * @throws IOException on I/O error.
+     */
+    public static Writer newWriter(final File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+    }
+
+    /**
+     * Parses the key of given record.
+     * @param record the tab-separated record.
+     * @return the integer key from the first column.
+     */
+    public static int getKey(final String record) {
+        final int tab = record.indexOf('\t');
+        return Integer.parseInt(tab < 0 ? record : record.substring(0, tab));
+    }
+
+    /**
+     * Sorts given file by the record key. The input file is deleted.
+     * @param input the file with one record per line, in UTF-8. Blank lines are ignored.
+     * @return a new temporary file with sorted records.
+     * @throws IOException on I/O error.
+     */
+    public static File sort(final File input) throws IOException {
+        List<File> runs = createRuns(input);
+        delete(input);
+        while (runs.size() > 1) {
+            final List<File> merged = new ArrayList<File>();
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                merged.add(merge(runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN))));
+            }
+            runs = merged;
+        }
+        return runs.isEmpty() ? newTempFile("sorted") : runs.get(0);
+    }
+    private static final Comparator<String> BY_KEY = new Comparator<String>() {
+
+        public int compare(String o1, String o2) {
+            final int k1 = getKey(o1);
+            final int k2 = getKey(o2);
+            return k1 < k2 ? -1 : (k1 == k2 ? 0 : 1);
+        }
+    };
+
+    private static List<File> createRuns(final File input) throws IOException {
+        final List<File> result = new ArrayList<File>();
+        final List<String> run = new ArrayList<String>(RUN_LENGTH);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(input), ENCODING));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.trim().length() == 0) {
+                    continue;
+                }
+                run.add(line);
+                if (run.size() >= RUN_LENGTH) {
+                    result.add(writeRun(run));
+                }
+            }
+        } finally {
+            MiscUtils.closeQuietly(reader);
+        }
+        if (!run.isEmpty()) {
+            result.add(writeRun(run));
+        }
+        return result;
+    }
+
+    private static File writeRun(final List<String> run) throws IOException {
+        // Collections.sort() is a stable merge sort
+        Collections.sort(run, BY_KEY);
+        final File result = newTempFile("run");
+        final Writer writer = newWriter(result);
+        try {
+            for (final String record : run) {
+                writer.write(record);
+                writer.write('\n');
+            }
+        } finally {
+            MiscUtils.closeQuietly(writer);
+        }
+        run.clear();
+        return result;
+    }
+
+    private static File merge(final List<File> runs) throws IOException {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        final File result = newTempFile("merge");
+        final PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(runs.size(), new Comparator<Cursor>() {
+
+            public int compare(Cursor o1, Cursor o2) {
+                // ties are resolved by the run order, to keep the sort stable
+                return o1.key < o2.key ? -1 : o1.key > o2.key ? 1 : o1.order - o2.order;
+            }
+        });
+        final Writer writer = newWriter(result);
+        try {
+            for (final File run : runs) {
+                final Cursor c = new Cursor(run, queue.size());
+                if (c.next()) {
+                    queue.add(c);
+                } else {
+                    c.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                final Cursor c = queue.poll();
+                writer.write(c.record);
+                writer.write('\n');
+                if (c.next()) {
+                    queue.add(c);
+                } else {
+                    c.close();
+                }
+            }
+        } finally {
+            for (final Cursor c : queue) {
+                c.close();
+            }
+            MiscUtils.closeQuietly(writer);
+        }
+        for (final File run : runs) {
+            delete(run);
+        }
+        return result;
+    }
+
+    /**
+     * Deletes given temporary file.
+     * @param file the file to delete
+     */
+    public static void delete(final File file) {
+        if (file.exists() && !file.delete()) {
+            System.out.println("Failed to delete " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Reads sorted records one by one, to allow merge-joins of multiple sorted files.
+     */
+    public static final class Cursor {
+
+        private final BufferedReader reader;
+        private final int order;
+        /**
+         * The current record, null if {@link #next()} was not called yet or there are no more records.
+         */
+        public String record;
+        /**
+         * The current record key.
+         */
+        public int key;
+
+        /**
+         * Opens given sorted file.
+         * @param file the file produced by {@link ExternalSort#sort(File)}
+         * @throws IOException on I/O error.
+         */
+        public Cursor(final File file) throws IOException {
+            this(file, 0);
+        }
+
+        private Cursor(final File file, final int order) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+            this.order = order;
+        }
+
+        /**
+         * Moves to the next record.
+         * @return true if there is a record, false if the end of file was reached.
+         * @throws IOException on I/O error.
+         */
+        public boolean next() throws IOException {
+            record = reader.readLine();
+            while (record != null && record.trim().length() == 0) {
+                record = reader.readLine();
+            }
+            if (record == null) {
+                return false;
+            }
+            key = getKey(record);
+            return true;
+        }
+
+        /**
+         * Checks if the current record has given key.
+         * @param key the key
+         * @return true if the cursor points to a record with given key.
+         */
+        public boolean at(final int key) {
+            return record != null && this.key == key;
+        }
+
+        /**
+         * Returns the record value, without the key.
+         * @return the value, may be empty.
+         */
+        public String getValue() {
+            final int tab = record.indexOf('\t');
+            return tab < 0 ? "" : record.substring(tab + 1);
+        }
+
+        public void close() {
+            MiscUtils.closeQuietly(reader);
+        }
+    }
+}
@@ -17,11 +17,14 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package sk.baka.aedict.indexer;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.StringTokenizer;
 import org.apache.commons.io.IOUtils;
 import org.apache.lucene.document.CompressionTools;
@@ -29,8 +32,10 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexWriter;
 import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.DictionaryTrie;
 import sk.baka.aedict.dict.EdictEntry;
 import sk.baka.aedict.dict.KanjidicEntry;
+import sk.baka.aedict.dict.VerbClasses;
 import sk.baka.aedict.indexer.Main.Config;
 import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.autils.ListBuilder;
@@ -61,6 +66,9 @@ public enum FileTypeEnum {
         public IDictParser newParser(Config cfg) {
             return new IDictParser() {
 
+                private final DictionaryTrie.Builder trie = new DictionaryTrie.Builder();
+                private final VerbClasses.Builder verbs = new VerbClasses.Builder();
+
                 public void addLine(String line, IndexWriter writer) throws IOException {
                     if (line.startsWith("　？？？")) {
                         return;
@@ -76,15 +84,42 @@ public enum FileTypeEnum {
                         }
                         jp.add("W" + entry.reading + "W");
                         doc.add(new Field("jp", jp.toString(), Field.Store.NO, Field.Index.ANALYZED));
+                        // the reverse index of verb conjugations, an inflected word finds its verb directly
+                        final Set<String> words = entry.getInflections().keySet();
+                        if (!words.isEmpty()) {
+                            final ListBuilder inflected = new ListBuilder(" ");
+                            for (final String word : words) {
+                                inflected.add("W" + word + "W");
+                            }
+                            doc.add(new Field("inflected", inflected.toString(), Field.Store.NO, Field.Index.ANALYZED));
+                        }
                         writer.addDocument(doc);
+                        final int score = entry.isCommon ? DictionaryTrie.SCORE_COMMON : DictionaryTrie.SCORE_UNCOMMON;
+                        if (entry.kanji != null) {
+                            trie.add(entry.kanji, score);
+                        }
+                        trie.add(entry.reading, score);
+                        verbs.add(entry);
                     } catch (Exception ex) {
                         System.out.println("Failed to parse edict line " + line + ", skipping: " + ex);
                         ex.printStackTrace();
                     }
                 }
 
-                public void onFinish(final IndexWriter writer) {
-                    // do nothing
+                public void onFinish(final IndexWriter writer) throws IOException {
+                    // store the word trie and the verb classes alongside the Lucene index files
+                    OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(Main.LUCENE_INDEX, DictionaryTrie.FILE_NAME)));
+                    try {
+                        trie.write(out);
+                    } finally {
+                        IOUtils.closeQuietly(out);
+                    }
+                    out = new BufferedOutputStream(new FileOutputStream(new File(Main.LUCENE_INDEX, VerbClasses.FILE_NAME)));
+                    try {
+                        verbs.write(out);
+                    } finally {
+                        IOUtils.closeQuietly(out);
+                    }
                 }
             };
         }
@@ -64,25 +64,48 @@ import sk.baka.autils.MiscUtils;
 public class Main {
 
     private static final String BASE_DIR = "target";
-    static final String LUCENE_INDEX = BASE_DIR + "/index";
+    /**
+     * The directory where the Lucene index is created, before being zipped.
+     */
+    public static final String LUCENE_INDEX = BASE_DIR + "/index";
 
     /**
-     * Performs EDICT download and indexing tasks.
-     * @param args ignored, does not take any parameters.
+     * Performs EDICT download and indexing tasks. Exits the VM with a non-zero status if the indexing fails.
+     * @param args the command-line arguments, see {@link #getOptions()}.
      */
     public static void main(String[] args) {
         try {
-            if (args == null || args.length == 0) {
-                printHelp();
+            if (!run(args)) {
                 System.exit(255);
             }
-            new Main(args).run();
         } catch (Exception ex) {
             ex.printStackTrace();
             System.out.println("Indexing failed: " + ex.toString());
             System.exit(1);
         }
     }
+
+    /**
+     * Performs EDICT download and indexing tasks. Unlike {@link #main(java.lang.String[])} this method never exits the
+     * VM, therefore it may be invoked by other tools.
+     * @param args the command-line arguments, see {@link #getOptions()}.
+     * @return true if the indexing was performed, false if only the help was printed as no arguments or the
+     * <code>-?</code> switch were given.
+     * @throws Exception if the arguments are invalid or the indexing fails.
+     */
+    public static boolean run(final String[] args) throws Exception {
+        if (args == null || args.length == 0) {
+            printHelp();
+            return false;
+        }
+        final Main main = new Main(args);
+        if (main.help) {
+            printHelp();
+            return false;
+        }
+        main.run();
+        return true;
+    }
     private static final String REMOTE_DIR = "/home/moto/public_html/aedict/dictionaries";
 
     private static void exec(SSHClient ssh, String cmd) throws ConnectionException, TransportException, IOException {
@@ -160,6 +183,10 @@ public class Main {
         }
     }
     public final Config config = new Config();
+    /**
+     * True if the <code>-?</code> switch was given: only the help is printed.
+     */
+    private boolean help = false;
 
     private static Options getOptions() {
         final Options opts = new Options();
@@ -188,8 +215,8 @@ public class Main {
         final CommandLineParser parser = new GnuParser();
         final CommandLine cl = parser.parse(getOptions(), args);
         if (cl.hasOption('?')) {
-            printHelp();
-            System.exit(255);
+            help = true;
+            return;
         }
         if (cl.hasOption('k')) {
             config.fileType = FileTypeEnum.Kanjidic;
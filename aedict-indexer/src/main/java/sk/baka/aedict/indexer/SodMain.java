@@ -17,48 +17,48 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package sk.baka.aedict.indexer;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import sk.baka.aedict.util.SodContainer;
 
 /**
  * Indexes the SOD images. Expects a directory with unpacked SOD archive contents - essentially a bunch of png files named
- * [KANJI].png. This directory is packed to a huge file, packed with gzip, with the following contents:
- * <h4>The header:</h4>
- * 4 byte int - number of kanji entries; for each entry: 2-byte UTF-16 kanji character, 4-byte png offset in the file.
- * The entries are ordered by the "offset" value, ascending.
- *<h4>The contents:</h4>
- * Basically just a streams of PNG images, one after another.
+ * [KANJI].png. This directory is packed to a single file in the {@link SodContainer} format, which can be used directly
+ * on the device, without unpacking. The file in the original gzipped format is produced as well, for older clients.
  * @author Martin Vysny
  */
 public class SodMain {
 
     /**
      * Runs the indexer.
-     * @param args requires a single parameter: the unpacked sod-utf8.tar.gz location.
+     * @param args requires the unpacked sod-utf8.tar.gz location as the first parameter. An optional second parameter
+     * <code>-c</code> enables per-image compression.
      */
     public static void main(String[] args) throws Exception {
         new SodMain(args).run();
     }
     private final File sodUtf8Location;
+    private final boolean compress;
 
     private SodMain(String[] args) throws IOException {
         sodUtf8Location = new File(args[0]);
         if (!sodUtf8Location.exists()) {
             throw new IOException(sodUtf8Location + " does not exist");
         }
+        compress = args.length > 1 && args[1].equals("-c");
     }
-    private final Map<Character, File> pngLengths = new HashMap<Character, File>();
+    private final SortedMap<Character, File> pngLengths = new TreeMap<Character, File>();
 
     private void run() throws IOException {
         computePngLengths();
@@ -85,25 +85,40 @@ public class SodMain {
 
     private void createPackedFile() throws IOException {
         System.out.println("Packaging " + pngLengths.size() + " pngs");
-        final DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream("target/sod.dat.gz")));
+        final SortedMap<Character, byte[]> images = new TreeMap<Character, byte[]>();
+        for (final Map.Entry<Character, File> e : pngLengths.entrySet()) {
+            images.put(e.getKey(), FileUtils.readFileToByteArray(e.getValue()));
+        }
+        // published as sod2.dat, see SodLoader.DOWNLOAD_URL. The container is downloaded as-is
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream("target/sod2.dat"));
+        try {
+            SodContainer.write(images, compress, out);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+        createLegacyPackedFile(images);
+    }
+
+    /**
+     * Creates the file in the original format, for clients which do not understand the {@link SodContainer} format.
+     * Published as sod.dat.gz, see SodLoader.LEGACY_DOWNLOAD_URL.
+     * @param images the PNG images, ordered by kanji.
+     * @throws IOException on I/O error.
+     */
+    private void createLegacyPackedFile(final SortedMap<Character, byte[]> images) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream("target/sod.dat.gz"))));
         try {
             // write index table
-            int offset = pngLengths.size() * 6 + 4;
-            out.writeInt(pngLengths.size());
-            final List<Character> kanjis = new ArrayList<Character>(pngLengths.keySet());
-            for (final Character kanji : kanjis) {
-                out.writeChar(kanji);
+            int offset = images.size() * 6 + 4;
+            out.writeInt(images.size());
+            for (final Map.Entry<Character, byte[]> e : images.entrySet()) {
+                out.writeChar(e.getKey());
                 out.writeInt(offset);
-                offset += (int) pngLengths.get(kanji).length();
+                offset += e.getValue().length;
             }
             // write png contents
-            for (final Character kanji : kanjis) {
-                final InputStream in = new FileInputStream(pngLengths.get(kanji));
-                try {
-                    IOUtils.copy(in, out);
-                } finally {
-                    IOUtils.closeQuietly(in);
-                }
+            for (final byte[] png : images.values()) {
+                out.write(png);
             }
         } finally {
             IOUtils.closeQuietly(out);
@@ -23,17 +23,18 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.lucene.document.CompressionTools;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexWriter;
+import sk.baka.aedict.indexer.collections.StringIntMap;
 import sk.baka.aedict.kanji.KanjiUtils;
 import sk.baka.autils.MiscUtils;
 
@@ -44,9 +45,15 @@ import sk.baka.autils.MiscUtils;
 public class TanakaParser implements IDictParser {
 
     private final Edict edict;
+    /**
+     * Parses the B-lines. Shut down when the parsing fails, see
+     * {@link #addLine(String, IndexWriter)}.
+     */
+    final BLinePool pool;
 
     public TanakaParser() {
         edict = Edict.loadFromDefaultLocation(null);
+        pool = new BLinePool(edict);
     }
 
     static boolean containsKanji(final String str) {
@@ -60,6 +67,9 @@ public class TanakaParser implements IDictParser {
     private String lastLine = null;
     private Document doc;
 
+    /**
+     * The EDICT readings. Not modified after construction, thus it may be shared by the B-line parsing threads.
+     */
     public static class Edict {
 
         public static Edict loadFromDefaultLocation(String expectedDirectory) {
@@ -78,18 +88,22 @@ public class TanakaParser implements IDictParser {
             }
         }
         /**
-         * Maps entry word (kanji+hiragana) to its hiragana reading. Does not contain katakana nor pure hiragana entries as it
+         * Maps entry word (kanji+hiragana) to an index to {@link #readings}. Does not contain katakana nor pure hiragana entries as it
          * is only used to get the kana transcription of Tanaka entries.
          */
-        public final Map<String, String> edict = new HashMap<String, String>();
+        private final StringIntMap words = new StringIntMap();
+        /**
+         * Hiragana readings of the {@link #words}.
+         */
+        private final List<String> readings = new ArrayList<String>();
         private int maxKanjiWordLength = 0;
         private String longestKanjiWord;
         private int maxKanaWordLength = 0;
         private String longestKanaWord;
         /**
-         * Check if the {@link #edict} entry is common or not. Incommon entries may get overwritten.
+         * Check if the {@link #readings} entry is common or not. Incommon entries may get overwritten.
          */
-        private final Map<String, Boolean> entryIsCommon = new HashMap<String, Boolean>();
+        private final BitSet entryIsCommon = new BitSet();
 
         public Edict(File edictGz) throws IOException {
             final BufferedReader in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(edictGz)), "EUC_JP"));
@@ -117,10 +131,15 @@ public class TanakaParser implements IDictParser {
                         continue;
                     }
                     final String reading = tokens[1].trim();
-                    final String previous = edict.get(kanji);
-                    if ((previous == null) || (!entryIsCommon.get(kanji))) {
-                        edict.put(kanji, reading);
-                        entryIsCommon.put(kanji, line.endsWith("(P)"));
+                    int index = words.get(kanji, -1);
+                    if (index < 0) {
+                        index = readings.size();
+                        words.put(kanji, index);
+                        readings.add(reading);
+                        entryIsCommon.set(index, line.endsWith("(P)"));
+                    } else if (!entryIsCommon.get(index)) {
+                        readings.set(index, reading);
+                        entryIsCommon.set(index, line.endsWith("(P)"));
                     }
                 }
             } finally {
@@ -128,6 +147,16 @@ public class TanakaParser implements IDictParser {
             }
         }
 
+        /**
+         * Returns the hiragana reading of given word.
+         * @param word the entry word (kanji+hiragana).
+         * @return the reading or null if there is no such EDICT entry.
+         */
+        public String getReading(final String word) {
+            final int index = words.get(word, -1);
+            return index < 0 ? null : readings.get(index);
+        }
+
         public String getLongestKanaWord() {
             return longestKanaWord;
         }
@@ -173,19 +202,20 @@ public class TanakaParser implements IDictParser {
             }
             dictionaryFormWordList = wordList.toString();
             // prepare the kana form of the sentence.
-            final StringBuilder kana = new StringBuilder();
-            String l = japaneseSentence;
+            final StringBuilder kana = new StringBuilder(japaneseSentence.length() * 2);
+            // the part of the sentence before this index is already processed
+            int start = 0;
             for (final BWord word : words) {
                 // find the word itself, and skip preceding characters. This is used to skip e.g.
                 // 「」, question marks etc.
-                final int wordIndex = l.indexOf(word.getInSentence());
+                final int wordIndex = japaneseSentence.indexOf(word.getInSentence(), start);
                 if (wordIndex < 0) {
                     //throw new IllegalArgumentException("Line " + lastLine + " does not contain word " + word);
                     // this seems to be quite a common case. Just skip the word
                     continue;
                 }
-                kana.append(l.substring(0, wordIndex));
-                if (wordIndex == 0 && !endsWithWhitespace(kana)) {
+                kana.append(japaneseSentence, start, wordIndex);
+                if (wordIndex == start && !endsWithWhitespace(kana)) {
                     // add a whitespace to separate words. Fixes Issue 99
                     kana.append(' ');
                 }
@@ -196,9 +226,9 @@ public class TanakaParser implements IDictParser {
                     // untranslatable word. just keep the original one
                     kana.append(word.getInSentence());
                 }
-                l = l.substring(wordIndex + word.getInSentence().length());
+                start = wordIndex + word.getInSentence().length();
             }
-            kana.append(l);
+            kana.append(japaneseSentence, start, japaneseSentence.length());
             this.kana = kana.toString();
         }
 
@@ -211,9 +241,8 @@ public class TanakaParser implements IDictParser {
 
         private List<BWord> parseWords(final String bLine) {
             final List<BWord> result = new ArrayList<BWord>();
-            final ArrayList<Object> words = Collections.list(new StringTokenizer(bLine));
-            for (final Object w : words) {
-                result.add(new BWord(edict, (String) w));
+            for (final StringTokenizer t = new StringTokenizer(bLine); t.hasMoreTokens();) {
+                result.add(new BWord(edict, t.nextToken()));
             }
             return result;
         }
@@ -224,7 +253,20 @@ public class TanakaParser implements IDictParser {
         }
     }
 
-    public void addLine(String line, IndexWriter writer) throws IOException {
+    public void addLine(String line, final IndexWriter writer) throws IOException {
+        boolean success = false;
+        try {
+            parseLine(line, writer);
+            success = true;
+        } finally {
+            if (!success) {
+                // onFinish() is not called when the indexing fails
+                pool.shutdown();
+            }
+        }
+    }
+
+    private void parseLine(String line, final IndexWriter writer) throws IOException {
         if (line.startsWith("A: ")) {
             doc = new Document();
             lastLine = line.substring(3);
@@ -239,13 +281,21 @@ public class TanakaParser implements IDictParser {
         if (!line.startsWith("B: ")) {
             throw new IllegalArgumentException("The TanakaCorpus file has unexpected format: line " + line);
         }
-        final BLineParser parser = new BLineParser(edict, lastLine, line.substring(3));
-        doc.add(new Field("jp-deinflected", parser.dictionaryFormWordList, Field.Store.YES, Field.Index.ANALYZED));
-        doc.add(new Field("kana", CompressionTools.compressString(parser.kana), Field.Store.YES));
-        writer.addDocument(doc);
+        final Document doc = this.doc;
+        pool.submit(new BLinePool.Job() {
+
+            @Override
+            protected void finish(BLineParser parser) throws IOException {
+                doc.add(new Field("jp-deinflected", parser.dictionaryFormWordList, Field.Store.YES, Field.Index.ANALYZED));
+                doc.add(new Field("kana", CompressionTools.compressString(parser.kana), Field.Store.YES));
+                writer.addDocument(doc);
+            }
+        }, lastLine, line.substring(3));
     }
 
-    public void onFinish(IndexWriter writer) {
+    public void onFinish(IndexWriter writer) throws IOException {
+        // shuts down the pool even if a job fails
+        pool.finish();
         System.out.println("EDICT Statistics: longest word containing kanji: " + edict.getLongestKanjiWord().length() + ": " + edict.getLongestKanjiWord());
         System.out.println("Longest word composed purely of kana characters: " + edict.getLongestKanaWord().length() + ": " + edict.getLongestKanaWord());
     }
@@ -339,13 +389,13 @@ public class TanakaParser implements IDictParser {
             }
             // no luck. We have to search Edict for the dictionary form of the word
             if (wordInSentence != null) {
-                result = edict.edict.get(wordInSentence);
+                result = edict.getReading(wordInSentence);
                 if (result != null) {
                     return result;
                 }
             }
             // ow, tough. We need to try to somehow match it with the deinflected form.
-            String hiragana = containsKanji(dictionaryForm) ? edict.edict.get(dictionaryForm) : dictionaryForm;
+            String hiragana = containsKanji(dictionaryForm) ? edict.getReading(dictionaryForm) : dictionaryForm;
             if (hiragana == null) {
                 throw new RuntimeException(dictionaryForm + " is not in EDICT. Nothing to do.");
             }
@@ -365,8 +415,20 @@ public class TanakaParser implements IDictParser {
             return kanaSubstring + wordInSentence.substring(kanjiSubstring.length());
         }
 
+        /**
+         * Pairs of a pattern and its replacement, applied in this order by {@link #postprocess(java.lang.String)}.
+         */
+        private static final Object[] POSTPROCESS = new Object[]{
+            Pattern.compile("１か月"), "一ヶ月", Pattern.compile("１カ所"), "一か所", Pattern.compile("10|１０"), "十",
+            Pattern.compile("２４"), "二十", Pattern.compile("１４"), "十四", Pattern.compile("1|１"), "一",
+            Pattern.compile("2|２"), "二", Pattern.compile("3|３"), "三", Pattern.compile("4|４"), "四"};
+
         private String postprocess(String wordInSentence) {
-            return wordInSentence.replaceAll("１か月", "一ヶ月").replaceAll("１カ所", "一か所").replaceAll("10|１０", "十").replaceAll("２４", "二十").replaceAll("１４", "十四").replaceAll("1|１", "一").replaceAll("2|２", "二").replaceAll("3|３", "三").replaceAll("4|４", "四").replace('5', '五');
+            String result = wordInSentence;
+            for (int i = 0; i < POSTPROCESS.length; i += 2) {
+                result = ((Pattern) POSTPROCESS[i]).matcher(result).replaceAll((String) POSTPROCESS[i + 1]);
+            }
+            return result.replace('5', '五');
         }
 
         private String getShortestPrefixWithAllKanjis(final String jp) {
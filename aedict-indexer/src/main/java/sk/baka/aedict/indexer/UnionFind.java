@@ -0,0 +1,84 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+/**
+ * A disjoint-set forest over the integers 0..size-1, with path compression
+ * and union by rank. Both operations run in near-constant amortized time.
+ * @author Martin Vysny
+ */
+public final class UnionFind {
+
+    private final int[] parent;
+    private final byte[] rank;
+
+    /**
+     * Creates a forest where each element forms its own set.
+     * @param size the number of elements.
+     */
+    public UnionFind(final int size) {
+        parent = new int[size];
+        rank = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * Finds the representative element of the set containing given element.
+     * @param i the element
+     * @return the set representative. Two elements are in the same set if and only if they have the same representative.
+     */
+    public int find(int i) {
+        while (parent[i] != i) {
+            // path halving: point each visited element to its grandparent
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Merges the sets containing given elements.
+     * @param a the first element
+     * @param b the second element
+     */
+    public void union(final int a, final int b) {
+        final int ra = find(a);
+        final int rb = find(b);
+        if (ra == rb) {
+            return;
+        }
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the number of elements.
+     */
+    public int size() {
+        return parent.length;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+/**
+ * Hashing shared by the open addressing collections.
+ * @author Martin Vysny
+ */
+final class Hashing {
+
+    private Hashing() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Computes the table capacity for given number of entries: a power of two,
+     * at least twice the number of entries.
+     * @param expectedSize the expected number of entries.
+     * @return the capacity.
+     */
+    static int capacity(final int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Computes the first slot for given hash code.
+     * @param hash the hash code.
+     * @param mask the table size minus one, the table size is a power of two.
+     * @return the slot.
+     */
+    static int slot(int hash, final int mask) {
+        // spread the higher bits, the table size is a power of two
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+
+    /**
+     * Checks if a table holding given number of entries should grow.
+     * @param size the number of entries.
+     * @param capacity the table size.
+     * @return true if the table is more than 3/4 full.
+     */
+    static boolean isFull(final int size, final int capacity) {
+        return size * 4 >= capacity * 3;
+    }
+}
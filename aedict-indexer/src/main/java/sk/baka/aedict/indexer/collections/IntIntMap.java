@@ -0,0 +1,123 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+/**
+ * Maps primitive ints to primitive ints. Uses open addressing with linear
+ * probing, thus no entry objects are created and the values are not boxed.
+ * @author Martin Vysny
+ */
+public final class IntIntMap {
+
+    private int[] keys;
+    private int[] values;
+    /**
+     * Marks the occupied slots: any int is a valid key.
+     */
+    private boolean[] used;
+    private int size = 0;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntIntMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map.
+     * @param expectedSize the expected number of entries.
+     */
+    public IntIntMap(final int expectedSize) {
+        final int capacity = Hashing.capacity(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int slot(final int[] keys, final boolean[] used, final int key) {
+        final int mask = keys.length - 1;
+        int i = Hashing.slot(key, mask);
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the value mapped to given key.
+     * @param key the key.
+     * @param missing returned when there is no mapping for the key.
+     * @return the value.
+     */
+    public int get(final int key, final int missing) {
+        final int i = slot(keys, used, key);
+        return used[i] ? values[i] : missing;
+    }
+
+    /**
+     * Checks if there is a mapping for given key.
+     * @param key the key.
+     * @return true if the key is mapped.
+     */
+    public boolean containsKey(final int key) {
+        return used[slot(keys, used, key)];
+    }
+
+    /**
+     * Maps given key to given value, replacing previous mapping.
+     * @param key the key.
+     * @param value the value.
+     */
+    public void put(final int key, final int value) {
+        final int i = slot(keys, used, key);
+        values[i] = value;
+        if (!used[i]) {
+            keys[i] = key;
+            used[i] = true;
+            if (Hashing.isFull(++size, keys.length)) {
+                rehash();
+            }
+        }
+    }
+
+    private void rehash() {
+        final int[] newKeys = new int[keys.length * 2];
+        final int[] newValues = new int[newKeys.length];
+        final boolean[] newUsed = new boolean[newKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                final int j = slot(newKeys, newUsed, keys[i]);
+                newKeys[j] = keys[i];
+                newValues[j] = values[i];
+                newUsed[j] = true;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        used = newUsed;
+    }
+
+    /**
+     * Returns the number of mappings.
+     * @return the map size.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints.
+ * @author Martin Vysny
+ */
+public final class IntList {
+
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty list.
+     */
+    public IntList() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty list.
+     * @param capacity the initial capacity.
+     */
+    public IntList(final int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends given value.
+     * @param value the value to add.
+     */
+    public void add(final int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Returns value at given index.
+     * @param index the index, 0..size-1
+     * @return the value
+     */
+    public int get(final int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the number of values in this list.
+     * @return the list size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values sorted and without duplicates.
+     * @return a new array with sorted unique values.
+     */
+    public int[] toSortedSet() {
+        final int[] result = Arrays.copyOf(values, size);
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (unique == 0 || result[unique - 1] != result[i]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+}
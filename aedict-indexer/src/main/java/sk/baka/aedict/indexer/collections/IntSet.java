@@ -0,0 +1,108 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+/**
+ * A set of primitive ints. Uses open addressing with linear probing, thus no
+ * entry objects are created and the values are not boxed.
+ * @author Martin Vysny
+ */
+public final class IntSet {
+
+    private int[] keys;
+    /**
+     * Marks the occupied slots: any int is a valid key.
+     */
+    private boolean[] used;
+    private int size = 0;
+
+    /**
+     * Creates an empty set.
+     */
+    public IntSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set.
+     * @param expectedSize the expected number of values.
+     */
+    public IntSet(final int expectedSize) {
+        final int capacity = Hashing.capacity(expectedSize);
+        keys = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int slot(final int[] keys, final boolean[] used, final int key) {
+        final int mask = keys.length - 1;
+        int i = Hashing.slot(key, mask);
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Checks if given value is in the set.
+     * @param value the value.
+     * @return true if the value is present.
+     */
+    public boolean contains(final int value) {
+        return used[slot(keys, used, value)];
+    }
+
+    /**
+     * Adds given value to the set.
+     * @param value the value.
+     * @return true if the value was added, false if it was already present.
+     */
+    public boolean add(final int value) {
+        final int i = slot(keys, used, value);
+        if (used[i]) {
+            return false;
+        }
+        keys[i] = value;
+        used[i] = true;
+        if (Hashing.isFull(++size, keys.length)) {
+            rehash();
+        }
+        return true;
+    }
+
+    private void rehash() {
+        final int[] newKeys = new int[keys.length * 2];
+        final boolean[] newUsed = new boolean[newKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                final int j = slot(newKeys, newUsed, keys[i]);
+                newKeys[j] = keys[i];
+                newUsed[j] = true;
+            }
+        }
+        keys = newKeys;
+        used = newUsed;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the set size.
+     */
+    public int size() {
+        return size;
+    }
+}
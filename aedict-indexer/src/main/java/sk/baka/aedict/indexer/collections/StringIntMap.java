@@ -0,0 +1,126 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+/**
+ * Maps strings to primitive ints. Uses open addressing with linear probing,
+ * thus no entry objects are created and the values are not boxed. The keys are
+ * {@link String#intern() interned}, so that a word is not stored twice when
+ * it is also held elsewhere, and a lookup by an interned key is resolved by a
+ * reference comparison.
+ * @author Martin Vysny
+ */
+public final class StringIntMap {
+
+    private String[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty map.
+     */
+    public StringIntMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map.
+     * @param expectedSize the expected number of entries.
+     */
+    public StringIntMap(final int expectedSize) {
+        final int capacity = Hashing.capacity(expectedSize);
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    private static int slot(final String[] keys, final String key) {
+        final int mask = keys.length - 1;
+        int i = Hashing.slot(key.hashCode(), mask);
+        while (keys[i] != null && keys[i] != key && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the value mapped to given key.
+     * @param key the key, not null.
+     * @param missing returned when there is no mapping for the key.
+     * @return the value.
+     */
+    public int get(final String key, final int missing) {
+        final int i = slot(keys, key);
+        return keys[i] == null ? missing : values[i];
+    }
+
+    /**
+     * Returns the stored key equal to given key.
+     * @param key the key, not null.
+     * @return the interned key, null if there is no mapping for the key.
+     */
+    String getKey(final String key) {
+        return keys[slot(keys, key)];
+    }
+
+    /**
+     * Checks if there is a mapping for given key.
+     * @param key the key, not null.
+     * @return true if the key is mapped.
+     */
+    public boolean containsKey(final String key) {
+        return keys[slot(keys, key)] != null;
+    }
+
+    /**
+     * Maps given key to given value, replacing previous mapping.
+     * @param key the key, not null.
+     * @param value the value.
+     */
+    public void put(final String key, final int value) {
+        final int i = slot(keys, key);
+        values[i] = value;
+        if (keys[i] == null) {
+            keys[i] = key.intern();
+            if (Hashing.isFull(++size, keys.length)) {
+                rehash();
+            }
+        }
+    }
+
+    private void rehash() {
+        final String[] newKeys = new String[keys.length * 2];
+        final int[] newValues = new int[newKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                final int j = slot(newKeys, keys[i]);
+                newKeys[j] = keys[i];
+                newValues[j] = values[i];
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    /**
+     * Returns the number of mappings.
+     * @return the map size.
+     */
+    public int size() {
+        return size;
+    }
+}
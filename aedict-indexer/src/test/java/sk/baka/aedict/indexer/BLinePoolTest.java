@@ -0,0 +1,111 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import sk.baka.aedict.indexer.TanakaParser.BLineParser;
+import sk.baka.aedict.indexer.TanakaParser.Edict;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link BLinePool} class.
+ * @author Martin Vysny
+ */
+public class BLinePoolTest {
+
+    private static Edict edict;
+
+    @BeforeClass
+    public static void loadEdict() {
+        edict = Edict.loadFromDefaultLocation(null);
+    }
+
+    @Test
+    public void testBLineToKana() {
+        final BLineParser p = new BLineParser(edict, "私は学生です。", "私(わたし) は 学生 です");
+        assertEquals("私 は 学生 です ", p.dictionaryFormWordList);
+        assertEquals("わたし は がくせい です。", p.kana);
+        assertEquals("よみました。", new BLineParser(edict, "読みました。", "読む{読みました}").kana);
+    }
+
+    @Test
+    public void testFailedTanakaParsingShutsDownThePool() throws Exception {
+        final TanakaParser parser = new TanakaParser();
+        try {
+            parser.addLine("C: unexpected", null);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertTrue(parser.pool.isShutdown());
+    }
+
+    @Test
+    public void testJobsAreFinishedInOrder() throws Exception {
+        final String[][] lines = {{"私は学生です。", "私(わたし) は 学生 です"}, {"本を読みました。", "本 を 読む{読みました}"}, {"「あれが生徒会長？」", "彼(あれ) が 生徒会長"}};
+        final List<String> expected = new ArrayList<String>();
+        final List<String> result = new ArrayList<String>();
+        final BLinePool pool = new BLinePool(edict, 4);
+        for (int i = 0; i < BLinePool.MAX_PENDING * 20; i++) {
+            final String[] line = lines[i % lines.length];
+            expected.add(i + new BLineParser(edict, line[0], line[1]).kana);
+            final int index = i;
+            pool.submit(new BLinePool.Job() {
+
+                @Override
+                protected void finish(BLineParser bLine) {
+                    result.add(index + bLine.kana);
+                }
+            }, line[0], line[1]);
+        }
+        pool.submit(new BLinePool.Job() {
+
+            @Override
+            protected void finish(BLineParser bLine) {
+                assertNull(bLine);
+                result.add("missing");
+            }
+        }, "私", null);
+        expected.add("missing");
+        pool.finish();
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testFailedJobShutsDownThePool() throws Exception {
+        final BLinePool pool = new BLinePool(edict, 2);
+        pool.submit(new BLinePool.Job() {
+
+            @Override
+            protected void finish(BLineParser bLine) throws IOException {
+                throw new IOException("simulated");
+            }
+        }, "私", "私(わたし)");
+        try {
+            pool.finish();
+            fail();
+        } catch (IOException ex) {
+            assertEquals("simulated", ex.getMessage());
+        }
+        assertTrue(pool.isShutdown());
+    }
+}
@@ -0,0 +1,79 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import sk.baka.aedict.dict.DictEntry;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.DirectoryStrategy;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.MatcherEnum;
+import sk.baka.aedict.dict.SearchQuery;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that all {@link DirectoryStrategy directory strategies} produce the
+ * same results over the test EDICT and KANJIDIC indexes. The strategies are
+ * benchmarked by the DirectoryStrategyBenchmark of the aedict-bench module.
+ * @author Martin Vysny
+ */
+public class DirectoryStrategySearchTest {
+
+    @Test
+    public void testEdict() throws Exception {
+        Utils.index(null, "edict.gz", FileTypeEnum.Edict);
+        check(DictTypeEnum.Edict, Arrays.asList(SearchQuery.searchEnEdict("mother", true), SearchQuery.searchEnEdict("mother", false), SearchQuery.searchJpEdict("はは", MatcherEnum.Exact), SearchQuery.searchJpEdict("きょう", MatcherEnum.Substring)));
+    }
+
+    @Test
+    public void testKanjidic() throws Exception {
+        Utils.index("-k", "kanjidic.gz", FileTypeEnum.Kanjidic);
+        check(DictTypeEnum.Kanjidic, Arrays.asList(SearchQuery.kanjiSearch('読', null, null), SearchQuery.kanjiSearch('慕', null, null)));
+    }
+
+    private static void check(final DictTypeEnum dictType, final List<SearchQuery> queries) throws Exception {
+        List<String> expected = null;
+        for (final DirectoryStrategy strategy : DirectoryStrategy.values()) {
+            final LuceneSearch search = new LuceneSearch(dictType, Main.LUCENE_INDEX, true, strategy);
+            try {
+                final List<String> result = search(search, queries);
+                assertFalse(result.isEmpty());
+                if (expected == null) {
+                    expected = result;
+                } else {
+                    assertEquals("Strategy " + strategy + " produced different results", expected, result);
+                }
+            } finally {
+                search.close();
+            }
+        }
+    }
+
+    private static List<String> search(final LuceneSearch search, final List<SearchQuery> queries) throws Exception {
+        final List<String> result = new ArrayList<String>();
+        for (final SearchQuery q : queries) {
+            for (final DictEntry e : search.search(q)) {
+                result.add(e.toString());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import sk.baka.aedict.indexer.ExternalSort.Cursor;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ExternalSort} class.
+ * @author Martin Vysny
+ */
+public class ExternalSortTest {
+
+    private static File write(final List<String> records) throws Exception {
+        final File result = ExternalSort.newTempFile("test");
+        final Writer w = ExternalSort.newWriter(result);
+        try {
+            for (final String record : records) {
+                w.write(record + "\n");
+            }
+        } finally {
+            w.close();
+        }
+        return result;
+    }
+
+    private static List<String> read(final File file) throws Exception {
+        final List<String> result = new ArrayList<String>();
+        final Cursor c = new Cursor(file);
+        try {
+            while (c.next()) {
+                result.add(c.record);
+            }
+        } finally {
+            c.close();
+        }
+        return result;
+    }
+
+    @Test
+    public void testSortSmallFile() throws Exception {
+        final List<String> records = new ArrayList<String>();
+        records.add("20\tb\tばか");
+        records.add("3\ta");
+        records.add("");
+        records.add("20\ta");
+        records.add("100");
+        final File sorted = ExternalSort.sort(write(records));
+        try {
+            final List<String> expected = new ArrayList<String>();
+            expected.add("3\ta");
+            expected.add("20\tb\tばか");
+            expected.add("20\ta");
+            expected.add("100");
+            assertEquals(expected, read(sorted));
+        } finally {
+            ExternalSort.delete(sorted);
+        }
+    }
+
+    @Test
+    public void testSortMultipleRuns() throws Exception {
+        final Random r = new Random(1);
+        final List<String> records = new ArrayList<String>();
+        for (int i = 0; i < ExternalSort.RUN_LENGTH * 3 + 7; i++) {
+            records.add(r.nextInt(1000) + "\t" + i);
+        }
+        final File sorted = ExternalSort.sort(write(records));
+        try {
+            final List<String> result = read(sorted);
+            assertEquals(records.size(), result.size());
+            for (int i = 1; i < result.size(); i++) {
+                final int k1 = ExternalSort.getKey(result.get(i - 1));
+                final int k2 = ExternalSort.getKey(result.get(i));
+                assertTrue(k1 <= k2);
+                if (k1 == k2) {
+                    // stable
+                    assertTrue(Integer.parseInt(result.get(i - 1).split("\t")[1]) < Integer.parseInt(result.get(i).split("\t")[1]));
+                }
+            }
+        } finally {
+            ExternalSort.delete(sorted);
+        }
+    }
+
+    @Test
+    public void testSortEmptyFile() throws Exception {
+        final File sorted = ExternalSort.sort(write(new ArrayList<String>()));
+        try {
+            assertTrue(read(sorted).isEmpty());
+        } finally {
+            ExternalSort.delete(sorted);
+        }
+    }
+}
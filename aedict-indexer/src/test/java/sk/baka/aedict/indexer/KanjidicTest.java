@@ -17,9 +17,19 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package sk.baka.aedict.indexer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import sk.baka.aedict.dict.DictEntry;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.KanjidicEntry;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.MatcherEnum;
+import sk.baka.aedict.dict.MemoryKanjidic;
+import sk.baka.aedict.dict.SearchQuery;
 import static org.junit.Assert.*;
 
 /**
@@ -62,4 +72,64 @@ public class KanjidicTest extends AbstractLuceneSearchTest {
         assertEquals(1, s.size());
         assertEquals("2-3-11", s.get(0));
     }
+
+    @Test
+    public void testLookupKanji() throws Exception {
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Kanjidic, Main.LUCENE_INDEX, false);
+        try {
+            final Map<Character, DictEntry> result = search.lookupKanji("慕う読む慕x");
+            assertEquals(Arrays.asList('慕', '読'), new ArrayList<Character>(result.keySet()));
+            assertEquals("2-3-11", ((KanjidicEntry) result.get('慕')).skip);
+            assertEquals("1-7-7", ((KanjidicEntry) result.get('読')).skip);
+            assertTrue(search.lookupKanji("abc").isEmpty());
+        } finally {
+            search.close();
+        }
+    }
+
+    @Test
+    public void testMemoryKanjidic() throws Exception {
+        final MemoryKanjidic memory = MemoryKanjidic.load(Main.LUCENE_INDEX);
+        assertNull(memory.get('x'));
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Kanjidic, Main.LUCENE_INDEX, false);
+        try {
+            for (final Map.Entry<Character, DictEntry> e : search.lookupKanji("慕読").entrySet()) {
+                final KanjidicEntry expected = (KanjidicEntry) e.getValue();
+                final KanjidicEntry actual = memory.get(e.getKey());
+                assertEquals(expected, actual);
+                assertEquals(expected.skip, actual.skip);
+                assertEquals(expected.radical, actual.radical);
+                assertEquals(expected.strokes, actual.strokes);
+                assertEquals(expected.grade, actual.grade);
+            }
+        } finally {
+            search.close();
+        }
+        final SearchQuery q = new SearchQuery(DictTypeEnum.Kanjidic);
+        q.matcher = MatcherEnum.Exact;
+        q.skip = "1-7-7";
+        q.strokeCount = 14;
+        assertTrue(memory.search(q, 100, false).contains(memory.get('読')));
+        q.skip = "2-3-11";
+        assertFalse(memory.search(q, 100, false).contains(memory.get('読')));
+    }
+
+    @Test
+    public void testKanjidicServedFromMemory() throws Exception {
+        LuceneSearch.setKanjidic(MemoryKanjidic.load(Main.LUCENE_INDEX));
+        try {
+            final LuceneSearch search = new LuceneSearch(DictTypeEnum.Kanjidic, Main.LUCENE_INDEX, false);
+            try {
+                final Map<Character, DictEntry> result = search.lookupKanji("慕う読む慕x");
+                assertEquals(Arrays.asList('慕', '読'), new ArrayList<Character>(result.keySet()));
+                final List<DictEntry> found = search.search(SearchQuery.kanjiSearch('慕', null, null));
+                assertEquals(1, found.size());
+                assertEquals("2-3-11", ((KanjidicEntry) found.get(0)).skip);
+            } finally {
+                search.close();
+            }
+        } finally {
+            LuceneSearch.setKanjidic(null);
+        }
+    }
 }
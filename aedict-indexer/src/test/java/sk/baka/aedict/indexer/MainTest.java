@@ -18,10 +18,22 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package sk.baka.aedict.indexer;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.cli.ParseException;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import sk.baka.aedict.dict.DictEntry;
+import sk.baka.aedict.dict.DictTypeEnum;
+import sk.baka.aedict.dict.DictionaryTrie;
+import sk.baka.aedict.dict.LuceneSearch;
+import sk.baka.aedict.dict.MatcherEnum;
+import sk.baka.aedict.dict.SearchQuery;
+import sk.baka.aedict.dict.VerbClasses;
 import static org.junit.Assert.*;
 
 /**
@@ -67,6 +79,108 @@ public class MainTest extends AbstractLuceneSearchTest {
         assertEquals(2444, result.size());
     }
 
+    @Test
+    public void wordTrieIsCreated() throws Exception {
+        final DictionaryTrie trie = DictionaryTrie.open(Main.LUCENE_INDEX);
+        assertNotNull(trie);
+        assertEquals(DictionaryTrie.SCORE_COMMON, trie.getScore("今日"));
+        assertTrue(trie.contains("きょう"));
+    }
+
+    @Test
+    public void findInflected() throws Exception {
+        final List<String> result = search(null, "inflected:\"W食べなかったW\"");
+        assertEquals(Arrays.asList("食べる [たべる] /(v1,vt) to eat/(P)/"), result);
+    }
+
+    @Test
+    public void verbClassesAreCreated() throws Exception {
+        final VerbClasses verbs = VerbClasses.open(Main.LUCENE_INDEX);
+        assertNotNull(verbs);
+        assertEquals(VerbClasses.ICHIDAN, verbs.getClasses("食べる"));
+        assertEquals(VerbClasses.ICHIDAN, verbs.getClasses("たべる"));
+        assertEquals(VerbClasses.GODAN_RU, verbs.getClasses("帰る"));
+        assertEquals(VerbClasses.GODAN_KU, verbs.getClasses("行く"));
+        assertEquals(VerbClasses.GODAN_RU | VerbClasses.KURU, verbs.getClasses("来る"));
+        assertEquals(0, verbs.getClasses("今日"));
+    }
+
+    @Test
+    public void searchAllMergesQueries() throws Exception {
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Edict, Main.LUCENE_INDEX, true);
+        try {
+            final SearchQuery jp = SearchQuery.searchJpEdict("はは", MatcherEnum.Exact);
+            final SearchQuery en = SearchQuery.searchEnEdict("mother", true);
+            final Set<String> jpResult = toStrings(search.search(jp));
+            final Set<String> enResult = toStrings(search.search(en));
+            final List<LuceneSearch.Hit> hits = search.searchAll(Arrays.asList(jp, en));
+            final Set<String> all = new HashSet<String>(jpResult);
+            all.addAll(enResult);
+            assertEquals(all, toStrings(LuceneSearch.Hit.getEntries(hits)));
+            assertEquals(all.size(), hits.size());
+            for (final LuceneSearch.Hit hit : hits) {
+                assertTrue(hit.entry.toString(), (hit.query == jp ? jpResult : enResult).contains(hit.entry.toString()));
+            }
+        } finally {
+            search.close();
+        }
+    }
+
+    @Test
+    public void searchAllLimitsResultsPerQuery() throws Exception {
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Edict, Main.LUCENE_INDEX, true);
+        try {
+            final SearchQuery jp = SearchQuery.searchJpEdict("はは", MatcherEnum.Exact);
+            final SearchQuery en = SearchQuery.searchEnEdict("mother", true);
+            assertTrue(search.search(en).size() > 1);
+            // the English matches must not crowd out the Japanese ones
+            final List<LuceneSearch.Hit> hits = search.searchAll(Arrays.asList(en, jp), 1);
+            assertEquals(2, hits.size());
+            assertNotSame(hits.get(0).query, hits.get(1).query);
+        } finally {
+            search.close();
+        }
+    }
+
+    @Test
+    public void searchInflectedVerb() throws Exception {
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Edict, Main.LUCENE_INDEX, true);
+        try {
+            assertTrue(search.search(SearchQuery.searchJpEdict("食べなかった", MatcherEnum.Exact)).isEmpty());
+            final SearchQuery q = SearchQuery.searchJpEdict("食べなかった", MatcherEnum.Exact);
+            q.inflected = new String[]{"食べなかった"};
+            final List<DictEntry> result = search.search(q);
+            assertEquals(1, result.size());
+            assertEquals("食べる", result.get(0).kanji);
+        } finally {
+            search.close();
+        }
+    }
+
+    @Test
+    public void lookupKanjiPicksBestEdictEntry() throws Exception {
+        // the search is not sorted, the best entry must be picked anyway
+        final LuceneSearch search = new LuceneSearch(DictTypeEnum.Edict, Main.LUCENE_INDEX, false);
+        try {
+            final Map<Character, DictEntry> result = search.lookupKanji("愛亜x");
+            assertEquals(Arrays.asList('愛', '亜'), new ArrayList<Character>(result.keySet()));
+            assertEquals("あい", result.get('愛').reading);
+            assertEquals(Boolean.TRUE, result.get('愛').isCommon);
+            // only uncommon entries are available for this kanji
+            assertEquals("あ", result.get('亜').reading);
+        } finally {
+            search.close();
+        }
+    }
+
+    private static Set<String> toStrings(final List<DictEntry> entries) {
+        final Set<String> result = new HashSet<String>();
+        for (final DictEntry e : entries) {
+            result.add(e.toString());
+        }
+        return result;
+    }
+
     @Override
     protected String getDefaultFieldName() {
         return "contents";
@@ -0,0 +1,65 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link UnionFind} class.
+ * @author Martin Vysny
+ */
+public class UnionFindTest {
+
+    @Test
+    public void testSingletons() {
+        final UnionFind uf = new UnionFind(3);
+        assertEquals(3, uf.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, uf.find(i));
+        }
+    }
+
+    @Test
+    public void testUnion() {
+        final UnionFind uf = new UnionFind(6);
+        uf.union(0, 1);
+        uf.union(2, 1);
+        uf.union(4, 5);
+        uf.union(5, 4);
+        assertEquals(uf.find(0), uf.find(2));
+        assertEquals(uf.find(1), uf.find(2));
+        assertEquals(uf.find(4), uf.find(5));
+        assertFalse(uf.find(0) == uf.find(4));
+        assertEquals(3, uf.find(3));
+    }
+
+    @Test
+    public void testLongChain() {
+        // a deep chain must not overflow the stack
+        final int size = 1000000;
+        final UnionFind uf = new UnionFind(size);
+        for (int i = 1; i < size; i++) {
+            uf.union(i - 1, i);
+        }
+        final int root = uf.find(0);
+        for (int i = 0; i < size; i++) {
+            assertEquals(root, uf.find(i));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link IntIntMap} class.
+ * @author Martin Vysny
+ */
+public class IntIntMapTest {
+
+    @Test
+    public void testPutGet() {
+        final IntIntMap map = new IntIntMap();
+        assertEquals(-1, map.get(0, -1));
+        assertFalse(map.containsKey(0));
+        map.put(0, 1);
+        map.put(-5, 2);
+        map.put(Integer.MIN_VALUE, 3);
+        assertEquals(1, map.get(0, -1));
+        assertEquals(2, map.get(-5, -1));
+        assertEquals(3, map.get(Integer.MIN_VALUE, -1));
+        assertTrue(map.containsKey(-5));
+        assertEquals(3, map.size());
+        map.put(0, 4);
+        assertEquals(4, map.get(0, -1));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testRehash() {
+        final IntIntMap map = new IntIntMap(1);
+        final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        final Random r = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final int key = r.nextInt(50000) * 1024;
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (final Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue().intValue(), map.get(e.getKey(), -1));
+        }
+        assertEquals(-1, map.get(1, -1));
+    }
+}
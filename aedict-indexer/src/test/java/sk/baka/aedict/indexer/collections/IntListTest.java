@@ -0,0 +1,57 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link IntList} class.
+ * @author Martin Vysny
+ */
+public class IntListTest {
+
+    @Test
+    public void testAddGet() {
+        final IntList list = new IntList(1);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 2);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(0, list.get(0));
+        assertEquals(1998, list.get(999));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        final IntList list = new IntList();
+        list.add(1);
+        list.get(1);
+    }
+
+    @Test
+    public void testToSortedSet() {
+        final IntList list = new IntList();
+        for (final int i : new int[]{5, 3, 5, 1, 3, 10}) {
+            list.add(i);
+        }
+        assertTrue(Arrays.equals(new int[]{1, 3, 5, 10}, list.toSortedSet()));
+        assertEquals(0, new IntList().toSortedSet().length);
+    }
+}
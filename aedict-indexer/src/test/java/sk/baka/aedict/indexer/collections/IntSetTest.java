@@ -0,0 +1,60 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link IntSet} class.
+ * @author Martin Vysny
+ */
+public class IntSetTest {
+
+    @Test
+    public void testAddContains() {
+        final IntSet set = new IntSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertTrue(set.add(Integer.MIN_VALUE));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Integer.MIN_VALUE));
+        assertFalse(set.contains(1));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testRehash() {
+        final IntSet set = new IntSet(1);
+        final Set<Integer> expected = new HashSet<Integer>();
+        final Random r = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final int value = r.nextInt(50000) * 1024;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (final int value : expected) {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(1));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+Aedict - an EDICT browser for Android
+Copyright (C) 2009 Martin Vysny
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sk.baka.aedict.indexer.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link StringIntMap} class.
+ * @author Martin Vysny
+ */
+public class StringIntMapTest {
+
+    @Test
+    public void testPutGet() {
+        final StringIntMap map = new StringIntMap();
+        assertEquals(-1, map.get("母", -1));
+        assertFalse(map.containsKey("母"));
+        map.put("母", 1);
+        map.put("父", 2);
+        assertEquals(1, map.get("母", -1));
+        assertEquals(2, map.get(new String("父"), -1));
+        assertTrue(map.containsKey("父"));
+        assertEquals(2, map.size());
+        map.put("母", 3);
+        assertEquals(3, map.get("母", -1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testKeysAreInterned() {
+        final StringIntMap map = new StringIntMap();
+        final String key = new String("母");
+        map.put(key, 1);
+        map.put(new String("母"), 2);
+        assertEquals(1, map.size());
+        assertEquals(2, map.get("母", -1));
+        assertSame("母", map.getKey(key));
+        assertNull(map.getKey("父"));
+    }
+
+    @Test
+    public void testRehash() {
+        final StringIntMap map = new StringIntMap(1);
+        final Map<String, Integer> expected = new HashMap<String, Integer>();
+        final Random r = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final String key = Integer.toString(r.nextInt(50000), 36);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (final Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue().intValue(), map.get(e.getKey(), -1));
+        }
+        assertEquals(-1, map.get("not there", -1));
+    }
+}